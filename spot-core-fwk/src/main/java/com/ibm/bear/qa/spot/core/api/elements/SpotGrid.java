@@ -97,6 +97,29 @@ public interface SpotGrid extends SpotTable {
 		}
 	}
 
+	/**
+	 * Enum representing the type of values displayed in a column, which defines
+	 * how they have to be compared when verifying the column sort order.
+	 */
+	public enum SortType {
+		/**
+		 * Values are compared as texts, ignoring case.
+		 */
+		Text,
+		/**
+		 * Values are compared as numbers.
+		 */
+		Numeric,
+		/**
+		 * Values are compared as dates.
+		 */
+		Date,
+		/**
+		 * Values are compared as versions (e.g. <code>1.10</code> is higher than <code>1.9</code>).
+		 */
+		Version
+	}
+
 /**
  * Apply the given sort mode to the given column.
  *
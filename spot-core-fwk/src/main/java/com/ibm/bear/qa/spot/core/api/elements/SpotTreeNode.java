@@ -39,6 +39,7 @@ import com.ibm.bear.qa.spot.core.scenario.errors.ScenarioImplementationError;
  * <li>{@link #getVisibleNodes()}: Return the list of visible nodes in the tree relatively to the current node.</li>
  * <li>{@link #isSelected()}: Returns whethert the current node is selected or not.</li>
  * <li>{@link #searchNode(String)}: Searches the node with the given name in the hierarchy starting from current node.</li>
+ * <li>{@link #searchNodeByLevel(String,String...)}: Searches the node with the given name level by level in the hierarchy starting from current node.</li>
  * <li>{@link #select()}: Select the current node.</li>
  * <li>{@link #selectNode(String)}: Selects the node in the tree matching the given path relatively to the current node.</li>
  * </ul>
@@ -164,6 +165,26 @@ boolean isSelected();
  */
 SpotTreeNode searchNode(final String name) throws ScenarioImplementationError;
 
+/**
+ * Searches the node with the given name level by level in the hierarchy starting from current node.
+ * <p>
+ * Contrary to {@link #searchNode(String)}, the search is done breadth first:
+ * all nodes of a level are checked before going to the next one. Containers
+ * of a level are expanded in a single batch: all expansions are started before
+ * waiting for any of them, which avoid to serialize server requests on lazily
+ * loaded trees.
+ * </p><p>
+ * Branches can be pruned by specifying label prefixes. In such case, only
+ * containers whose label starts with one of the given prefixes are expanded.
+ * When no prefix is given, all containers are expanded.
+ * </p>
+ * @param name The node to search in the hierarchy. It must be a simple name.
+ * @param prefixes The label prefixes of containers to expand during the search
+ * @return The first node matching the given name or <code>null</code> if none was found.
+ * @throws ScenarioImplementationError If the given node contains path separator
+ */
+SpotTreeNode searchNodeByLevel(final String name, final String... prefixes) throws ScenarioImplementationError;
+
 /**
  * Select the current node by clicking on it.
  */
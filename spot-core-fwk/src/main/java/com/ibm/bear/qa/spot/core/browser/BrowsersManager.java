@@ -41,18 +41,25 @@ import com.ibm.bear.qa.spot.core.web.WebBrowser;
  * currently used browser, allowing snapshots to be taken on the active browser when Selenium
  * execution problem occurs.
  * </p><p>
+ * When several users act concurrently (see {@link com.ibm.bear.qa.spot.core.scenario.SpotParallelUsers}),
+ * each user thread is bound to its own browser (see {@link #bindThread(User)}). The current browser
+ * is then the one bound to the calling thread and browsers opened or got from such a thread do
+ * not change the current browser of other threads.
+ * </p><p>
  * Following internal methods are also defined or specialized by this page:
  * <ul>
  * </ul>
  * </p><p>
  * This class defines following internal API methods:
  * <ul>
+ * <li>{@link #bindThread(User)}: Bind the calling thread to the browser of the given user.</li>
  * <li>{@link #close(User)}: Close the browser associated with the given user.</li>
  * <li>{@link #closeAll()}: Close the browser associated with the given user.</li>
  * <li>{@link #getBrowser(User)}: Get the browser used for the given user.</li>
  * <li>{@link #getBrowser(User,boolean)}: Get the browser used for the given user.</li>
  * <li>{@link #getBrowserOpened(User)}: Get the browser used and opened for the given user.</li>
  * <li>{@link #getCurrentBrowser()}: Get the currently used browser.</li>
+ * <li>{@link #getDedicatedBrowser(User)}: Get a browser used only by the given user.</li>
  * <li>{@link #getDownloadDir()}: Return the directory where to download files from browsers.</li>
  * <li>{@link #getInstance()}: Return the singleton instance created when loading the class.</li>
  * <li>{@link #getLocale()}: Return the browser locale.</li>
@@ -66,6 +73,7 @@ import com.ibm.bear.qa.spot.core.web.WebBrowser;
  * <li>{@link #printBrowserInformation()}: Print information for browsers used during the scenario execution.</li>
  * <li>{@link #remove(User)}: Remove corresponding user from the managed browsers.</li>
  * <li>{@link #shutdown()}: Close all browsers.</li>
+ * <li>{@link #unbindThread()}: Unbind the calling thread from its browser.</li>
  * </ul>
  * </p>
  */
@@ -116,6 +124,8 @@ public class BrowsersManager {
 	final private Map<User, WebBrowser> browsers = new HashMap<User, WebBrowser>();
 	// Current browser
 	private WebBrowser currentBrowser = null;
+	// Browsers bound to user threads
+	private final ThreadLocal<WebBrowser> threadBrowser = new ThreadLocal<>();
 	// Download directory
 	private File downloadDir;
 
@@ -127,12 +137,28 @@ private BrowserInformation browserInformation = null;
  */
 private BrowsersManager() {}
 
+/**
+ * Bind the calling thread to the browser of the given user.
+ * <p>
+ * Until {@link #unbindThread()} is called, the current browser for the calling
+ * thread is the user browser and getting or opening a browser from this thread
+ * does not change the current browser of other threads.
+ * </p>
+ * @param user The user which browser has to be bound to the thread
+ * @return The bound browser
+ */
+public synchronized WebBrowser bindThread(final User user) {
+	WebBrowser browser = getDedicatedBrowser(user);
+	this.threadBrowser.set(browser);
+	return browser;
+}
+
 /**
  * Close the browser associated with the given user.
  *
  * @param user The user to close the associated browser
  */
-public void close(final User user) {
+public synchronized void close(final User user) {
 	debugPrintEnteringMethod("user", user);
 	WebBrowser browser = getBrowser(user, false);
 	if (browser == null) {
@@ -149,7 +175,7 @@ public void close(final User user) {
 /**
  * Close the browser associated with the given user.
  */
-public void closeAll() {
+public synchronized void closeAll() {
 	debugPrintEnteringMethod();
 	Set<WebBrowser> uniqueBrowsers = new HashSet<>(this.browsers.values());
 	for (WebBrowser browser: uniqueBrowsers) {
@@ -190,27 +216,28 @@ public WebBrowser getBrowser(final User user) {
  * @return The browser instance or <code>null</code> if no browser
  * is found and <code>open</code> flag is <code>false</code>
  */
-public WebBrowser getBrowser(final User user, final boolean open) {
+public synchronized WebBrowser getBrowser(final User user, final boolean open) {
 	debugPrintEnteringMethod("user", user, "open", open);
-	WebBrowser browser = user == null ? this.currentBrowser : this.browsers.get(user);
+	WebBrowser browser = user == null ? getCurrent() : this.browsers.get(user);
 	if (browser == null) {
 		debugPrintln("		  -> No browser found for given user...");
-		if (open) {
+		if (open || this.threadBrowser.get() != null) {
+			// Users acting concurrently cannot share the current browser
 			debugPrintln("		  -> Open a new browser...");
-			this.currentBrowser = getNewBrowser(user);
+			setCurrent(getNewBrowser(user));
 		}
 		else if (this.currentBrowser == null) {
 			debugPrintln("		  -> There's no current browser, hence we need to open a new one...");
-			this.currentBrowser = getNewBrowser(user);
+			setCurrent(getNewBrowser(user));
 		}
 		if (user != null) {
-			this.browsers.put(user, this.currentBrowser);
+			this.browsers.put(user, getCurrent());
 		}
 	} else {
 		debugPrintln("		  -> Found already opened browser...");
-		this.currentBrowser = browser;
+		setCurrent(browser);
 	}
-	return this.currentBrowser;
+	return getCurrent();
 }
 
 /**
@@ -238,8 +265,50 @@ public WebBrowser getBrowserOpened(final User user) {
  */
 public WebBrowser getCurrentBrowser() {
 	debugPrintEnteringMethod();
-	if (this.currentBrowser == null) debugPrintln("		  -> No browser is currently opened...");
-	return this.currentBrowser;
+	WebBrowser browser = getCurrent();
+	if (browser == null) debugPrintln("		  -> No browser is currently opened...");
+	return browser;
+}
+
+/*
+ * Return the current browser of the calling thread.
+ */
+private WebBrowser getCurrent() {
+	WebBrowser browser = this.threadBrowser.get();
+	return browser == null ? this.currentBrowser : browser;
+}
+
+/**
+ * Get a browser used only by the given user.
+ * <p>
+ * If the browser associated with the user is shared with other users, then
+ * a new browser is opened for the given user and the user is logged out from
+ * applications (see {@link WebBrowser#logoutApplications(User)}), hence pages
+ * opened in the new browser will login the user again. Note that the current
+ * browser is not changed by this method.
+ * </p>
+ * @param user The user who will use the browser
+ * @return The browser instance
+ */
+public synchronized WebBrowser getDedicatedBrowser(final User user) {
+	debugPrintEnteringMethod("user", user);
+	WebBrowser browser = this.browsers.get(user);
+	if (browser != null) {
+		for (Map.Entry<User, WebBrowser> entry: this.browsers.entrySet()) {
+			if (entry.getValue() == browser && !entry.getKey().equals(user)) { // == is intentional
+				debugPrintln("		  -> browser is shared with user "+entry.getKey().getId()+", open a new one...");
+				// User session stays in the shared browser, hence clear its login records
+				browser.logoutApplications(user);
+				browser = null;
+				break;
+			}
+		}
+	}
+	if (browser == null) {
+		browser = getNewBrowser(user);
+		this.browsers.put(user, browser);
+	}
+	return browser;
 }
 
 /**
@@ -434,7 +503,7 @@ public boolean isInPrivateMode(final User user) {
  * @param user The user who will use the browser
  * @return The opened browser
  */
-public WebBrowser openNewBrowser(final User user) {
+public synchronized WebBrowser openNewBrowser(final User user) {
 	WebBrowser browser = this.browsers.remove(user);
 	if (browser != null) {
 		browser.close();
@@ -459,8 +528,11 @@ public void printBrowserInformation() {
  *
  * @param user
  */
-public void remove(final User user) {
+public synchronized void remove(final User user) {
 	WebBrowser userBrowser = this.browsers.remove(user);
+	if (this.threadBrowser.get() == userBrowser) { // == is intentional!
+		this.threadBrowser.remove();
+	}
 	if (this.currentBrowser == userBrowser) { // == is intentional!
 		for (WebBrowser browser: this.browsers.values()) {
 			if (browser == userBrowser) { // == is intentional!
@@ -472,10 +544,21 @@ public void remove(final User user) {
 	}
 }
 
+/*
+ * Set the current browser of the calling thread.
+ */
+private void setCurrent(final WebBrowser browser) {
+	if (this.threadBrowser.get() != null) {
+		this.threadBrowser.set(browser);
+	} else {
+		this.currentBrowser = browser;
+	}
+}
+
 /**
  * Close all browsers.
  */
-public void shutdown() {
+public synchronized void shutdown() {
 	Set<WebBrowser> allBrowsers = new HashSet<>(this.browsers.values());
 	for (WebBrowser browser: allBrowsers) {
 		browser.close();
@@ -487,4 +570,15 @@ public void shutdown() {
 		this.currentBrowser.close();
 	}
 }
+
+/**
+ * Unbind the calling thread from its browser.
+ * <p>
+ * The browser remains associated with its user, hence it can be used
+ * later as the current browser.
+ * </p>
+ */
+public void unbindThread() {
+	this.threadBrowser.remove();
+}
 }
@@ -69,16 +69,19 @@ abstract public class Timeouts {
 	/**
 	 * Timeout used to a delay after having clicked on a link element.
 	 * <p>
-	 * Expressed in milli-seconds, default value is 500.
+	 * Expressed in milli-seconds, default value is 0 as the navigation is detected
+	 * after the click. Pages which still need a fixed delay can opt in by setting
+	 * their <code>delayAfterLinkClick</code> field.
 	 * </p>
 	 */
-	final public static int DELAY_AFTER_CLICK_LINK_TIMEOUT = getParameterIntValue("delayAfterClickLink", 500);
+	final public static int DELAY_AFTER_CLICK_LINK_TIMEOUT = getParameterIntValue("delayAfterClickLink", 0);
 
 	/**
 	 * Timeout used to a delay before clicking on a link element.
 	 * <p>
-	 * Expressed in milli-seconds, default value is 500.
+	 * Expressed in milli-seconds, default value is 0. Pages which still need a
+	 * fixed delay can opt in by setting their <code>delayBeforeLinkClick</code> field.
 	 * </p>
 	 */
-	final public static int DELAY_BEFORE_CLICK_LINK_TIMEOUT = getParameterIntValue("delayBeforeClickLink", 500);
-}
\ No newline at end of file
+	final public static int DELAY_BEFORE_CLICK_LINK_TIMEOUT = getParameterIntValue("delayBeforeClickLink", 0);
+}
\ No newline at end of file
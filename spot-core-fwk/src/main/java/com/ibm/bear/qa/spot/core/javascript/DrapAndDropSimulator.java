@@ -31,7 +31,7 @@ public class DrapAndDropSimulator {
 	/**
 	 * Controls all the event simulation required for drag and drop
 	 */
-	private static final String JAVASCRIPT_EVENT_SIMULATOR = "" +
+	static final String JAVASCRIPT_EVENT_SIMULATOR = "" +
 			/* Creates a drag event */
 			"function createDragEvent(eventName, options)\r\n" +
 			"{\r\n" +
@@ -0,0 +1,191 @@
+/*********************************************************************
+* Copyright (c) 2012, 2024 IBM Corporation and others.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+**********************************************************************/
+package com.ibm.bear.qa.spot.core.javascript;
+
+import static com.ibm.bear.qa.spot.core.scenario.ScenarioUtils.debugPrintln;
+
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.ScriptKey;
+
+/**
+ * Class to manage the SPOT javascript library installed in browser documents.
+ * <p>
+ * Helper scripts used by the framework (drag and drop simulation, mouse over,
+ * visibility changes, CKEditor cursor moves...) are defined once as functions of
+ * the <code>window.__spot</code> object. Calling a helper then only sends a small
+ * script invoking the named function instead of sending the whole helper source
+ * at each call.
+ * </p><p>
+ * The library is installed lazily: when a call detects that the current document
+ * does not have the library (typically after a navigation), the library is installed
+ * and the call is done again. The library source is pinned in the driver when it
+ * supports it, which only avoids to send the whole source again at each installation:
+ * the library is never installed automatically, each new document still gets it at
+ * the first call made after it was loaded.
+ * </p><p>
+ * This class defines following internal API methods:
+ * <ul>
+ * <li>{@link #call(String, Object...)}: Call the given library function.</li>
+ * </ul>
+ * </p>
+ */
+public class SpotJavascriptLibrary {
+
+	/* Library functions */
+	/** Simulate an HTML5 drag and drop, arguments are: dragFrom, dragTo, dragFromX, dragFromY, dragToX, dragToY */
+	public static final String DRAG_AND_DROP = "dragAndDrop";
+	/** Trigger a mouse over event on element, argument is: element */
+	public static final String MOUSE_OVER = "mouseOver";
+	/** Scroll element into view, arguments are: element, smooth */
+	public static final String SCROLL_INTO_VIEW = "scrollIntoView";
+	/** Set element style attribute, arguments are: element, style */
+	public static final String SET_STYLE = "setStyle";
+	/** Set values of form fields and dispatch input and change events, arguments are: elements, values. Returns whether each value was set */
+	public static final String SET_VALUES = "setValues";
+	/** Set element visibility, arguments are: element, visible */
+	public static final String SET_VISIBILITY = "setVisibility";
+	/** Move the cursor of a CKEditor instance to its start or end, arguments are: instance name, position ("Start" or "End") */
+	public static final String CKEDITOR_MOVE_CURSOR = "ckeditorMoveCursor";
+	/** Move the cursor of a CKEditor instance to the start of an element, arguments are: instance name, element id */
+	public static final String CKEDITOR_MOVE_CURSOR_TO_ELEMENT = "ckeditorMoveCursorToElement";
+
+	/* Constants */
+	// Increase the version each time the library content is changed
+	private static final int VERSION = 2;
+	private static final String MISSING_LIBRARY = "__spot_library_missing__";
+	private static final String LIBRARY_SOURCE =
+		"if (!window.__spot || window.__spot.version !== " + VERSION + ") {\r\n" +
+		"window.__spot = (function() {\r\n" +
+		DrapAndDropSimulator.JAVASCRIPT_EVENT_SIMULATOR +
+		"return {\r\n" +
+		"	version: " + VERSION + ",\r\n" +
+		"	" + DRAG_AND_DROP + ": function(dragFrom, dragTo, dragFromX, dragFromY, dragToX, dragToY) {\r\n" +
+		"		var dragStartEvent = null;\r\n" +
+		"		simulateEventCall(dragFrom, \"mousedown\", null, {clientX: dragFromX, clientY: dragFromY});\r\n" +
+		"		dragStartEvent = simulateEventCall(dragFrom, \"dragstart\", null, {clientX: dragFromX, clientY: dragFromY});\r\n" +
+		"		simulateEventCall(dragTo, \"dragenter\", dragStartEvent, {clientX: dragToX, clientY: dragToY});\r\n" +
+		"		simulateEventCall(dragTo, \"dragover\", dragStartEvent, {clientX: dragToX, clientY: dragToY});\r\n" +
+		"		simulateEventCall(dragTo, \"drop\", dragStartEvent, {clientX: dragToX, clientY: dragToY});\r\n" +
+		"		simulateEventCall(dragTo, \"dragend\", dragStartEvent, {clientX: dragToX, clientY: dragToY});\r\n" +
+		"	},\r\n" +
+		"	" + MOUSE_OVER + ": function(element) {\r\n" +
+		"		var forceHoverEvent = document.createEvent('MouseEvents');\r\n" +
+		"		forceHoverEvent.initEvent('mouseover', true, false);\r\n" +
+		"		element.dispatchEvent(forceHoverEvent);\r\n" +
+		"	},\r\n" +
+		"	" + SCROLL_INTO_VIEW + ": function(element, smooth) {\r\n" +
+		"		element.scrollIntoView(smooth ? {behavior: \"smooth\", block: \"nearest\"} : true);\r\n" +
+		"	},\r\n" +
+		"	" + SET_STYLE + ": function(element, style) {\r\n" +
+		"		element.style = style;\r\n" +
+		"	},\r\n" +
+		"	" + SET_VALUES + ": function(elements, values) {\r\n" +
+		"		var types = ['', 'text', 'search', 'email', 'url', 'tel', 'number', 'password', 'date', 'datetime-local', 'time', 'month', 'week'];\r\n" +
+		"		return elements.map(function(element, i) {\r\n" +
+		"			try {\r\n" +
+		"				var tag = element.tagName.toLowerCase();\r\n" +
+		"				var input = tag === 'input' && types.indexOf((element.getAttribute('type') || '').toLowerCase()) >= 0;\r\n" +
+		"				if (!(input || tag === 'textarea') || element.disabled || element.readOnly) return false;\r\n" +
+		"				var prototype = input ? HTMLInputElement.prototype : HTMLTextAreaElement.prototype;\r\n" +
+		"				element.focus();\r\n" +
+		"				Object.getOwnPropertyDescriptor(prototype, 'value').set.call(element, values[i]);\r\n" +
+		"				element.dispatchEvent(new Event('input', {bubbles: true}));\r\n" +
+		"				element.dispatchEvent(new Event('change', {bubbles: true}));\r\n" +
+		"				element.blur();\r\n" +
+		"				return element.value === values[i];\r\n" +
+		"			}\r\n" +
+		"			catch (e) {\r\n" +
+		"				return false;\r\n" +
+		"			}\r\n" +
+		"		});\r\n" +
+		"	},\r\n" +
+	"	" + SET_VISIBILITY + ": function(element, visible) {\r\n" +
+		"		element.style.visibility = visible ? \"visible\" : \"hidden\";\r\n" +
+		"	},\r\n" +
+		"	" + CKEDITOR_MOVE_CURSOR + ": function(name, position) {\r\n" +
+		"		var editor = CKEDITOR.instances[name];\r\n" +
+		"		var range = editor.createRange();\r\n" +
+		"		range['moveToElementEdit' + position](range.root);\r\n" +
+		"		editor.getSelection().selectRanges([range]);\r\n" +
+		"	},\r\n" +
+		"	" + CKEDITOR_MOVE_CURSOR_TO_ELEMENT + ": function(name, elementId) {\r\n" +
+		"		var editor = CKEDITOR.instances[name];\r\n" +
+		"		var range = editor.createRange();\r\n" +
+		"		range.moveToElementEditStart(editor.document.getById(elementId));\r\n" +
+		"		editor.getSelection().selectRanges([range]);\r\n" +
+		"	}\r\n" +
+		"};\r\n" +
+		"})();\r\n" +
+		"}\r\n";
+	private static final String CALL_SCRIPT =
+		"var lib = window.__spot;" +
+		"if (!lib || lib.version !== " + VERSION + ") return '" + MISSING_LIBRARY + "';" +
+		"return lib[arguments[0]].apply(lib, Array.prototype.slice.call(arguments, 1));";
+
+	/* Fields */
+	private final JavascriptExecutor executor;
+	private ScriptKey libraryKey;
+	private boolean pinAttempted = false;
+
+public SpotJavascriptLibrary(final JavascriptExecutor executor) {
+	this.executor = executor;
+}
+
+/**
+ * Call the given library function.
+ * <p>
+ * The library is installed in the current document if it's not already there.
+ * </p>
+ * @param function The function name (see constants of this class)
+ * @param arguments The function arguments
+ * @return The value returned by the function, see {@link JavascriptExecutor#executeScript(String, Object...)}
+ * for the possible types
+ */
+public Object call(final String function, final Object... arguments) {
+	Object[] callArguments = new Object[arguments.length + 1];
+	callArguments[0] = function;
+	System.arraycopy(arguments, 0, callArguments, 1, arguments.length);
+	Object result = this.executor.executeScript(CALL_SCRIPT, callArguments);
+	if (MISSING_LIBRARY.equals(result)) {
+		install();
+		result = this.executor.executeScript(CALL_SCRIPT, callArguments);
+	}
+	return result;
+}
+
+/*
+ * Install the library in the current document, using pinned script if possible.
+ */
+private void install() {
+	if (!this.pinAttempted) {
+		this.pinAttempted = true;
+		try {
+			this.libraryKey = this.executor.pin(LIBRARY_SOURCE);
+		}
+		catch (Exception ex) {
+			debugPrintln("		  -> cannot pin SPOT javascript library ("+ex.getMessage()+"), it will be sent at each installation");
+		}
+	}
+	if (this.libraryKey != null) {
+		try {
+			this.executor.executeScript(this.libraryKey);
+			return;
+		}
+		catch (Exception ex) {
+			debugPrintln("		  -> pinned SPOT javascript library cannot be executed ("+ex.getMessage()+"), send it instead");
+			this.libraryKey = null;
+		}
+	}
+	this.executor.executeScript(LIBRARY_SOURCE);
+}
+}
@@ -48,7 +48,7 @@ public abstract class NlsMessages {
 
 	/* Fields */
 	private final Locale scenarioLocale;
-	protected final ResourceBundle scenarioBundle;
+	protected ResourceBundle scenarioBundle; // loaded lazily, use getScenarioBundle()
 
 public NlsMessages() {
 
@@ -72,9 +72,6 @@ public NlsMessages() {
 		selectedLocale = Supported.valueOf(locale.toUpperCase()).getLocale();
 	}
 	this.scenarioLocale = selectedLocale;
-
-	// Init bundle
-	this.scenarioBundle = ResourceBundle.getBundle(bundleName(), this.scenarioLocale);
 }
 
 /**
@@ -86,6 +83,21 @@ public NlsMessages() {
  */
 abstract protected String bundleName();
 
+/**
+ * Return the resource bundle of the scenario messages.
+ * <p>
+ * The bundle is loaded at the first call of this method, hence only when
+ * a message is actually needed.
+ * </p>
+ * @return The bundle for the scenario locale
+ */
+protected ResourceBundle getScenarioBundle() {
+	if (this.scenarioBundle == null) {
+		this.scenarioBundle = ResourceBundle.getBundle(bundleName(), this.scenarioLocale);
+	}
+	return this.scenarioBundle;
+}
+
 /**
  * Return the NLS string value for the given key using the scenario locale.
  * <p>
@@ -97,7 +109,7 @@ abstract protected String bundleName();
  */
 protected final String getNLSString(final String key) {
 	try {
-		String string = this.scenarioBundle.getString(key);
+		String string = getScenarioBundle().getString(key);
 		if (this.scenarioLocale.getLanguage().equals("fr")) {
 			ByteBuffer inputBuffer = ByteBuffer.wrap(string.getBytes());
 			CharBuffer data = StandardCharsets.UTF_8.decode(inputBuffer);
@@ -0,0 +1,239 @@
+/*********************************************************************
+* Copyright (c) 2012, 2024 IBM Corporation and others.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+**********************************************************************/
+package com.ibm.bear.qa.spot.core.params;
+
+import static com.ibm.bear.qa.spot.core.scenario.ScenarioUtils.debugPrintln;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class to manage a persisted cache of parsed parameters files.
+ * <p>
+ * Each entry of the cache is identified by the file canonical path and stores
+ * the file fingerprint (ie. its size and last modification time) with the properties
+ * which were read in it. When a file fingerprint has not changed since the last
+ * execution, its properties are taken from the cache instead of parsing the file again.
+ * </p><p>
+ * The cache is persisted as a properties file where each entry is stored with
+ * an index: <code>&lt;index&gt;.path</code> for the file path,
+ * <code>&lt;index&gt;.fingerprint</code> for its size and last modification
+ * time separated by a semicolon and <code>&lt;index&gt;.property.&lt;name&gt;</code>
+ * for each of its properties.
+ * </p><p>
+ * Only entries of files loaded during the current execution are persisted, hence
+ * entries of files which are no longer used are pruned and the cache never grows
+ * beyond the parameters files of a single execution.
+ * </p><p>
+ * The cache is activated by setting the <code>paramFilesCache</code> property
+ * to the path of the file where it has to be persisted.
+ * </p><p>
+ * Note that this class is thread safe as parameters files might be loaded
+ * concurrently by {@link ScenarioParametersManager}.
+ * </p><p>
+ * This class defines following internal API methods:
+ * <ul>
+ * <li>{@link #load(File)}: Load the properties of the given file.</li>
+ * <li>{@link #save()}: Persist the cache if it has been modified.</li>
+ * </ul>
+ * </p>
+ */
+class ScenarioParametersCache {
+
+	/**
+	 * Cache entry storing a parameters file fingerprint and its properties.
+	 */
+	private static class Entry {
+		final long size;
+		final long lastModified;
+		final Properties properties;
+		Entry(final long size, final long lastModified, final Properties properties) {
+			this.size = size;
+			this.lastModified = lastModified;
+			this.properties = properties;
+		}
+	}
+
+	/* Constants */
+	/**
+	 * The path of the file used to persist the cache. Cache is not used when not specified.
+	 */
+	static final String PARAM_FILES_CACHE_ID = "paramFilesCache";
+	// Suffixes of the persisted keys of each entry, prefixed by the entry index
+	private static final String PATH_KEY = "path";
+	private static final String FINGERPRINT_KEY = "fingerprint";
+	private static final String PROPERTY_KEY_PREFIX = "property.";
+
+	/* Fields */
+	// The file where the cache is persisted
+	private final File cacheFile;
+
+	// The cache entries
+	private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+	// The keys of entries used during current execution
+	private final Set<String> usedKeys = ConcurrentHashMap.newKeySet();
+
+	// Tell whether the cache has been modified since it was read
+	private volatile boolean modified = false;
+
+/**
+ * Create the cache instance reading entries from the given file if it exists.
+ * <p>
+ * If the file cannot be read, then the cache starts empty.
+ * </p>
+ * @param file The file where cache is persisted
+ */
+ScenarioParametersCache(final File file) {
+	this.cacheFile = file;
+	if (file.exists()) {
+		try {
+			this.entries.putAll(readEntries(file));
+			debugPrintln("Read "+this.entries.size()+" entries from parameters files cache "+file);
+		}
+		catch (IOException | RuntimeException ex) {
+			debugPrintln("Warning: cannot read parameters files cache "+file+" ("+ex.getMessage()+"), hence it will be ignored.");
+		}
+	}
+}
+
+/**
+ * Load the properties of the given file.
+ * <p>
+ * Properties are taken from the cache if the file fingerprint has not changed,
+ * otherwise the file is parsed and the cache updated.
+ * </p>
+ * @param file The parameters file to load
+ * @return A copy of the loaded properties, safe to be modified by caller
+ * @throws IOException If the file cannot be read
+ */
+Properties load(final File file) throws IOException {
+	String key = file.getCanonicalPath();
+	this.usedKeys.add(key);
+	BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+	long size = attributes.size();
+	long lastModified = attributes.lastModifiedTime().toMillis();
+
+	// Return cached properties if file has not changed
+	Entry entry = this.entries.get(key);
+	if (entry != null && entry.size == size && entry.lastModified == lastModified) {
+		Properties properties = new Properties();
+		properties.putAll(entry.properties);
+		return properties;
+	}
+
+	// Parse file and store it in the cache
+	Properties properties = readProperties(file);
+	Properties cachedProperties = new Properties();
+	cachedProperties.putAll(properties);
+	this.entries.put(key, new Entry(size, lastModified, cachedProperties));
+	this.modified = true;
+	return properties;
+}
+
+/*
+ * Read the cache entries persisted in the given file.
+ */
+private static Map<String, Entry> readEntries(final File file) throws IOException {
+	Properties stored = readProperties(file);
+
+	// Dispatch stored keys by entry index
+	Map<String, String> paths = new HashMap<>();
+	Map<String, String> fingerprints = new HashMap<>();
+	Map<String, Properties> properties = new HashMap<>();
+	for (String storedKey: stored.stringPropertyNames()) {
+		int idx = storedKey.indexOf('.');
+		if (idx < 0) continue;
+		String index = storedKey.substring(0, idx);
+		String suffix = storedKey.substring(idx+1);
+		String value = stored.getProperty(storedKey);
+		if (suffix.equals(PATH_KEY)) {
+			paths.put(index, value);
+		} else if (suffix.equals(FINGERPRINT_KEY)) {
+			fingerprints.put(index, value);
+		} else if (suffix.startsWith(PROPERTY_KEY_PREFIX)) {
+			properties.computeIfAbsent(index, k -> new Properties()).setProperty(suffix.substring(PROPERTY_KEY_PREFIX.length()), value);
+		}
+	}
+
+	// Build entries
+	Map<String, Entry> storedEntries = new HashMap<>();
+	for (Map.Entry<String, String> path: paths.entrySet()) {
+		String[] fingerprint = fingerprints.get(path.getKey()).split(";");
+		long size = Long.parseLong(fingerprint[0]);
+		long lastModified = Long.parseLong(fingerprint[1]);
+		storedEntries.put(path.getValue(), new Entry(size, lastModified, properties.getOrDefault(path.getKey(), new Properties())));
+	}
+	return storedEntries;
+}
+
+/**
+ * Read the properties of the given file.
+ *
+ * @param file The properties file
+ * @return The read properties
+ * @throws IOException If the file cannot be read
+ */
+static Properties readProperties(final File file) throws IOException {
+	Properties properties = new Properties();
+	try (InputStream stream = new BufferedInputStream(new FileInputStream(file))) {
+		properties.load(stream);
+	}
+	return properties;
+}
+
+/**
+ * Persist the cache if it has been modified.
+ * <p>
+ * Entries of files which were not loaded during the current execution are
+ * removed before persisting the cache.
+ * </p><p>
+ * Failing to write the cache is not blocking for the scenario execution,
+ * only a warning is displayed in such case.
+ * </p>
+ */
+void save() {
+	if (this.entries.keySet().retainAll(this.usedKeys)) {
+		this.modified = true;
+	}
+	if (!this.modified) {
+		return;
+	}
+	File parentDir = this.cacheFile.getAbsoluteFile().getParentFile();
+	if (parentDir != null && !parentDir.exists()) {
+		parentDir.mkdirs();
+	}
+	Properties stored = new Properties();
+	int index = 0;
+	for (Map.Entry<String, Entry> mapEntry: this.entries.entrySet()) {
+		Entry entry = mapEntry.getValue();
+		stored.setProperty(index+"."+PATH_KEY, mapEntry.getKey());
+		stored.setProperty(index+"."+FINGERPRINT_KEY, entry.size+";"+entry.lastModified);
+		for (String name: entry.properties.stringPropertyNames()) {
+			stored.setProperty(index+"."+PROPERTY_KEY_PREFIX+name, entry.properties.getProperty(name));
+		}
+		index++;
+	}
+	try (OutputStream stream = new BufferedOutputStream(new FileOutputStream(this.cacheFile))) {
+		stored.store(stream, "SPOT parameters files cache");
+		this.modified = false;
+		debugPrintln("Wrote "+this.entries.size()+" entries in parameters files cache "+this.cacheFile);
+	}
+	catch (IOException ioe) {
+		debugPrintln("Warning: cannot write parameters files cache "+this.cacheFile+" ("+ioe.getMessage()+")");
+	}
+}
+}
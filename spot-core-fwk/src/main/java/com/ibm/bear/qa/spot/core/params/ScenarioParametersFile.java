@@ -72,6 +72,14 @@ public class ScenarioParametersFile extends ScenarioParameters {
 	 */
 	Properties properties;
 
+	/*
+	 * The raw properties loaded from the file, before any processing.
+	 *
+	 * They might be loaded in advance and concurrently with other files
+	 * (see loadProperties(List)).
+	 */
+	private Properties loadedProperties;
+
 /**
  * Create a instance of {@link ScenarioParametersFile} using a directory and a relative path.
  * <p>
@@ -146,11 +154,42 @@ void readFile() {
 	readProperties();
 
 	// Look for nested files to read in
+	List<ScenarioParametersFile> nestedParamFiles = new ArrayList<>();
 	for (Entry<File, List<String>> filesInfo: this.nestedFiles.entrySet()) {
 		File fileDir = filesInfo.getKey();
 		for (String filePath: filesInfo.getValue()) {
-			ScenarioParametersFile nestedFile = new ScenarioParametersFile(this, fileDir, filePath);
-			nestedFile.readFile();
+			nestedParamFiles.add(new ScenarioParametersFile(this, fileDir, filePath));
+		}
+	}
+
+	// Load nested files concurrently, then read them in order
+	loadProperties(nestedParamFiles);
+	for (ScenarioParametersFile nestedFile: nestedParamFiles) {
+		nestedFile.readFile();
+	}
+}
+
+/*
+ * Load the properties of all given files concurrently.
+ *
+ * Only the parsing is done here, the properties processing which impacts the
+ * root manager is done later in the same order than files were given (see readFile()).
+ */
+static void loadProperties(final List<ScenarioParametersFile> paramFiles) {
+	if (paramFiles.size() > 1) {
+		paramFiles.parallelStream().forEach(ScenarioParametersFile::loadProperties);
+	}
+}
+
+/*
+ * Load the file properties if not already done.
+ */
+private synchronized void loadProperties() {
+	if (this.loadedProperties == null) {
+		try {
+			this.loadedProperties = getRoot().loadPropertiesFile(this.file);
+		} catch (IOException ioe) {
+			throw new RuntimeException(ioe);
 		}
 	}
 }
@@ -159,13 +198,10 @@ void readFile() {
  * Initialize properties with file content.
  */
 private void readProperties() {
-	this.properties = new Properties();
-	try(FileInputStream stream = new FileInputStream(this.file)) {
-		println("The parameters properties file '"+this.file.getCanonicalPath()+"' has been found.");
-		this.properties.load(stream);
-	} catch (IOException ioe) {
-		throw new RuntimeException(ioe);
-	}
+	loadProperties();
+	this.properties = this.loadedProperties;
+	this.loadedProperties = null;
+	println("The parameters properties file '"+getCanonicalPath()+"' has been found.");
 
 	// Check override flag and remove it if defined
 	String duplicationMode = (String) this.properties.remove(DUPLICATION_MODE_ID);
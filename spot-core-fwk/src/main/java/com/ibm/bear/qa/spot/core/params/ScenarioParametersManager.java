@@ -16,6 +16,7 @@ import static com.ibm.bear.qa.spot.core.scenario.ScenarioUtils.*;
 import static com.ibm.bear.qa.spot.core.utils.FileUtil.getDir;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.*;
 
 import com.ibm.bear.qa.spot.core.scenario.errors.ScenarioFailedError;
@@ -26,6 +27,14 @@ import com.ibm.bear.qa.spot.core.scenario.errors.ScenarioFailedError;
  * No property is stored here but instead this class manages all properties files defined using
  * <code>paramFilesDir</code> and <code>paramFilesPath</code> properties.
  * </p><p>
+ * Sibling properties files are parsed concurrently but processed in their declaration
+ * order, hence duplication detection is not impacted. When the <code>paramFilesCache</code>
+ * property is set, parsed files are persisted in that cache and not parsed again
+ * while their size and last modification time do not change (see {@link ScenarioParametersCache}).
+ * </p><p>
+ * Errors and warnings report about duplicated files or properties is only built when
+ * it has to be printed.
+ * </p><p>
  * This class defines following internal API methods:
  * <ul>
  * <li>{@link #getProperty(String)}: Return the value for the given property.</li>
@@ -90,8 +99,13 @@ public class ScenarioParametersManager extends ScenarioParameters {
 	private File rootDir;
 	private String filesPath;
 
+	// Cache of parsed files, null if not activated
+	private final ScenarioParametersCache cache;
+
 public ScenarioParametersManager() {
 	super(null);
+	String cachePath = System.getProperty(ScenarioParametersCache.PARAM_FILES_CACHE_ID);
+	this.cache = cachePath == null ? null : new ScenarioParametersCache(new File(cachePath));
 }
 
 /**
@@ -142,9 +156,72 @@ private void check() throws ScenarioFailedError {
 	// Bundle properties
 	initBundledProperties();
 
-	// Raise warnings for duplicated files
-	boolean hasWarnings = false;
+	// Keep initial definitions of duplicated properties for the report
+	Map<String, ScenarioParametersFile> initialDefinitions = new HashMap<>();
+	for (String propertyName: this.duplicatedProperties.keySet()) {
+		initialDefinitions.put(propertyName, this.definedProperties.get(propertyName));
+	}
+
+	// Apply duplication mode on duplicated properties
+	Map<String, List<ScenarioParameters>> allErrors = resolveDuplicatedProperties();
+
+	// Print specific messages for errors
+	int errorsSize = allErrors.size();
+	if (errorsSize > 0) {
+
+		// Print error message to console
+		Set<ScenarioParameters> allParams = new HashSet<ScenarioParameters>();
+		for (String propertyName: allErrors.keySet()) {
+			allParams.addAll(allErrors.get(propertyName));
+		}
+		println("========================================");
+		println(getReport(initialDefinitions, allParams));
+
+		// Build error message
+		String prefix;
+		if (errorsSize == 1) {
+			String propertyName = allErrors.keySet().iterator().next();
+			prefix = "Property '"+propertyName+"' is defined in "+(allParams.size()+1);
+		} else {
+			prefix = "Several properties are defined in";
+		}
+
+		// Print all read properties
+		this.checked = true;
+		println(toString());
+
+		// Stop scenario execution
+		throw new ScenarioFailedError(prefix+" different property files.");
+	}
+
+	// Print warning message to console if any
+	if (this.allDuplicatedFiles.size() > 0 || this.duplicatedProperties.size() > 0) {
+		println("========================================");
+		print(getReport(initialDefinitions, Collections.emptySet()));
+	}
+
+	// Print all read properties
+	this.checked = true;
+	println("========================================");
+	print(printAllProperties());
+	println("========================================");
+}
+
+/**
+ * Build the report of errors and warnings found while parsing properties files.
+ * <p>
+ * Note that the duplication mode has already been applied when this method is called,
+ * hence the initial definition of each duplicated property is given to display
+ * values as they were successively read.
+ * </p>
+ * @param initialDefinitions The files where duplicated properties were first defined
+ * @param errorParams The files which have forbidden duplicated properties
+ * @return The report as a {@link String}
+ */
+private String getReport(final Map<String, ScenarioParametersFile> initialDefinitions, final Set<ScenarioParameters> errorParams) {
 	StringBuilder builder = new StringBuilder("Errors/Warnings have been found while parsing properties file(s) of current scenario:").append(LINE_SEPARATOR);
+
+	// Report duplicated files
 	if (this.allDuplicatedFiles.size() > 0) {
 		builder.append("	- Following properties files are duplicated:").append(LINE_SEPARATOR);
 		for (ScenarioParametersFile file: this.allDuplicatedFiles.keySet()) {
@@ -154,20 +231,18 @@ private void check() throws ScenarioFailedError {
 				builder.append("		  -> duplicated in ").append(duplicatedFile.parent);
 			}
 		}
-		hasWarnings = true;
 	}
 
-	// Raise warnings/error for duplicated properties
+	// Report duplicated properties
 	if (this.duplicatedProperties.size() > 0) {
-		Map<String, List<ScenarioParameters>> allErrors = new HashMap<String, List<ScenarioParameters>>();
 		builder.append("	- Some properties are duplicated:").append(LINE_SEPARATOR);
 		for (String propertyName: this.duplicatedProperties.keySet()) {
-			List<ScenarioParametersFile> parameters = this.duplicatedProperties.get(propertyName);
-			String storedValue = (String) this.bundledProperties.get(propertyName);
+			ScenarioParametersFile definitionFile = initialDefinitions.get(propertyName);
+			String storedValue = (String) definitionFile.properties.get(propertyName);
 			builder.append("		+ property '").append(propertyName).append("'").append(LINE_SEPARATOR);
-			builder.append("			* defined in ").append(this.definedProperties.get(propertyName)).append(LINE_SEPARATOR);
+			builder.append("			* defined in ").append(definitionFile).append(LINE_SEPARATOR);
 			builder.append("			* value='").append(storedValue).append("'").append(LINE_SEPARATOR);
-			for (ScenarioParametersFile paramFile: parameters) {
+			for (ScenarioParametersFile paramFile: this.duplicatedProperties.get(propertyName)) {
 				String value = (String) paramFile.properties.get(propertyName);
 				builder.append("			* is duplicated in ").append(paramFile).append(LINE_SEPARATOR);
 				builder.append("			* value='").append(value).append(LINE_SEPARATOR);
@@ -180,74 +255,28 @@ private void check() throws ScenarioFailedError {
 							break;
 						case OVERWRITE:
 							builder.append("			=> value is different, new one ("+value+") replace the initial one ("+storedValue+")...");
-							this.bundledProperties.put(propertyName, value);
-							this.definedProperties.put(propertyName, paramFile);
 							storedValue = value;
 							break;
 						case FORBIDDEN:
 							builder.append("			=> ERROR (i.e., scenario will be stopped!)");
-							List<ScenarioParameters> errors = allErrors.get(propertyName);
-							if (errors == null) {
-								allErrors.put(propertyName, errors = new ArrayList<ScenarioParameters>());
-							}
-							errors.add(paramFile);
 							break;
 					}
 				}
 				builder.append(LINE_SEPARATOR);
 			}
 		}
-
-		// Print specific messages for errors
-		int errorsSize = allErrors.size();
-		if (errorsSize > 0) {
-
-			// Print files which have errors
-			builder.append("	- To avoid the scenario stopping due to duplicate values:").append(LINE_SEPARATOR);
-			builder.append("		+ Either remove the duplicated property").append(LINE_SEPARATOR);
-			builder.append("		+ Or change the duplication mode property 'duplicationMode' to either 'overwrite' or 'ignore' in following files:").append(LINE_SEPARATOR);
-			Set<ScenarioParameters> allParams = new HashSet<ScenarioParameters>();
-			for (String propertyName: allErrors.keySet()) {
-				allParams.addAll(allErrors.get(propertyName));
-			}
-			for (ScenarioParameters params: allParams) {
-				builder.append("		  -> ").append(params).append(LINE_SEPARATOR);
-			}
-
-			// Print error message to console
-			println("========================================");
-			println(builder.toString());
-
-			// Build error message
-			String prefix;
-			if (errorsSize == 1) {
-				String propertyName = allErrors.keySet().iterator().next();
-				prefix = "Property '"+propertyName+"' is defined in "+(allParams.size()+1);
-			} else {
-				prefix = "Several properties are defined in";
-			}
-
-			// Print all read properties
-			this.checked = true;
-			println(toString());
-
-			// Stop scenario execution
-			throw new ScenarioFailedError(prefix+" different property files.");
-		}
-		hasWarnings = true;
 	}
 
-	// Print warning message to console if any
-	if (hasWarnings) {
-		println("========================================");
-		print(builder.toString());
+	// Report files which have errors
+	if (errorParams.size() > 0) {
+		builder.append("	- To avoid the scenario stopping due to duplicate values:").append(LINE_SEPARATOR);
+		builder.append("		+ Either remove the duplicated property").append(LINE_SEPARATOR);
+		builder.append("		+ Or change the duplication mode property 'duplicationMode' to either 'overwrite' or 'ignore' in following files:").append(LINE_SEPARATOR);
+		for (ScenarioParameters params: errorParams) {
+			builder.append("		  -> ").append(params).append(LINE_SEPARATOR);
+		}
 	}
-
-	// Print all read properties
-	this.checked = true;
-	println("========================================");
-	print(printAllProperties());
-	println("========================================");
+	return builder.toString();
 }
 
 /**
@@ -279,13 +308,24 @@ public void init(final String rootDirString, final String paths) {
 	this.rootDir = getDir(rootDirString);
 	this.filesPath = paths;
 
-	// Read each specified parameters file (adding them as child of root)
+	// Load each specified parameters file concurrently
+	List<ScenarioParametersFile> paramFiles = new ArrayList<>();
 	StringTokenizer pathTokenizer = new StringTokenizer(paths, ";");
 	while (pathTokenizer.hasMoreTokens()) {
-		ScenarioParametersFile scenarioParametersFile = new ScenarioParametersFile(this, this.rootDir, pathTokenizer.nextToken());
+		paramFiles.add(new ScenarioParametersFile(this, this.rootDir, pathTokenizer.nextToken()));
+	}
+	ScenarioParametersFile.loadProperties(paramFiles);
+
+	// Read each specified parameters file in order (adding them as child of root)
+	for (ScenarioParametersFile scenarioParametersFile: paramFiles) {
 		scenarioParametersFile.readFile();
 	}
 
+	// Persist parsed files if cache is activated
+	if (this.cache != null) {
+		this.cache.save();
+	}
+
 	// Check whole properties
 	check();
 }
@@ -318,6 +358,22 @@ private void initBundledProperties() {
 	}
 }
 
+/**
+ * Load the properties of the given file.
+ * <p>
+ * Use the parsed files cache if it has been activated.
+ * </p>
+ * @param file The properties file
+ * @return The properties read in the file
+ * @throws IOException If the file cannot be read
+ */
+Properties loadPropertiesFile(final File file) throws IOException {
+	if (this.cache == null) {
+		return ScenarioParametersCache.readProperties(file);
+	}
+	return this.cache.load(file);
+}
+
 /**
  * Print all currently managed properties.
  *
@@ -382,6 +438,41 @@ public String printProperty(final String name) {
 	return value;
 }
 
+/**
+ * Apply the duplication mode on all duplicated properties.
+ *
+ * @return The duplicated properties which are forbidden with files
+ * where they are duplicated
+ */
+private Map<String, List<ScenarioParameters>> resolveDuplicatedProperties() {
+	Map<String, List<ScenarioParameters>> allErrors = new HashMap<String, List<ScenarioParameters>>();
+	for (String propertyName: this.duplicatedProperties.keySet()) {
+		String storedValue = (String) this.bundledProperties.get(propertyName);
+		for (ScenarioParametersFile paramFile: this.duplicatedProperties.get(propertyName)) {
+			String value = (String) paramFile.properties.get(propertyName);
+			if (!storedValue.equals(value)) {
+				switch (this.mode) {
+					case IGNORE:
+						break;
+					case OVERWRITE:
+						this.bundledProperties.put(propertyName, value);
+						this.definedProperties.put(propertyName, paramFile);
+						storedValue = value;
+						break;
+					case FORBIDDEN:
+						List<ScenarioParameters> errors = allErrors.get(propertyName);
+						if (errors == null) {
+							allErrors.put(propertyName, errors = new ArrayList<ScenarioParameters>());
+						}
+						errors.add(paramFile);
+						break;
+				}
+			}
+		}
+	}
+	return allErrors;
+}
+
 @Override
 public String toString() {
 	StringBuilder builder= new StringBuilder("ScenarioParametersManager (rootDir=")
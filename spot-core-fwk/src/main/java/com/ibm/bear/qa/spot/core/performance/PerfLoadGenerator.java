@@ -0,0 +1,405 @@
+/*********************************************************************
+* Copyright (c) 2012, 2024 IBM Corporation and others.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+**********************************************************************/
+package com.ibm.bear.qa.spot.core.performance;
+
+import static com.ibm.bear.qa.spot.core.scenario.ScenarioUtils.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.ibm.bear.qa.spot.core.browser.BrowsersManager;
+import com.ibm.bear.qa.spot.core.config.User;
+import com.ibm.bear.qa.spot.core.scenario.errors.ScenarioFailedError;
+import com.ibm.bear.qa.spot.core.web.WebBrowser;
+
+/**
+ * Load Generator class, for replaying a scenario across many concurrent virtual users.
+ * <p>
+ * A load generator runs iterations of a scenario for each virtual user, all virtual
+ * users running concurrently. A virtual user is either:
+ * <ul>
+ * <li>a browser user: its iterations are run on a browser dedicated to its user
+ * (see {@link BrowsersManager#bindThread(User)}), hence iterations can use the SPOT
+ * page objects and their response times are measured by the browser {@link PerfManager}
+ * when performances are enabled (see {@link PerfManager#PERFORMANCE_ENABLED}). Setting
+ * the browser headless is recommended when running many browser users.</li>
+ * <li>a REST user: its iterations do not use any browser and measure their requests
+ * response times with {@link Context#measure(String, Callable)}.</li>
+ * </ul>
+ * </p><p>
+ * Virtual users are started progressively during the ramp-up period, then each of them
+ * runs iterations separated by the think time until either the number of iterations or
+ * the duration is reached:
+ * <pre>
+ * new PerfLoadGenerator("Open artifact")
+ *     .addBrowserUsers(users, context -> {
+ *         ArtifactPage page = openArtifact(context.getUser());
+ *         page.save();
+ *     })
+ *     .addRestUsers(PERFORMANCE_LOAD_USERS, context -> {
+ *         context.measure("Get artifact", () -> client.getArtifact(id));
+ *     })
+ *     .run();
+ * </pre>
+ * </p><p>
+ * All response times and iterations durations are aggregated in the {@link PerfReport}
+ * which gives their percentiles. Default settings can be changed using following parameters:
+ * <ul>
+ * <li>{@link #PERFORMANCE_LOAD_USERS}: <code>"performanceLoadUsers"</code>, number of REST users suggested to callers (default 1)</li>
+ * <li>{@link #PERFORMANCE_LOAD_RAMP_UP}: <code>"performanceLoadRampUp"</code>, ramp-up period in seconds (default 0)</li>
+ * <li>{@link #PERFORMANCE_LOAD_THINK_TIME}: <code>"performanceLoadThinkTime"</code>, pause between iterations in milliseconds (default 0)</li>
+ * <li>{@link #PERFORMANCE_LOAD_DURATION}: <code>"performanceLoadDuration"</code>, maximum duration in seconds, 0 means no limit (default 0)</li>
+ * <li>{@link #PERFORMANCE_LOAD_ITERATIONS}: <code>"performanceLoadIterations"</code>, iterations per virtual user, 0 means until the duration is reached (default 1)</li>
+ * <li>{@link #PERFORMANCE_LOAD_MAX_FAILURES}: <code>"performanceLoadMaxFailures"</code>, failed iterations tolerated before stopping the load (default 0)</li>
+ * </ul>
+ * </p><p>
+ * This class defines following public API methods:
+ * <ul>
+ * <li>{@link #addBrowserUsers(List,VirtualUser)}: Add virtual users running iterations on their own browser.</li>
+ * <li>{@link #addRestUsers(int,VirtualUser)}: Add virtual users running iterations without browser.</li>
+ * <li>{@link #run()}: Run the load and print its report.</li>
+ * <li>{@link #setDuration(int)}: Set the maximum duration of the load.</li>
+ * <li>{@link #setIterations(int)}: Set the number of iterations run by each virtual user.</li>
+ * <li>{@link #setMaxFailures(int)}: Set the number of failed iterations tolerated before stopping the load.</li>
+ * <li>{@link #setRampUp(int)}: Set the period during which virtual users are started.</li>
+ * <li>{@link #setThinkTime(int)}: Set the pause between two iterations of a virtual user.</li>
+ * </ul>
+ * </p>
+ */
+public class PerfLoadGenerator {
+
+/* Constants */
+public final static int PERFORMANCE_LOAD_USERS = getParameterIntValue("performanceLoadUsers", 1);
+public final static int PERFORMANCE_LOAD_RAMP_UP = getParameterIntValue("performanceLoadRampUp", 0);
+public final static int PERFORMANCE_LOAD_THINK_TIME = getParameterIntValue("performanceLoadThinkTime", 0);
+public final static int PERFORMANCE_LOAD_DURATION = getParameterIntValue("performanceLoadDuration", 0);
+public final static int PERFORMANCE_LOAD_ITERATIONS = getParameterIntValue("performanceLoadIterations", 1);
+public final static int PERFORMANCE_LOAD_MAX_FAILURES = getParameterIntValue("performanceLoadMaxFailures", 0);
+final static String LOAD_TEST_NAME = "Load";
+final static String ITERATION_ACTION_NAME = "Iteration";
+private final static int MAX_REPORTED_FAILURES = 5;
+
+/**
+ * Scenario iteration run by a virtual user.
+ */
+@FunctionalInterface
+public interface VirtualUser {
+	/**
+	 * Run one iteration of the scenario.
+	 *
+	 * @param context The virtual user context
+	 * @throws Exception If the iteration fails for any reason
+	 */
+	void iterate(Context context) throws Exception;
+}
+
+/**
+ * Context of a virtual user iteration.
+ */
+public class Context {
+	final int index;
+	final User user;
+	final VirtualUser virtualUser;
+	int iteration = 0;
+
+	Context(final int index, final User user, final VirtualUser virtualUser) {
+		this.index = index;
+		this.user = user;
+		this.virtualUser = virtualUser;
+	}
+
+	/**
+	 * Return the virtual user index, starting from 1.
+	 *
+	 * @return The index
+	 */
+	public int getIndex() {
+		return this.index;
+	}
+
+	/**
+	 * Return the current iteration number, starting from 1.
+	 *
+	 * @return The iteration number
+	 */
+	public int getIteration() {
+		return this.iteration;
+	}
+
+	/**
+	 * Return the user of a browser virtual user.
+	 *
+	 * @return The user or <code>null</code> for a REST virtual user
+	 */
+	public User getUser() {
+		return this.user;
+	}
+
+	/**
+	 * Measure the response time of the given action and add it to the performance report.
+	 *
+	 * @param actionName The action name used in the report
+	 * @param action The action to measure
+	 * @return The action result
+	 * @throws Exception If the action fails, the error is also added to the report
+	 */
+	public <T> T measure(final String actionName, final Callable<T> action) throws Exception {
+		long start = System.nanoTime();
+		try {
+			T result = action.call();
+			PerfReport.getInstance().add(PerfLoadGenerator.this.name, LOAD_TEST_NAME, actionName, (System.nanoTime()-start)/1000000000.0);
+			return result;
+		}
+		catch (Exception ex) {
+			PerfReport.getInstance().addError(PerfLoadGenerator.this.name, LOAD_TEST_NAME, actionName);
+			throw ex;
+		}
+	}
+}
+
+// Global Variables
+final String name;
+private final List<Context> contexts = new ArrayList<Context>();
+private int rampUp = PERFORMANCE_LOAD_RAMP_UP;
+private int thinkTime = PERFORMANCE_LOAD_THINK_TIME;
+private int duration = PERFORMANCE_LOAD_DURATION;
+private int iterations = PERFORMANCE_LOAD_ITERATIONS;
+private int maxFailures = PERFORMANCE_LOAD_MAX_FAILURES;
+private final AtomicInteger doneIterations = new AtomicInteger();
+private int failedIterations = 0;
+private final List<String> failures = new ArrayList<String>();
+private volatile boolean stopped = false;
+
+/**
+ * Create a load generator.
+ *
+ * @param name The load name, used as step name in the performance report
+ */
+public PerfLoadGenerator(final String name) {
+	this.name = name;
+}
+
+/**
+ * Add virtual users running iterations on their own browser.
+ *
+ * @param users The users of the virtual users, one browser is used per user
+ * @param virtualUser The scenario iteration run by each virtual user
+ * @return The generator to allow chaining calls
+ */
+public PerfLoadGenerator addBrowserUsers(final List<User> users, final VirtualUser virtualUser) {
+	for (User user: users) {
+		for (Context context: this.contexts) {
+			if (user.equals(context.user)) {
+				throw new ScenarioFailedError("User "+user.getId()+" is already used by another virtual user of load '"+this.name+"'.");
+			}
+		}
+		this.contexts.add(new Context(this.contexts.size()+1, user, virtualUser));
+	}
+	return this;
+}
+
+/**
+ * Add virtual users running iterations without browser.
+ *
+ * @param count The number of virtual users to add
+ * @param virtualUser The scenario iteration run by each virtual user
+ * @return The generator to allow chaining calls
+ */
+public PerfLoadGenerator addRestUsers(final int count, final VirtualUser virtualUser) {
+	for (int i=0; i<count; i++) {
+		this.contexts.add(new Context(this.contexts.size()+1, null, virtualUser));
+	}
+	return this;
+}
+
+/*
+ * Record the failure of the given iteration and stop the load if too many iterations failed.
+ */
+private synchronized void addFailure(final Context context, final Throwable failure) {
+	PerfReport.getInstance().addError(this.name, LOAD_TEST_NAME, ITERATION_ACTION_NAME);
+	this.failedIterations++;
+	if (this.failures.size() < MAX_REPORTED_FAILURES) {
+		this.failures.add("virtual user "+context.index+" iteration "+context.iteration+": "+failure);
+	}
+	debugPrintln("		  -> virtual user "+context.index+" iteration "+context.iteration+" failed: "+failure);
+	if (this.failedIterations > this.maxFailures) {
+		this.stopped = true;
+	}
+}
+
+/**
+ * Run the load and print its report.
+ * <p>
+ * Browsers opened for browser virtual users are kept associated with their users,
+ * hence they are closed at the end of the scenario execution as any other browser.
+ * </p>
+ * @throws ScenarioFailedError If more iterations failed than tolerated
+ */
+public void run() throws ScenarioFailedError {
+	debugPrintEnteringMethod();
+	if (this.contexts.isEmpty()) {
+		return;
+	}
+	if (this.iterations <= 0 && this.duration <= 0) {
+		throw new ScenarioFailedError("Load '"+this.name+"' has neither a number of iterations nor a duration, it would never end.");
+	}
+
+	// Start virtual users
+	println("Run load '"+this.name+"' with "+this.contexts.size()+" virtual users...");
+	final long start = System.currentTimeMillis();
+	final long deadline = this.duration > 0 ? start + this.duration * 1000L : Long.MAX_VALUE;
+	ExecutorService executor = Executors.newFixedThreadPool(this.contexts.size());
+	try {
+		for (final Context context: this.contexts) {
+			final long delay = this.rampUp * 1000L * (context.index-1) / this.contexts.size();
+			executor.submit(() -> runVirtualUser(context, start + delay, deadline));
+		}
+
+		// Wait for all virtual users end
+		executor.shutdown();
+		while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+			debugPrintln("		  -> load '"+this.name+"' is still running after "+elapsedTimeString(start));
+		}
+	}
+	catch (InterruptedException ie) {
+		Thread.currentThread().interrupt();
+		throw new ScenarioFailedError(ie);
+	}
+	finally {
+		executor.shutdownNow();
+	}
+
+	// Print results
+	long elapsed = System.currentTimeMillis() - start;
+	int failed;
+	synchronized (this) {
+		failed = this.failedIterations;
+	}
+	println("Load '"+this.name+"' ran "+this.doneIterations.get()+" iterations ("+failed+" failed) in "+timeString(elapsed)+", throughput: "+Timer.round(this.doneIterations.get() * 1000.0 / Math.max(1, elapsed), 2)+" iterations/s");
+	PerfReport.getInstance().print(this.name);
+	if (this.stopped) {
+		StringBuilder messageBuilder = new StringBuilder("Load '").append(this.name).append("' was stopped as more than ").append(this.maxFailures).append(" iterations failed, first failures were:");
+		synchronized (this) {
+			for (String failure: this.failures) {
+				messageBuilder.append(LINE_SEPARATOR).append(" - ").append(failure);
+			}
+		}
+		throw new ScenarioFailedError(messageBuilder.toString());
+	}
+}
+
+/*
+ * Run the iterations of the given virtual user.
+ */
+private void runVirtualUser(final Context context, final long startTime, final long deadline) {
+	Thread.currentThread().setName("SPOT virtual user "+context.index);
+	long delay = startTime - System.currentTimeMillis();
+	if (delay > 0) pause(delay);
+
+	// Bind the thread to the user browser if necessary
+	BrowsersManager manager = BrowsersManager.getInstance();
+	if (context.user != null) {
+		try {
+			WebBrowser browser = manager.bindThread(context.user);
+			PerfManager perfManager = browser.getPerfManager();
+			if (perfManager != null) {
+				perfManager.setStepName(this.name);
+				perfManager.setTestName(LOAD_TEST_NAME);
+			}
+		}
+		catch (Throwable th) {
+			addFailure(context, th);
+			return;
+		}
+	}
+
+	// Run iterations
+	try {
+		while (!this.stopped && (this.iterations <= 0 || context.iteration < this.iterations) && System.currentTimeMillis() < deadline) {
+			context.iteration++;
+			long iterationStart = System.nanoTime();
+			try {
+				context.virtualUser.iterate(context);
+				PerfReport.getInstance().add(this.name, LOAD_TEST_NAME, ITERATION_ACTION_NAME, (System.nanoTime()-iterationStart)/1000000000.0);
+			}
+			catch (Throwable th) {
+				addFailure(context, th);
+			}
+			this.doneIterations.incrementAndGet();
+			if (this.thinkTime > 0) pause(this.thinkTime);
+		}
+	}
+	finally {
+		if (context.user != null) {
+			manager.unbindThread();
+		}
+	}
+}
+
+/**
+ * Set the maximum duration of the load.
+ *
+ * @param seconds The duration in seconds, 0 means no limit
+ * @return The generator to allow chaining calls
+ */
+public PerfLoadGenerator setDuration(final int seconds) {
+	this.duration = Math.max(0, seconds);
+	return this;
+}
+
+/**
+ * Set the number of iterations run by each virtual user.
+ *
+ * @param count The number of iterations, 0 means until the duration is reached
+ * @return The generator to allow chaining calls
+ */
+public PerfLoadGenerator setIterations(final int count) {
+	this.iterations = Math.max(0, count);
+	return this;
+}
+
+/**
+ * Set the number of failed iterations tolerated before stopping the load.
+ *
+ * @param max The maximum number of failed iterations
+ * @return The generator to allow chaining calls
+ */
+public PerfLoadGenerator setMaxFailures(final int max) {
+	this.maxFailures = Math.max(0, max);
+	return this;
+}
+
+/**
+ * Set the period during which virtual users are started.
+ *
+ * @param seconds The ramp-up period in seconds
+ * @return The generator to allow chaining calls
+ */
+public PerfLoadGenerator setRampUp(final int seconds) {
+	this.rampUp = Math.max(0, seconds);
+	return this;
+}
+
+/**
+ * Set the pause between two iterations of a virtual user.
+ *
+ * @param millisecs The think time in milliseconds
+ * @return The generator to allow chaining calls
+ */
+public PerfLoadGenerator setThinkTime(final int millisecs) {
+	this.thinkTime = Math.max(0, millisecs);
+	return this;
+}
+}
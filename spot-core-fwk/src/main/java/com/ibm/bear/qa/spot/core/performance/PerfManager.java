@@ -174,6 +174,9 @@ public void addPerfResult(final String pageTitle, final String url) {
 		// Write last result to taskDataWriter
 		this.taskDataWriter.write(perfResult);
 
+		// Aggregate last result with results of other browsers and loops
+		PerfReport.getInstance().add(perfResult);
+
 		// Reset for next transaction
 		reset();
 	}
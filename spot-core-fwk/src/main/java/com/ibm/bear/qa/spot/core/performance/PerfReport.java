@@ -0,0 +1,233 @@
+/*********************************************************************
+* Copyright (c) 2012, 2024 IBM Corporation and others.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+**********************************************************************/
+package com.ibm.bear.qa.spot.core.performance;
+
+import static com.ibm.bear.qa.spot.core.performance.PerfManager.USER_ACTION_NOT_PROVIDED;
+import static com.ibm.bear.qa.spot.core.scenario.ScenarioUtils.*;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Performance Report class, for aggregating response times measured by all browsers
+ * and virtual users into percentile reports.
+ * <p>
+ * Each {@link PerfManager} only stores the results measured on its own browser. The
+ * performance report aggregates the measurements of all performance managers, all
+ * scenario loops (see {@link PerfManager#PERFORMANCE_LOOPS}) and all virtual users of
+ * load generators (see {@link PerfLoadGenerator}). Measurements are grouped by step,
+ * test and action, the action being the user action name when provided or the page
+ * title otherwise.
+ * </p><p>
+ * For each group, the report gives the number of measurements and of errors, the
+ * minimum, mean and maximum response times and the 50th, 90th, 95th and 99th
+ * percentiles. It is written at the end of the scenario execution to the csv file
+ * given by <code>"performanceReportFileLocation"</code> parameter.
+ * </p><p>
+ * This class is thread safe and defines following public API methods:
+ * <ul>
+ * <li>{@link #add(PerfResult)}: Add the last response time of the given result.</li>
+ * <li>{@link #add(String,String,String,double)}: Add a response time for the given action.</li>
+ * <li>{@link #addError(String,String,String)}: Add an error for the given action.</li>
+ * <li>{@link #getInstance()}: Return the performance report instance.</li>
+ * <li>{@link #isEmpty()}: Tells whether the report has no measurement.</li>
+ * <li>{@link #print(String)}: Print the report in the console.</li>
+ * <li>{@link #write()}: Write the report to the csv file.</li>
+ * </ul>
+ * </p>
+ */
+public class PerfReport {
+
+/* Constants */
+final static String PERFORMANCE_DEFAULT_REPORT_FILE = System.getProperty("user.dir")+File.separator+"DefaultPerfReport.csv";
+final static String PERFORMANCE_REPORT_FILE_LOCATION = (getParameterValue("performanceReportFileLocation", PERFORMANCE_DEFAULT_REPORT_FILE)).replaceAll(".csv", COMPACT_DATE_STRING+".csv");
+private final static double[] PERCENTILES = { 50, 90, 95, 99 };
+private final static PerfReport INSTANCE = new PerfReport();
+
+// Global Variables
+private final Map<String, Measurements> measurements = new LinkedHashMap<String, Measurements>();
+
+/**
+ * Response times and errors measured for a step, test and action.
+ */
+private static class Measurements {
+	final String stepName, testName, actionName;
+	final List<Double> times = new ArrayList<Double>();
+	int errors = 0;
+
+	Measurements(final String stepName, final String testName, final String actionName) {
+		this.stepName = stepName;
+		this.testName = testName;
+		this.actionName = actionName;
+	}
+
+	String[] getValues() {
+		List<Double> sortedTimes = new ArrayList<Double>(this.times);
+		Collections.sort(sortedTimes);
+		int count = sortedTimes.size();
+		double total = 0;
+		for (Double time: sortedTimes) {
+			total += time.doubleValue();
+		}
+		String[] values = new String[8 + PERCENTILES.length];
+		values[0] = this.stepName;
+		values[1] = this.testName;
+		values[2] = this.actionName;
+		values[3] = Integer.toString(count);
+		values[4] = Integer.toString(this.errors);
+		values[5] = count == 0 ? EMPTY_STRING : Double.toString(Timer.round(sortedTimes.get(0).doubleValue(), 3));
+		values[6] = count == 0 ? EMPTY_STRING : Double.toString(Timer.round(total / count, 3));
+		for (int i=0; i<PERCENTILES.length; i++) {
+			values[7+i] = count == 0 ? EMPTY_STRING : Double.toString(Timer.round(percentile(sortedTimes, PERCENTILES[i]), 3));
+		}
+		values[7 + PERCENTILES.length] = count == 0 ? EMPTY_STRING : Double.toString(Timer.round(sortedTimes.get(count-1).doubleValue(), 3));
+		return values;
+	}
+}
+
+/**
+ * Return the performance report instance.
+ *
+ * @return The instance as {@link PerfReport}
+ */
+public static PerfReport getInstance() {
+	return INSTANCE;
+}
+
+/*
+ * Return the percentile of the given sorted times using the nearest rank method.
+ */
+static double percentile(final List<Double> sortedTimes, final double percentile) {
+	int rank = (int) Math.ceil(percentile / 100 * sortedTimes.size());
+	return sortedTimes.get(Math.max(0, rank-1)).doubleValue();
+}
+
+private PerfReport() {
+}
+
+/**
+ * Add the last response time of the given result.
+ *
+ * @param result The result which response time has just been added
+ */
+public void add(final PerfResult result) {
+	String actionName = result.getUserActionName().equals(USER_ACTION_NOT_PROVIDED) ? result.getPageTitle() : result.getUserActionName();
+	add(result.getStepName(), result.getTestName(), actionName, result.getLastRegressionTime().doubleValue());
+}
+
+/**
+ * Add a response time for the given action.
+ *
+ * @param stepName The step name
+ * @param testName The test name
+ * @param actionName The action name
+ * @param time The response time in seconds
+ */
+public synchronized void add(final String stepName, final String testName, final String actionName, final double time) {
+	getMeasurements(stepName, testName, actionName).times.add(Double.valueOf(time));
+}
+
+/**
+ * Add an error for the given action.
+ *
+ * @param stepName The step name
+ * @param testName The test name
+ * @param actionName The action name
+ */
+public synchronized void addError(final String stepName, final String testName, final String actionName) {
+	getMeasurements(stepName, testName, actionName).errors++;
+}
+
+/*
+ * Return the measurements of the given action, create them if necessary.
+ */
+private Measurements getMeasurements(final String stepName, final String testName, final String actionName) {
+	String key = stepName + "|" + testName + "|" + actionName;
+	Measurements actionMeasurements = this.measurements.get(key);
+	if (actionMeasurements == null) {
+		actionMeasurements = new Measurements(stepName, testName, actionName);
+		this.measurements.put(key, actionMeasurements);
+	}
+	return actionMeasurements;
+}
+
+/*
+ * Return the report column titles.
+ */
+private String[] getTitles() {
+	String[] titles = new String[8 + PERCENTILES.length];
+	titles[0] = "Step Name";
+	titles[1] = "Test Name";
+	titles[2] = "Action Name";
+	titles[3] = "Count";
+	titles[4] = "Errors";
+	titles[5] = "Min";
+	titles[6] = "Mean";
+	for (int i=0; i<PERCENTILES.length; i++) {
+		titles[7+i] = "P" + (int) PERCENTILES[i];
+	}
+	titles[7 + PERCENTILES.length] = "Max";
+	return titles;
+}
+
+/**
+ * Tells whether the report has no measurement.
+ *
+ * @return <code>true</code> if no response time nor error was added,
+ * <code>false</code> otherwise
+ */
+public synchronized boolean isEmpty() {
+	return this.measurements.isEmpty();
+}
+
+/**
+ * Print the report in the console.
+ *
+ * @param stepName The step name of measurements to print, all measurements
+ * are printed if <code>null</code>
+ */
+public synchronized void print(final String stepName) {
+	println("Performance report (response times in seconds):");
+	println("	" + String.join(" | ", getTitles()));
+	for (Measurements actionMeasurements: this.measurements.values()) {
+		if (stepName == null || stepName.equals(actionMeasurements.stepName)) {
+			println("	" + String.join(" | ", actionMeasurements.getValues()));
+		}
+	}
+}
+
+/**
+ * Write the report to the csv file.
+ * <p>
+ * Nothing is written if the report is empty.
+ * </p>
+ */
+public synchronized void write() {
+	if (this.measurements.isEmpty()) return;
+	File reportFile = new File(PERFORMANCE_REPORT_FILE_LOCATION);
+	if (reportFile.exists()) {
+		reportFile.delete();
+	}
+	CsvWriter writer = new CsvWriter(PERFORMANCE_REPORT_FILE_LOCATION, ',');
+	try {
+		writer.writeNext(getTitles());
+		for (Measurements actionMeasurements: this.measurements.values()) {
+			writer.writeNext(actionMeasurements.getValues());
+		}
+	}
+	finally {
+		writer.close();
+	}
+	println("Performance report written to " + PERFORMANCE_REPORT_FILE_LOCATION);
+}
+}
@@ -45,18 +45,22 @@ public TaskDataWriter (final String filePathName){
 
 /**
  * Write the given result out to the cvsFile
- *
+ * <p>
+ * Writes are serialized as several browsers might write results to the same file.
+ * </p>
  */
 public void write(final PerfResult result){
-	this.writeNext(new String[]{
-			result.getStepName(),
-			result.getTestName(),
-			result.getUserActionName(),
-			result.getUrl(),
-			result.getPageTitle(),
-			PerfResult.regressionTypeToString(result.getRegressionType()),
-			Double.toString(Timer.round(result.getLastRegressionTime().doubleValue(),5)),
-			result.getLastTimeDateStamp()});
+	synchronized (TaskDataWriter.class) {
+		this.writeNext(new String[]{
+				result.getStepName(),
+				result.getTestName(),
+				result.getUserActionName(),
+				result.getUrl(),
+				result.getPageTitle(),
+				PerfResult.regressionTypeToString(result.getRegressionType()),
+				Double.toString(Timer.round(result.getLastRegressionTime().doubleValue(),5)),
+				result.getLastTimeDateStamp()});
+	}
 }
 
 /**
@@ -18,8 +18,7 @@ import static com.ibm.bear.qa.spot.core.utils.StringUtils.convertLineDelimitersT
 import static com.ibm.bear.qa.spot.core.utils.StringUtils.getSafeStringForPath;
 
 import java.io.*;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 import com.ibm.bear.qa.spot.core.api.SpotUser;
 import com.ibm.bear.qa.spot.core.scenario.errors.ScenarioFailedError;
@@ -42,6 +41,7 @@ import com.ibm.bear.qa.spot.core.scenario.errors.ScenarioFailedError;
  * </p><p>
  * Following public API methods are available:
  * <ul>
+ * <li>{@link #createDataSeeder(String,SpotUser)}: Create a seeder to create scenario data through the given application REST API.</li>
  * <li>{@link #getDataRootDir()}: Return the root directory where all data related artifacts of the test plug-in are located.</li>
  * <li>{@link #getPrefix()}: Return the prefix to apply to all data created during scenario execution (project, users, etc.).</li>
  * <li>{@link #getUsers()}: Return users basically used while running the scenario.</li>
@@ -49,7 +49,9 @@ import com.ibm.bear.qa.spot.core.scenario.errors.ScenarioFailedError;
  * </p><p>
  * Following internal methods are available:
  * <ul>
+ * <li>{@link #getCheckpointValues()}: Return the data values to store in the scenario execution checkpoint.</li>
  * <li>{@link #initPrefix()}: Init prefix which will be used for all users.</li>
+ * <li>{@link #restoreCheckpointValues(Map)}: Restore the data values stored in the scenario execution checkpoint.</li>
  * </ul>
  * </p>
  */
@@ -100,6 +102,22 @@ protected ScenarioData() {
 	}
 }
 
+/**
+ * Create a seeder to create scenario data through the given application REST API.
+ * <p>
+ * Using REST API to create scenario preconditions is much faster than doing it
+ * through the web pages, hence it should be preferred when the application
+ * provides the corresponding endpoints.
+ * </p>
+ * @param url The application base URL
+ * @param user The user used to authenticate requests
+ * @return The seeder
+ * @see ScenarioDataSeeder
+ */
+public ScenarioDataSeeder createDataSeeder(final String url, final SpotUser user) {
+	return new ScenarioDataSeeder(url, user);
+}
+
 /**
  * Return the general strategy to follow when creating artifact during scenario execution.
  * <p>
@@ -146,6 +164,22 @@ public String getPrefix() {
 	return this.prefix;
 }
 
+/**
+ * Return the data values to store in the scenario execution checkpoint.
+ * <p>
+ * Default is to store the prefix. Subclasses should override this method to add
+ * the values computed during the scenario execution which are needed by following
+ * tests (e.g. created artifacts identifiers), see {@link #restoreCheckpointValues(Map)}
+ * to restore them when the execution is resumed.
+ * </p>
+ * @return The values as a map of {@link String}
+ */
+protected Map<String, String> getCheckpointValues() {
+	Map<String, String> values = new HashMap<>();
+	values.put("prefix", this.prefix);
+	return values;
+}
+
 /**
  * Return users used while running the scenario.
  *
@@ -166,10 +200,17 @@ public List<SpotUser> getUsers() {
  * Note that if {@link ScenarioDataConstants#RANDOM_PREFIX_PARAM_ID} argument
  * is <code>true</code>, the prefix will be initialized with a random long value got
  * from current time.
+ * </p><p>
+ * When the scenario execution is resumed from a checkpoint, the prefix of the
+ * interrupted execution is reused.
  * </p>
  */
 protected void initPrefix() {
-	if (getParameterBooleanValue(RANDOM_PREFIX_PARAM_ID)) {
+	String checkpointPrefix = SpotScenarioCheckpoint.getInstance().getDataValue("prefix");
+	if (checkpointPrefix != null) {
+		// Reuse the prefix of the resumed scenario execution
+		this.prefix = checkpointPrefix;
+	} else if (getParameterBooleanValue(RANDOM_PREFIX_PARAM_ID)) {
 		// Assign a random prefix if requested by user.
 		this.prefix = Long.toString(System.currentTimeMillis());
 	} else {
@@ -184,6 +225,19 @@ protected void initPrefix() {
  */
 abstract protected void initUsers();
 
+/**
+ * Restore the data values stored in the scenario execution checkpoint.
+ * <p>
+ * Default is to do nothing as the prefix is restored while initializing it
+ * (see {@link #initPrefix()}). Subclasses overriding {@link #getCheckpointValues()}
+ * should override this method to restore their values.
+ * </p>
+ * @param values The checkpoint values
+ */
+protected void restoreCheckpointValues(@SuppressWarnings("unused") final Map<String, String> values) {
+	// Nothing to restore by default
+}
+
 /**
  * Find folders matching the given name in current project folder and its hierarchy.
  * <p>
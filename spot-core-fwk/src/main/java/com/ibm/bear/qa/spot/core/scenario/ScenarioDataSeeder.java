@@ -0,0 +1,268 @@
+/*********************************************************************
+* Copyright (c) 2012, 2024 IBM Corporation and others.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+**********************************************************************/
+package com.ibm.bear.qa.spot.core.scenario;
+
+import static com.ibm.bear.qa.spot.core.scenario.ScenarioUtils.*;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+import com.ibm.bear.qa.spot.core.api.SpotUser;
+import com.ibm.bear.qa.spot.core.scenario.errors.ScenarioFailedError;
+import com.ibm.bear.qa.spot.core.utils.RestUtil;
+
+/**
+ * Class to seed scenario data through application REST API.
+ * <p>
+ * Creating preconditions of a scenario (projects, users, artifacts...) through
+ * REST API is much faster and reliable than doing it through the web pages.
+ * A seeder queues requests and sends them concurrently when running, using the
+ * shared HTTP client of {@link RestUtil} which keeps its connections alive.
+ * Failed requests are retried (see {@link RestUtil#send(HttpRequest, int, boolean)}),
+ * except <code>POST</code> ones which are only retried when explicitly allowed
+ * (see {@link #setRetryPosts(boolean)}) as a failed attempt might have created
+ * the data anyway.
+ * </p><p>
+ * Requests queued before a run are independent from each other. When some data
+ * depends on other ones (e.g. artifacts created in a project), then the seeder
+ * has to be run once for each level of dependency:
+ * <pre>
+ * ScenarioDataSeeder seeder = data.createDataSeeder(url, user);
+ * seeder.post("project", "/api/projects", projectJson, "application/json").run();
+ * seeder.post("item1", "/api/projects/p1/items", item1Json, "application/json")
+ *       .post("item2", "/api/projects/p1/items", item2Json, "application/json")
+ *       .run();
+ * </pre>
+ * </p><p>
+ * Default parallelism and retries can be changed respectively with
+ * <code>"seed.parallelism"</code> and <code>"seed.retries"</code> parameters.
+ * </p><p>
+ * This class defines following public API methods:
+ * <ul>
+ * <li>{@link #delete(String,String)}: Queue a DELETE request.</li>
+ * <li>{@link #get(String,String)}: Queue a GET request.</li>
+ * <li>{@link #post(String,String,String,String)}: Queue a POST request.</li>
+ * <li>{@link #put(String,String,String,String)}: Queue a PUT request.</li>
+ * <li>{@link #run()}: Send all queued requests and return their responses.</li>
+ * <li>{@link #setParallelism(int)}: Set the maximum number of requests sent concurrently.</li>
+ * <li>{@link #setRetries(int)}: Set the maximum number of retries of a failed request.</li>
+ * <li>{@link #setRetryPosts(boolean)}: Set whether failed POST requests can be retried.</li>
+ * </ul>
+ * </p>
+ */
+public class ScenarioDataSeeder {
+
+	/* Constants */
+	private static final int DEFAULT_PARALLELISM = getParameterIntValue("seed.parallelism", 4);
+	private static final int DEFAULT_RETRIES = getParameterIntValue("seed.retries", 2);
+	private static final Duration REQUEST_TIMEOUT = Duration.ofMinutes(2);
+
+	/* Fields */
+	private final String baseUrl;
+	private final String authorization;
+	private final Map<String, HttpRequest> requests = new LinkedHashMap<>();
+	private int parallelism = DEFAULT_PARALLELISM;
+	private int retries = DEFAULT_RETRIES;
+	private boolean retryPosts = false;
+
+/**
+ * Create a seeder for the given application URL and user.
+ *
+ * @param url The application base URL, request paths are relative to it
+ * @param user The user used to authenticate requests
+ */
+public ScenarioDataSeeder(final String url, final SpotUser user) {
+	this(url, RestUtil.basicAuthorization(user.getId(), user.getPassword()));
+}
+
+/**
+ * Create a seeder for the given application URL and authorization header.
+ *
+ * @param url The application base URL, request paths are relative to it
+ * @param authorization The value of the authorization header sent with each request
+ */
+public ScenarioDataSeeder(final String url, final String authorization) {
+	this.baseUrl = url.endsWith("/") ? url.substring(0, url.length()-1) : url;
+	this.authorization = authorization;
+}
+
+private ScenarioDataSeeder add(final String label, final String method, final String path, final String payload, final String contentType) {
+	if (this.requests.containsKey(label)) {
+		throw new ScenarioFailedError("A request labeled '"+label+"' is already queued in the seeder.");
+	}
+	HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(this.baseUrl + (path.startsWith("/") ? path : "/" + path)))
+		.timeout(REQUEST_TIMEOUT)
+		.header("Accept", "*/*")
+		.header("Authorization", this.authorization);
+	if (payload == null) {
+		builder.method(method, HttpRequest.BodyPublishers.noBody());
+	} else {
+		builder.header("Content-Type", contentType);
+		builder.method(method, HttpRequest.BodyPublishers.ofString(payload));
+	}
+	this.requests.put(label, builder.build());
+	return this;
+}
+
+/**
+ * Queue a DELETE request.
+ *
+ * @param label The label identifying the request response
+ * @param path The request path relative to the seeder URL
+ * @return The seeder to allow chaining calls
+ */
+public ScenarioDataSeeder delete(final String label, final String path) {
+	return add(label, "DELETE", path, null, null);
+}
+
+/**
+ * Queue a GET request.
+ *
+ * @param label The label identifying the request response
+ * @param path The request path relative to the seeder URL
+ * @return The seeder to allow chaining calls
+ */
+public ScenarioDataSeeder get(final String label, final String path) {
+	return add(label, "GET", path, null, null);
+}
+
+/**
+ * Queue a POST request.
+ *
+ * @param label The label identifying the request response
+ * @param path The request path relative to the seeder URL
+ * @param payload The request body
+ * @param contentType The request body content type
+ * @return The seeder to allow chaining calls
+ */
+public ScenarioDataSeeder post(final String label, final String path, final String payload, final String contentType) {
+	return add(label, "POST", path, payload, contentType);
+}
+
+/**
+ * Queue a PUT request.
+ *
+ * @param label The label identifying the request response
+ * @param path The request path relative to the seeder URL
+ * @param payload The request body
+ * @param contentType The request body content type
+ * @return The seeder to allow chaining calls
+ */
+public ScenarioDataSeeder put(final String label, final String path, final String payload, final String contentType) {
+	return add(label, "PUT", path, payload, contentType);
+}
+
+/**
+ * Send all queued requests and return their responses.
+ * <p>
+ * Requests are sent concurrently and the queue is emptied, hence the seeder
+ * can be reused for another set of requests.
+ * </p>
+ * @return The body of each request response, keyed by request label in
+ * the order they were queued
+ * @throws ScenarioFailedError If at least one of the requests has failed,
+ * the error message gives the status of each failed request
+ */
+public Map<String, String> run() throws ScenarioFailedError {
+	debugPrintEnteringMethod();
+	Map<String, HttpRequest> sentRequests = new LinkedHashMap<>(this.requests);
+	this.requests.clear();
+	if (sentRequests.isEmpty()) {
+		return new LinkedHashMap<>();
+	}
+
+	// Send requests
+	long start = System.currentTimeMillis();
+	ExecutorService executor = Executors.newFixedThreadPool(Math.min(this.parallelism, sentRequests.size()));
+	Map<String, Future<HttpResponse<String>>> futures = new LinkedHashMap<>();
+	try {
+		for (Map.Entry<String, HttpRequest> entry: sentRequests.entrySet()) {
+			final HttpRequest request = entry.getValue();
+			futures.put(entry.getKey(), executor.submit(() -> RestUtil.send(request, this.retries, this.retryPosts)));
+		}
+
+		// Collect responses
+		Map<String, String> responses = new LinkedHashMap<>();
+		StringBuilder failures = new StringBuilder();
+		for (Map.Entry<String, Future<HttpResponse<String>>> entry: futures.entrySet()) {
+			String label = entry.getKey();
+			try {
+				HttpResponse<String> response = entry.getValue().get();
+				int status = response.statusCode();
+				if (status < 200 || status >= 300) {
+					failures.append(LINE_SEPARATOR).append(" - ").append(label).append(": response code ").append(status).append(" with message ").append(response.body());
+				} else {
+					responses.put(label, response.body());
+				}
+			}
+			catch (ExecutionException ee) {
+				failures.append(LINE_SEPARATOR).append(" - ").append(label).append(": ").append(ee.getCause());
+			}
+		}
+		if (failures.length() > 0) {
+			throw new ScenarioFailedError("Some data seeding requests failed:"+failures);
+		}
+		debugPrintln("		  -> "+responses.size()+" seeding requests done in "+timeString(System.currentTimeMillis()-start));
+		return responses;
+	}
+	catch (InterruptedException ie) {
+		Thread.currentThread().interrupt();
+		throw new ScenarioFailedError(ie);
+	}
+	finally {
+		executor.shutdownNow();
+	}
+}
+
+/**
+ * Set the maximum number of requests sent concurrently.
+ *
+ * @param max The maximum number of concurrent requests
+ * @return The seeder to allow chaining calls
+ */
+public ScenarioDataSeeder setParallelism(final int max) {
+	this.parallelism = Math.max(1, max);
+	return this;
+}
+
+/**
+ * Set the maximum number of retries of a failed request.
+ *
+ * @param max The maximum number of retries
+ * @return The seeder to allow chaining calls
+ */
+public ScenarioDataSeeder setRetries(final int max) {
+	this.retries = Math.max(0, max);
+	return this;
+}
+
+/**
+ * Set whether failed POST requests can be retried.
+ * <p>
+ * By default POST requests are not retried as they usually create data and a
+ * retry might create duplicates when a failed attempt was actually processed
+ * by the server. Retries can be allowed when the POST requests are idempotent
+ * for the seeded application.
+ * </p>
+ * @param retry <code>true</code> to retry failed POST requests, <code>false</code> otherwise
+ * @return The seeder to allow chaining calls
+ */
+public ScenarioDataSeeder setRetryPosts(final boolean retry) {
+	this.retryPosts = retry;
+	return this;
+}
+}
@@ -14,22 +14,13 @@ package com.ibm.bear.qa.spot.core.scenario;
 
 import static com.ibm.bear.qa.spot.core.scenario.ScenarioUtils.*;
 import static com.ibm.bear.qa.spot.core.utils.CollectionsUtil.getListFromCommaString;
-import static com.ibm.bear.qa.spot.core.utils.FileUtil.getDir;
-import static com.ibm.bear.qa.spot.core.utils.FileUtil.rmdir;
 import static com.ibm.bear.qa.spot.core.web.WebBrowser.JAVASCRIPT_ERROR_ALERT_PATTERN;
-import static javax.naming.Context.INITIAL_CONTEXT_FACTORY;
-import static javax.naming.Context.PROVIDER_URL;
 
 import java.io.File;
 import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.util.*;
 
-import javax.jms.*;
-import javax.jms.Queue;
-import javax.naming.*;
-
-import org.apache.activemq.broker.BrokerService;
 import org.junit.runner.Description;
 import org.junit.runners.model.FrameworkMethod;
 import org.junit.runners.model.Statement;
@@ -41,6 +32,7 @@ import com.ibm.bear.qa.spot.core.config.Config;
 import com.ibm.bear.qa.spot.core.config.User;
 import com.ibm.bear.qa.spot.core.performance.PerfManager;
 import com.ibm.bear.qa.spot.core.scenario.errors.*;
+import com.ibm.bear.qa.spot.core.synchro.*;
 import com.ibm.bear.qa.spot.core.timeout.SpotAbstractTimeout;
 import com.ibm.bear.qa.spot.core.topology.Topology;
 import com.ibm.bear.qa.spot.core.utils.*;
@@ -86,6 +78,10 @@ import com.ibm.bear.qa.spot.core.web.WebPage;
  * for some operations used during their execution</li>
  * <li>children executions when scenario definition is a mix of steps from several different
  * scenarios</li>
+ * <li>retry policies applied when a test fails (see {@link #initRetryPolicies()})</li>
+ * <li>tests execution history used to order tests (see {@link SpotTestsHistory})</li>
+ * <li>checkpoint written after each passing test to resume an interrupted execution (see
+ * {@link SpotScenarioCheckpoint})</li>
  * </ul>
  * </p><p>
  * This class defines following internal API methods:
@@ -113,9 +109,11 @@ import com.ibm.bear.qa.spot.core.web.WebPage;
  * </p><p>
  * This class also defines or overrides following methods:
  * <ul>
+ * <li>{@link #addRetryPolicy(SpotRetryPolicy)}: Add a retry policy.</li>
  * <li>{@link #cleanUp(Throwable)}: Do some cleanup usually before re-run the test when it failed.</li>
  * <li>{@link #initConfig()}: Initialize the configuration.</li>
  * <li>{@link #initData()}: Initialize the data.</li>
+ * <li>{@link #initRetryPolicies()}: Initialize the retry policies used when a test fails.</li>
  * <li>{@link #manageFailure(long,Throwable,boolean,int)}: Manage the given failure.</li>
  * </ul>
  * </p>
@@ -128,36 +126,23 @@ public abstract class ScenarioExecution {
 	class SpotDependsOnTimeout extends SpotAbstractTimeout {
 		final List<String> blockers;
 		final String queueName;
-		MessageConsumer messageConsumer;
 
 		/**
 		 * Create the timeout instance.
 		 * <p>
 		 * This timeout is used when {@link DependsOn} annotation is specified on given test.
 		 * It stores the list of blocker tests in order to wait for a message on each of them during
-		 * the waiting loop. It also creates the consumer as only one is necessary even if several
-		 * messages are expected. This consumer is based on a queue which name is based on
+		 * the waiting loop. Messages are received from a queue which name is based on
 		 * given test id (<code>&lt;Step class simple name&gt;.&lt;test name&gt;</code>).
 		 * </p>
 		 * @param test The test description using the timeout
-		 * @param context The naming context to retrieve dynamic queues
-		 * @param session The queue session to use to receive message
 		 * @param depends The annotation set on the test for dependency
-		 * @throws ScenarioSynchronizationError If exception occurs while creating the timeout instance
 		 */
-		SpotDependsOnTimeout(final Description test, final Context context, final QueueSession session, final DependsOn depends) throws ScenarioSynchronizationError {
+		SpotDependsOnTimeout(final Description test, final DependsOn depends) {
 			super(depends.fail(), 10000);
 			this.blockers = getListFromArray(depends.blockers());
 			this.queueName = getClassSimpleName(test.getClassName())+"."+test.getMethodName();
 			println("		+ INFO: Wait in queue'"+this.queueName+"' for message from "+getTextFromList(this.blockers));
-			try {
-				Queue queue = (Queue) context.lookup("dynamicQueues/"+this.queueName);
-				debugPrintln("	- create message consumer ...");
-				this.messageConsumer = session.createConsumer(queue);
-			}
-			catch (Exception ex) {
-				throw new ScenarioSynchronizationError(ex);
-			}
 		}
 
 		@Override
@@ -177,21 +162,15 @@ public abstract class ScenarioExecution {
 		 */
 		@Override
 		protected boolean getCondition() throws ScenarioSynchronizationError, ScenarioFailedError {
-			try {
-				debugPrintln("	- check message arrived in queue '"+this.queueName+"'...");
-				Message message = this.messageConsumer.receiveNoWait();
-				if (message != null) {
-					String testId = message.getStringProperty("test");
-					println("		+ INFO: receive message from '"+testId+"'");
-					if (!this.blockers.remove(testId)) {
-						throw new ScenarioFailedError("Unexpected test ID '"+testId+"' received in queue '"+this.queueName+"'.");
-					}
+			debugPrintln("	- check message arrived in queue '"+this.queueName+"'...");
+			String testId = ScenarioExecution.this.synchroTransport.receive(this.queueName, 0);
+			if (testId != null) {
+				println("		+ INFO: receive message from '"+testId+"'");
+				if (!this.blockers.remove(testId)) {
+					throw new ScenarioFailedError("Unexpected test ID '"+testId+"' received in queue '"+this.queueName+"'.");
 				}
-				return this.blockers.size() > 0;
-			}
-			catch (JMSException jmse) {
-				throw new ScenarioSynchronizationError(jmse);
 			}
+			return this.blockers.size() > 0;
 		}
 
 		@Override
@@ -205,7 +184,11 @@ public abstract class ScenarioExecution {
 	private final static String SPOT_SYNCHRO = "spot.synchro";
 	private static final String SPOT_SYNCHRO_SCENARIOS = "spot.synchro.scenarios";
 	private static final String SPOT_SYNCHRO_SHUTDOWN_TIMEOUT = "spot.synchro.shutdown.timeout";
-	private static final String DYNAMIC_QUEUES_SHUTDOWN = "dynamicQueues/shutdown";
+	private static final String SPOT_SYNCHRO_TRANSPORT = "spot.synchro.transport";
+	private static final String SPOT_SYNCHRO_ACTIVEMQ_URL = "spot.synchro.activemq.url";
+	private static final String SPOT_SYNCHRO_DIR = "spot.synchro.dir";
+	private static final String SPOT_SYNCHRO_GROUP = "spot.synchro.group";
+	private static final String SHUTDOWN_QUEUE = "shutdown";
 	// Control the execution after a failure
 	private final static String STOP_ON_FAILURE_ID = "stopOnFailure";
 	private final static String STOP_ON_EXCEPTION_ID = "stopOnException";
@@ -223,6 +206,7 @@ public abstract class ScenarioExecution {
 	private final int pauseExec = getParameterIntValue(PAUSE_EXECUTION_ID);
 	private String stopStepExecution = null;
 	private final List<ScenarioExecution> childrenExecutions = new ArrayList<>();
+	private final List<SpotRetryPolicy> retryPolicies = new ArrayList<>();
 
 	// Closing browsers control
 	final static List<String> CLOSE_BROWSERS_STEPS = getListFromCommaString(getParameterValue("spot.close.browsers.steps"));
@@ -244,12 +228,9 @@ public abstract class ScenarioExecution {
 	// Synchronization
 	final boolean testSynchronization;
 	boolean shouldSynchronize;
-	final boolean canSynchronize;
-	private QueueSession queueSession;
-	private Context namingContext;
-	private Queue scenarioQueue;
+	private Boolean canSynchronize;
+	private SpotSynchroTransport synchroTransport;
 	private boolean synchroMaster = false;
-	private BrokerService brokerService;
 
 public ScenarioExecution() {
 
@@ -259,19 +240,27 @@ public ScenarioExecution() {
 	this.closeBrowserOnExit = getParameterBooleanValue("closeBrowserOnExit", true);
 
 	// Init Config
+	SpotStartupPhases.Phase phase = SpotStartupPhases.begin("configuration initialization");
 	initConfig();
+	phase.end();
 
 	// Init data
+	phase = SpotStartupPhases.begin("data initialization");
 	initData();
+	phase.end();
 
-	// Init JMS objects
+	// Restore checkpoint counters and data when resuming
+	SpotScenarioCheckpoint.getInstance().restore(this);
+
+	// Synchronization objects are initialized lazily (see canSynchronize())
 	this.testSynchronization = getParameterBooleanValue(SPOT_SYNCHRO, false);
-	if (this.testSynchronization) {
-		this.canSynchronize = synchroInitialize();
-	} else {
-		this.canSynchronize = false;
+	if (!this.testSynchronization) {
+		this.canSynchronize = Boolean.FALSE;
 		debugPrintln("INFO: Test synchronization is disabled, hence all @DependsOn and @Blocks annotation will be ignored.");
 	}
+
+	// Init retry policies
+	initRetryPolicies();
 }
 
 /**
@@ -286,6 +275,18 @@ public void addMandatoryTests(final List<FrameworkMethod> tests) {
 	}
 }
 
+/**
+ * Add a retry policy.
+ * <p>
+ * The policy is added before the existing ones, hence it has priority over
+ * them for the failures it applies to.
+ * </p>
+ * @param policy The policy to add
+ */
+protected void addRetryPolicy(final SpotRetryPolicy policy) {
+	this.retryPolicies.add(0, policy);
+}
+
 /**
  * Add a skipped test.
  */
@@ -293,6 +294,24 @@ void addSkippedTest() {
 	this.counters.skippedTests++;
 }
 
+/**
+ * Return whether tests can be synchronized or not.
+ * <p>
+ * Synchronization mechanism is initialized at first call of this method
+ * when test synchronization is activated.
+ * </p>
+ * @return <code>true</code> if synchronization is activated and has been
+ * successfully initialized, <code>false</code> otherwise
+ */
+boolean canSynchronize() {
+	if (this.canSynchronize == null) {
+		SpotStartupPhases.Phase phase = SpotStartupPhases.begin("synchronization initialization");
+		this.canSynchronize = Boolean.valueOf(synchroInitialize());
+		phase.end();
+	}
+	return this.canSynchronize.booleanValue();
+}
+
 /**
  * Check whether the step has the {@link CloseBrowsers} annotation when
  * starting or ending the step execution.
@@ -432,6 +451,18 @@ private PerfManager getPerfManager() {
 	return null;
 }
 
+/*
+ * Return the first retry policy applying to the given failure.
+ */
+private SpotRetryPolicy getRetryPolicy(final Throwable t) {
+	for (SpotRetryPolicy policy: this.retryPolicies) {
+		if (policy.matches(t)) {
+			return policy;
+		}
+	}
+	return null;
+}
+
 private String getShouldStopReason(final boolean mandatoryTest) {
 	String reason = EMPTY_STRING;
 	if (this.stopOnFailure) {
@@ -486,22 +517,6 @@ public Topology getTopology() {
 	return this.config.getTopology();
 }
 
-private void handleAlert(final Description description, final WebDriverException wde) {
-	printException(wde);
-	if (getBrowser() == null) {
-		println("WARNING: There's no browser available to handle alert!");
-	} else {
-		getBrowser().purgeAlert("Running test "+this.testName, 0);
-	}
-	if (this.counters.hasMaxAlerts()) {
-		takeScreenshotFailure();
-		this.shouldStop = this.stopOnFailure || this.mandatoryTests.contains(description);
-		throw wde;
-	}
-	println("WORKAROUND: Try to run the test again in case the alert was a transient issue...");
-	takeScreenshotWarning(); // take a snapshot just to notify the warning
-}
-
 /**
  * Initialize the configuration.
  * <p>
@@ -520,6 +535,233 @@ abstract protected void initConfig();
  */
 abstract protected void initData();
 
+/**
+ * Initialize the retry policies used when a test fails.
+ * <p>
+ * Policies are checked in their order, the first one applying to a test failure
+ * is used. Default policies are, in order:
+ * <ol>
+ * <li><code>alert</code>: unexpected alert, the alert is purged and the test run
+ * again until {@link SpotScenarioExecutionCounters#ALERTS_THRESHOLD_ID} is reached,</li>
+ * <li><code>sessionNotCreated</code>: the browser session cannot be created, the
+ * scenario execution is stopped,</li>
+ * <li><code>browserUnreachable</code>: the browser is unreachable or has died, the
+ * browser is restarted and the test run again until {@link SpotScenarioExecutionCounters#BROWSER_ERRORS_THRESHOLD_ID}
+ * is reached,</li>
+ * <li><code>webDriver</code>: other WebDriver failures, the browser is refreshed and the
+ * test run again until {@link SpotScenarioExecutionCounters#FAILURES_THRESHOLD_ID} is reached,</li>
+ * <li><code>retryable</code>: {@link RetryableError}, the browser is refreshed and the
+ * test run again until {@link SpotScenarioExecutionCounters#RETRIABLE_ERRORS_THRESHOLD_ID}
+ * is reached,</li>
+ * <li><code>multipleElements</code>: {@link MultipleElementsFoundError}, the browser is refreshed
+ * and the test run again until {@link SpotScenarioExecutionCounters#MULTIPLES_THRESHOLD_ID}
+ * is reached,</li>
+ * <li><code>serverMessage</code>: {@link ServerMessageError}, the test fails,</li>
+ * <li><code>blocking</code>: browser connection, existing data and implementation errors,
+ * the scenario execution is stopped,</li>
+ * <li><code>browser</code>: other {@link BrowserError}, the test is run again until
+ * {@link SpotScenarioExecutionCounters#BROWSER_ERRORS_THRESHOLD_ID} is reached,</li>
+ * <li><code>error</code> and <code>exception</code>: any other error or exception,
+ * the test fails.</li>
+ * </ol>
+ * </p><p>
+ * Subclasses might override this method to add their own policies (see
+ * {@link #addRetryPolicy(SpotRetryPolicy)}).
+ * </p>
+ */
+protected void initRetryPolicies() {
+	this.retryPolicies.add(new SpotRetryPolicy(this, "alert", 1, 2, 0, Arrays.asList(UnhandledAlertException.class, WebDriverException.class)) {
+		@Override
+		protected boolean canRerun(final WebPage currentPage) {
+			return true;
+		}
+		@Override
+		protected boolean isMaxReached() {
+			return ScenarioExecution.this.counters.hasMaxAlerts();
+		}
+		@Override
+		protected void manageFailure(final long start, final Throwable t, final boolean isNotRerunnable, final int snapshotLevel) {
+			printException(t);
+			if (getBrowser() == null) {
+				println("WARNING: There's no browser available to handle alert!");
+			} else {
+				getBrowser().purgeAlert("Running test "+ScenarioExecution.this.testName, 0);
+			}
+			if (snapshotLevel == 2) {
+				takeScreenshotFailure();
+			} else {
+				println("WORKAROUND: Try to run the test again in case the alert was a transient issue...");
+				takeScreenshotWarning(); // take a snapshot just to notify the warning
+			}
+		}
+		@Override
+		protected boolean matches(final Throwable t) {
+			if (t instanceof UnhandledAlertException) {
+				return true;
+			}
+			return t instanceof WebDriverException && t.getMessage() != null && t.getMessage().matches(JAVASCRIPT_ERROR_ALERT_PATTERN);
+		}
+		@Override
+		protected boolean shouldStop(final Description description, final boolean maxReached) {
+			return shouldStopAfterFailure(description, ScenarioExecution.this.stopOnFailure);
+		}
+	});
+	this.retryPolicies.add(new SpotRetryPolicy(this, "sessionNotCreated", 2, 2, 0, Arrays.asList(SessionNotCreatedException.class)) {
+		@Override
+		protected boolean shouldStop(final Description description, final boolean maxReached) {
+			return true;
+		}
+	});
+	this.retryPolicies.add(new SpotRetryPolicy(this, "browserUnreachable", -1, -1, 2000, Arrays.asList(UnreachableBrowserException.class, WebDriverException.class)) {
+		@Override
+		protected boolean canRerun(final WebPage currentPage) {
+			return currentPage != null;
+		}
+		@Override
+		protected String getGiveUpMessage(final boolean maxReached) {
+			return "		  -> The browser seems to have a problem which cannot be workarounded by just a restart, give up!";
+		}
+		@Override
+		protected boolean isMaxReached() {
+			return ScenarioExecution.this.counters.hasMaxBrowserErrors();
+		}
+		@Override
+		protected boolean matches(final Throwable t) {
+			if (t instanceof UnreachableBrowserException) {
+				return true;
+			}
+			String message = t.getMessage();
+			return t instanceof WebDriverException && message != null && (message.startsWith("Failed to connect to binary FirefoxBinary") || message.startsWith("chrome not reachable"));
+		}
+		@Override
+		protected void recover(final WebPage currentPage) {
+			restartBrowser(currentPage);
+		}
+		@Override
+		protected boolean shouldStop(final Description description, final boolean maxReached) {
+			return true;
+		}
+	});
+	this.retryPolicies.add(new SpotRetryPolicy(this, "webDriver", 1, 2, 0, Arrays.asList(WebDriverException.class)) {
+		@Override
+		protected boolean canRerun(final WebPage currentPage) {
+			return getBrowser() != null;
+		}
+		@Override
+		protected boolean isMaxReached() {
+			return ScenarioExecution.this.counters.hasMaxFailures();
+		}
+		@Override
+		protected void recover(final WebPage currentPage) {
+			refreshBrowser(currentPage);
+		}
+		@Override
+		protected boolean shouldStop(final Description description, final boolean maxReached) {
+			return shouldStopAfterFailure(description, ScenarioExecution.this.stopOnFailure);
+		}
+	});
+	this.retryPolicies.add(new SpotRetryPolicy(this, "retryable", 2, 2, 0, Arrays.asList(RetryableError.class)) {
+		@Override
+		protected boolean canRerun(final WebPage currentPage) {
+			return getBrowser() != null;
+		}
+		@Override
+		protected String getGiveUpMessage(final boolean maxReached) {
+			return maxReached
+				? "Too many retryable errors occurred during test execution, hence give up."
+				: "Unfortunately current test cannot be rerun, hence give up.";
+		}
+		@Override
+		protected boolean isMaxReached() {
+			return ScenarioExecution.this.counters.hasMaxRetriableErrors();
+		}
+		@Override
+		protected void recover(final WebPage currentPage) {
+			println("	Retry " + ScenarioExecution.this.counters.retriables + "/" + ScenarioExecution.this.counters.retriableErrorsThreshold);
+			refreshBrowser(currentPage);
+		}
+		@Override
+		protected boolean shouldStop(final Description description, final boolean maxReached) {
+			return shouldStopAfterFailure(description, ScenarioExecution.this.stopOnFailure || (maxReached && ScenarioExecution.this.counters.hasMaxRetriableFailures()));
+		}
+	});
+	this.retryPolicies.add(new SpotRetryPolicy(this, "multipleElements", 1, 2, 0, Arrays.asList(MultipleElementsFoundError.class)) {
+		@Override
+		protected boolean canRerun(final WebPage currentPage) {
+			return getBrowser() != null;
+		}
+		@Override
+		protected String getGiveUpMessage(final boolean maxReached) {
+			return maxReached ? "Too many multiple elements errors occurred during scenario execution, give up." : null;
+		}
+		@Override
+		protected boolean isMaxReached() {
+			return ScenarioExecution.this.counters.hasMaxMultiples();
+		}
+		@Override
+		protected void recover(final WebPage currentPage) {
+			println("WORKAROUND: Try to run the test again in case this was a transient issue...");
+			println("WORKAROUND: Refresh the browser...");
+			getBrowser().refresh();
+		}
+		@Override
+		protected boolean shouldStop(final Description description, final boolean maxReached) {
+			return shouldStopAfterFailure(description, ScenarioExecution.this.stopOnFailure);
+		}
+	});
+	this.retryPolicies.add(new SpotRetryPolicy(this, "serverMessage", 2, 2, 0, Arrays.asList(ServerMessageError.class)) {
+		@Override
+		protected boolean shouldStop(final Description description, final boolean maxReached) {
+			return shouldStopAfterFailure(description, ScenarioExecution.this.stopOnFailure);
+		}
+	});
+	this.retryPolicies.add(new SpotRetryPolicy(this, "blocking", 2, 2, 0, Arrays.asList(BrowserConnectionError.class, ExistingDataError.class, ScenarioImplementationError.class, ScenarioMissingImplementationError.class)) {
+		@Override
+		protected boolean shouldStop(final Description description, final boolean maxReached) {
+			return true;
+		}
+	});
+	this.retryPolicies.add(new SpotRetryPolicy(this, "browser", 1, 2, 0, Arrays.asList(BrowserError.class)) {
+		@Override
+		protected boolean canRerun(final WebPage currentPage) {
+			return currentPage != null;
+		}
+		@Override
+		protected String getGiveUpMessage(final boolean maxReached) {
+			return "Too many browser errors occurred during scenario execution, give up.";
+		}
+		@Override
+		protected boolean isFatal(final Throwable t) {
+			if (((BrowserError) t).isFatal() || getBrowser() == null) {
+				println("Fatal error while trying to open browser, stop scenario execution!");
+				printException(t);
+				return true;
+			}
+			return false;
+		}
+		@Override
+		protected boolean isMaxReached() {
+			return ScenarioExecution.this.counters.hasMaxBrowserErrors();
+		}
+		@Override
+		protected boolean shouldStop(final Description description, final boolean maxReached) {
+			return true;
+		}
+	});
+	this.retryPolicies.add(new SpotRetryPolicy(this, "error", 2, 2, 0, Arrays.asList(Error.class)) {
+		@Override
+		protected boolean shouldStop(final Description description, final boolean maxReached) {
+			return shouldStopAfterFailure(description, ScenarioExecution.this.stopOnFailure);
+		}
+	});
+	this.retryPolicies.add(new SpotRetryPolicy(this, "exception", 2, 2, 0, Arrays.asList(Exception.class)) {
+		@Override
+		protected boolean shouldStop(final Description description, final boolean maxReached) {
+			return shouldStopAfterFailure(description, ScenarioExecution.this.stopOnException);
+		}
+	});
+}
+
 /**
  * Return whether or not the step is single.
  *
@@ -621,6 +863,34 @@ private void pauseExecution() {
 	}
 }
 
+/*
+ * Print the retry policies metrics.
+ */
+private void printRetryPoliciesMetrics() {
+	boolean first = true;
+	for (SpotRetryPolicy policy: this.retryPolicies) {
+		if (policy.failures > 0) {
+			if (first) {
+				println("	retry policies:");
+				first = false;
+			}
+			println("		- "+policy+": "+policy.failures+" failures, "+policy.retries+" retries (recovery time: "+timeString(policy.recoveryTime)+"), "+policy.giveUps+" give-ups");
+		}
+	}
+}
+
+/*
+ * Refresh the browser before running the test again, hoping that would workaround
+ * the transient issue.
+ */
+private void refreshBrowser(final WebPage currentPage) {
+	println("WORKAROUND: Try to run the test again in case this was a transient issue...");
+	println("	1) Close all other browser windows if necessary...");
+	getBrowser().closeOtherWindows();
+	println("	2) Refresh the browser...");
+	getBrowser().refreshManagingLogin(currentPage);
+}
+
 /*
  * Restart the browser assuming the current session has gone...
  */
@@ -677,14 +947,29 @@ public void runTest(final Statement statement, final Description description) th
 		closeAllBrowsers("CloseBrowsers(CloseBrowsersPolicy.AT_START) annotation on test "+this.testName);
 	}
 
+	// Reopen checkpoint page when resuming
+	SpotScenarioCheckpoint.getInstance().restorePage(this);
+
 	// Run the test for the first time
+	long start = System.currentTimeMillis();
 	try {
 		this.counters.executedTests++;
-		runTest(statement, description, 0);
+		runTestWithRetries(statement, description);
 		this.counters.succeededTests++;
+		SpotTestsHistory.getInstance().record(description, System.currentTimeMillis()-start, /*passed:*/true);
+		SpotScenarioCheckpoint.getInstance().write(this, description, /*passed:*/true);
 	}
 	catch (Throwable t) {
 		this.counters.failedTests++;
+		SpotScenarioCheckpoint.getInstance().write(this, description, /*passed:*/false);
+		if (!(t instanceof SkippedTestError)) {
+			this.counters.realFailedTests++;
+			SpotTestsHistory.getInstance().record(description, System.currentTimeMillis()-start, /*passed:*/false);
+		}
+		if (!this.shouldStop && this.counters.hasMaxFailedTests()) {
+			println("ERROR: "+this.counters.realFailedTests+" tests have failed, scenario execution will be aborted as 'failedTestsThreshold' is set to "+this.counters.failedTestsThreshold+"!");
+			this.shouldStop = true;
+		}
 		throw t;
 	} finally {
 		String closeBrowsersReason = null;
@@ -716,7 +1001,10 @@ public void runTest(final Statement statement, final Description description) th
 	}
 }
 
-private void runTest(final Statement statement, final Description description, final int rerunCount) throws Throwable {
+/*
+ * Run the test until it passes or the retry policy matching its failure gives up.
+ */
+private void runTestWithRetries(final Statement statement, final Description description) throws Throwable {
 
 	// Test whether the test should be skipped due to a previous step blocker test or not
 	if (this.stopStepExecution != null) {
@@ -729,201 +1017,70 @@ private void runTest(final Statement statement, final Description description, f
 		this.stopStepExecution = null;
 	}
 
-	// Run test and take snapshots if a failure or error occurs
-	long start = System.currentTimeMillis();
-	if (this.scenarioStart < 0) {
-		this.scenarioStart = start;
-	}
+	// Run test until it passes or its failure cannot be recovered
 	boolean isNotRerunnable = description.getAnnotation(NotRerunnable.class) != null;
-	try {
-		statement.evaluate();
-		// At this point, the test passed.
-
-		// Individual tests may be annotated to check server speed.
-		CheckServerSpeed annotation = description.getAnnotation(CheckServerSpeed.class);
-		if (annotation != null) {
-			checkServerSpeed(start, annotation.value());
+	for (int attempt=1; ; attempt++) {
+		long start = System.currentTimeMillis();
+		if (this.scenarioStart < 0) {
+			this.scenarioStart = start;
 		}
+		try {
+			statement.evaluate();
+			// At this point, the test passed.
 
-		println("	  -> OK (in "+elapsedTimeString(start)+")");
-		pauseExecution();
-	}
-	catch (UnhandledAlertException uae) {
-		handleAlert(description, uae);
-		runTest(statement, description, rerunCount+1);
-	}
-	catch (SessionNotCreatedException scne) {
-		manageFailure(start, scne, /*isNotRerunnable:*/true, /*snapshotLevel:*/2);
-		this.shouldStop = true;
-		throw scne;
-	}
-	catch (UnreachableBrowserException ube) {
+			// Individual tests may be annotated to check server speed.
+			CheckServerSpeed annotation = description.getAnnotation(CheckServerSpeed.class);
+			if (annotation != null) {
+				checkServerSpeed(start, annotation.value());
+			}
 
-		// Manage failure
-		WebPage currentPage = getCurrentPage();
-		manageFailure(start, ube, isNotRerunnable || currentPage == null, /*snapshotLevel:*/-1);
-		if (this.counters.hasMaxBrowserErrors() || currentPage == null || isNotRerunnable) {
-			println("		  -> The browser seems to have a problem which cannot be workarounded by just a restart, give up!");
-			this.shouldStop = true;
-			throw ube;
+			println("	  -> OK (in "+elapsedTimeString(start)+")");
+			pauseExecution();
+			break;
 		}
-		// Restart the browser on the current page
-		restartBrowser(currentPage);
-		// Re-run the test
-		println("		  -> Re-run the test...");
-		runTest(statement, description, rerunCount+1);
-	}
-	catch (WebDriverException wde) {
-		String message = wde.getMessage();
-		if (message.matches(JAVASCRIPT_ERROR_ALERT_PATTERN)) {
-			handleAlert(description, wde);
-		} else if (message.startsWith("Failed to connect to binary FirefoxBinary") || message.startsWith("chrome not reachable")) {
-			WebPage currentPage = getCurrentPage();
-			manageFailure(start, wde, isNotRerunnable || currentPage == null, /*snapshotLevel:*/-1);
-			if (this.counters.hasMaxBrowserErrors() || currentPage == null || isNotRerunnable) {
-				println("		  -> The browser seems to have a problem which cannot be workarounded by just a restart, give up!");
+		catch (Throwable t) {
+			SpotRetryPolicy policy = getRetryPolicy(t);
+			if (policy == null) {
+				throw t;
+			}
+			policy.failures++;
+			if (policy.isFatal(t)) {
+				policy.giveUps++;
 				this.shouldStop = true;
-				throw wde;
+				throw t;
 			}
-			// Restart the browser on the current page
-			sleep(2);
-			restartBrowser(currentPage);
-		} else {
+
+			// Manage the failure
 			WebPage currentPage = getCurrentPage();
-			boolean shouldFail = this.counters.hasMaxFailures() || isNotRerunnable || getBrowser() == null;
-			manageFailure(start, wde, isNotRerunnable || getBrowser() == null, /*snapshotLevel:*/shouldFail ? 2 : 1);
-			if (shouldFail) {
-				this.shouldStop = this.stopOnFailure || this.mandatoryTests.contains(description) || getBrowser() == null;
+			boolean maxReached = policy.isMaxReached();
+			boolean cannotRerun = isNotRerunnable || !policy.canRerun(currentPage);
+			boolean giveUp = maxReached || cannotRerun;
+			policy.manageFailure(start, t, cannotRerun, giveUp ? policy.failureSnapshotLevel : policy.retrySnapshotLevel);
+
+			// Give up if the test cannot be run again
+			if (giveUp) {
+				policy.giveUps++;
+				String message = policy.getGiveUpMessage(maxReached);
+				if (message != null) {
+					println(message);
+				}
+				this.shouldStop = policy.shouldStop(description, maxReached);
 				if (!this.shouldStop && description.getAnnotation(StepBlocker.class) != null) {
 					this.stopStepExecution = this.stepName;
 				}
-				throw wde;
-			}
-			println("WORKAROUND: Try to run the test again in case this was a transient issue...");
-			// Refresh browser in case that can help...
-			println("	1) Close all other browser windows if necessary...");
-			getBrowser().closeOtherWindows();
-			println("	2) Refresh the browser...");
-			getBrowser().refreshManagingLogin(currentPage);
-		}
-		// Re-run the test
-		println("	3) Re-run the test...");
-		runTest(statement, description, rerunCount+1);
-	}
-	catch (RetryableError pte) {
-		WebPage currentPage = getCurrentPage();
-		boolean cannotRerun = isNotRerunnable || getBrowser() == null;
-		boolean shouldFail = this.counters.hasMaxRetriableErrors();
-		int snapshotLevel = (shouldFail || !cannotRerun) ? 2 : 1;
-		manageFailure(start, pte, cannotRerun, snapshotLevel);
-		if (shouldFail) {
-			println("Too many retryable errors occurred during test execution, hence give up.");
-			this.shouldStop = this.stopOnFailure || this.mandatoryTests.contains(description) || this.counters.hasMaxRetriableFailures();
-			if (!this.shouldStop && description.getAnnotation(StepBlocker.class) != null) {
-				this.stopStepExecution = this.stepName;
-			}
-			throw pte;
-		}
-		if (cannotRerun) {
-			println("Unfortunately current test cannot be rerun, hence give up.");
-			this.shouldStop = this.stopOnFailure || this.mandatoryTests.contains(description) || getBrowser() == null;
-			if (!this.shouldStop && description.getAnnotation(StepBlocker.class) != null) {
-				this.stopStepExecution = this.stepName;
+				throw t;
 			}
-			throw pte;
-		}
-		println("WORKAROUND: Try to run the test again in case this was a transient issue...");
-		// Refresh browser in case that can help...
-		println("	1) Close all other browser windows if necessary...");
-		getBrowser().closeOtherWindows();
-		println("	2) Refresh the browser...");
-		getBrowser().refreshManagingLogin(currentPage);
-		// Re-run the test
-		println("	3) Re-run the test (retry " + this.counters.retriables + "/" + this.counters.retriableErrorsThreshold +  ") ...");
-		runTest(statement, description, rerunCount+1);
-	}
-	catch (MultipleElementsFoundError mvee) {
-		boolean shouldFail = this.counters.hasMaxMultiples() || isNotRerunnable;
-		manageFailure(start, mvee, isNotRerunnable || getBrowser() == null, /*snapshotLevel:*/shouldFail ? 2 : 1);
-		if (shouldFail) {
-			println("Too many multiple elements errors occurred during scenario execution, give up.");
-			this.shouldStop = this.stopOnFailure || this.mandatoryTests.contains(description) || getBrowser() == null;
-			if (!this.shouldStop && description.getAnnotation(StepBlocker.class) != null) {
-				this.stopStepExecution = this.stepName;
+
+			// Recover before running the test again
+			if (policy.backoff > 0) {
+				pause(policy.backoff);
 			}
-			throw mvee;
-		}
-		println("WORKAROUND: Try to run the test again in case this was a transient issue...");
-		// Refresh browser in case that can help...
-		println("WORKAROUND: Refresh the browser...");
-		getBrowser().refresh();
-		// Re-run the test
-		println("		  -> Re-run the test...");
-		runTest(statement, description, rerunCount+1);
-	}
-	catch (ServerMessageError sme) {
-		manageFailure(start, sme, /*isNotRerunnable:*/true, /*snapshotLevel:*/2);
-		this.shouldStop = this.stopOnFailure || this.mandatoryTests.contains(description) || getBrowser() == null;
-		if (!this.shouldStop && description.getAnnotation(StepBlocker.class) != null) {
-			this.stopStepExecution = this.stepName;
-		}
-		throw sme;
-	}
-	catch (BrowserConnectionError | ExistingDataError | ScenarioImplementationError | ScenarioMissingImplementationError ex) {
-		manageFailure(start, ex, /*isNotRerunnable:*/true, /*snapshotLevel:*/2);
-		this.shouldStop = true;
-		throw ex;
-	}
-	catch (BrowserError be) {
-		if (be.isFatal() || getBrowser() == null) {
-			println("Fatal error while trying to open browser, stop scenario execution!");
-			printException(be);
-			this.shouldStop = true;
-			throw be;
+			long recoveryStart = System.currentTimeMillis();
+			policy.recover(currentPage);
+			policy.recoveryTime += System.currentTimeMillis() - recoveryStart;
+			policy.retries++;
+			println("		  -> Re-run the test (attempt "+(attempt+1)+", '"+policy+"' retry policy)...");
 		}
-		WebPage currentPage = getCurrentPage();
-		boolean shouldFail = this.counters.hasMaxBrowserErrors() || currentPage == null || isNotRerunnable;
-		manageFailure(start, be, isNotRerunnable || currentPage == null, /*snapshotLevel:*/shouldFail ? 2 : 1);
-		if (shouldFail) {
-			println("Too many browser errors occurred during scenario execution, give up.");
-			this.shouldStop = true;
-			throw be;
-		}
-		// Restart the browser on the current page
-		if (be instanceof BrowserConnectionError) {
-			restartBrowser(currentPage);
-		}
-		// Re-run the test
-		println("		  -> Re-run the test...");
-		runTest(statement, description, rerunCount+1);
-	}
-	catch (Error err) {
-		// Basic failure management for any kind of other error (including ScenarioFailedError)
-		manageFailure(start, err, /*isNotRerunnable:*/true, /*snapshotLevel:*/2);
-		boolean mandatoryTest = this.mandatoryTests.contains(description);
-		this.shouldStop = this.stopOnFailure || mandatoryTest || getBrowser() == null;
-		if (this.shouldStop) {
-			String reason = getShouldStopReason(mandatoryTest);
-			println("ERROR: Unexpected error encountered while running current test, scenario execution will be aborted as "+reason+"!");
-		}
-		else if (description.getAnnotation(StepBlocker.class) != null) {
-			this.stopStepExecution = this.stepName;
-		}
-		throw err;
-	}
-	catch (Exception ex) {
-		// Basic exception management
-		manageFailure(start, ex, /*isNotRerunnable:*/true, /*snapshotLevel:*/2);
-		boolean mandatoryTest = this.mandatoryTests.contains(description);
-		this.shouldStop = this.stopOnException || mandatoryTest || getBrowser() == null;
-		if (this.shouldStop) {
-			String reason = getShouldStopReason(mandatoryTest);
-			println("ERROR: Unexpected exception encountered while running current test, scenario execution will be aborted because "+reason+"!");
-		}
-		else if (description.getAnnotation(StepBlocker.class) != null) {
-			this.stopStepExecution = this.stepName;
-		}
-		throw ex;
 	}
 
 	// Send execution message
@@ -979,6 +1136,18 @@ public boolean shouldStop() {
 	return false;
 }
 
+/*
+ * Tells whether the scenario execution has to stop after the given test failure.
+ */
+private boolean shouldStopAfterFailure(final Description description, final boolean stopFlag) {
+	boolean mandatoryTest = this.mandatoryTests.contains(description);
+	boolean stop = stopFlag || mandatoryTest || getBrowser() == null;
+	if (stop) {
+		println("ERROR: Unexpected failure encountered while running current test, scenario execution will be aborted as "+getShouldStopReason(mandatoryTest)+"!");
+	}
+	return stop;
+}
+
 /**
  * Show some general information in the console.
  * <p>
@@ -1009,6 +1178,9 @@ public void shutdown() {
 		}
 		else if (this.counters.hasMaxRetriableFailures()) {
 			println("Scenario execution has been stopped due to too many retriable errors failures!");
+		}
+		else if (this.counters.hasMaxFailedTests()) {
+			println("Scenario execution has been stopped due to too many failed tests (failedTestsThreshold="+this.counters.failedTestsThreshold+")!");
 		} else {
 			boolean mandatoryTest = false;
 			for (Description description: this.mandatoryTests) {
@@ -1025,7 +1197,7 @@ public void shutdown() {
 	}
 
 	// Manage synchronization during shutdown
-	if (this.canSynchronize) {
+	if (this.canSynchronize != null && this.canSynchronize.booleanValue()) {
 		if (this.synchroMaster) {
 			// If scenario is synchronization master, then wait for all dependent running scenarios to shutdown
 			// First get list of synchronized scenarios
@@ -1038,32 +1210,21 @@ public void shutdown() {
 			} else {
 				// Second wait for all synchronized to be finish before ending the process (as it owns the broker necessary to send and receive messages...)
 				synchroWaitForOtherRunningScenariosShutdown(spotSynchScenarios.split(", "));
-
-				// Broker cleanup
-				try {
-					this.brokerService.stop();
-					File mqDataDir = getDir("activemq-data");
-					if (mqDataDir.exists()) {
-						rmdir(mqDataDir);
-					}
-				}
-				catch (Exception ex) {
-					debugPrintln("Following Exception occurred while cleaning MQ data directory:");
-					debugPrintException(ex);
-					debugPrintln("-> Skip it and continue assuming that it would be OK...");
-				}
 			}
 		} else {
 			// Send message into shutdown queue in order to let master know that the scenario has finished
 			try {
-				synchroSendMessageToQueue(this.scenarioQueue, this.scenarioClass);
-			} catch (JMSException jmse) {
+				synchroSendMessageToQueue(SHUTDOWN_QUEUE, this.scenarioClass);
+			} catch (ScenarioSynchronizationError sse) {
 				println();
 				println("WARNING: Following exception was caught during scenario execution shutdown:");
-				printException(jmse);
+				printException(sse);
 				println("That means synchronized scenarios execution will surely be broken!");
 			}
 		}
+
+		// Transport cleanup
+		this.synchroTransport.close();
 	}
 
 	// Print scenario global execution time
@@ -1073,6 +1234,15 @@ public void shutdown() {
 
 	// Print counters
 	this.counters.printExecutionResults();
+	printRetryPoliciesMetrics();
+
+	// Save tests history
+	SpotTestsHistory.getInstance().save();
+
+	// Remove checkpoint when the execution was not interrupted
+	if (!this.shouldStop) {
+		SpotScenarioCheckpoint.getInstance().delete();
+	}
 
 	// Log properties
 	SCENARIO_PROPERTIES.log();
@@ -1109,11 +1279,10 @@ public void shutdown() {
  * Note that this is a no-op if no test has to be synchronized or test has no {@link DependsOn} annotation.
  * </p>
  * @param description Test description
- * @throws JMSException On any queue and/or message issue
- * @throws NamingException On any context naming issue
+ * @throws ScenarioSynchronizationError On any transport issue
  * @throws ScenarioFailedError If one of received message does not match a blocker test
  */
-private void synchroCheckTestDependencies(final Description description) throws JMSException, NamingException, ScenarioFailedError {
+private void synchroCheckTestDependencies(final Description description) throws ScenarioSynchronizationError, ScenarioFailedError {
 	if (!this.shouldSynchronize) return; // avoid polluting the log when nothing has to be synchronized
 	debugPrintEnteringMethod("description", description);
 	DependsOn dependsOn = description.getAnnotation(DependsOn.class);
@@ -1121,12 +1290,12 @@ private void synchroCheckTestDependencies(final Description description) throws
 		debugPrintln("		  -> found DependsOn annotation");
 		try {
 			long start = System.currentTimeMillis();
-			SpotDependsOnTimeout timeout = new SpotDependsOnTimeout(description, this.namingContext, this.queueSession, dependsOn);
+			SpotDependsOnTimeout timeout = new SpotDependsOnTimeout(description, dependsOn);
 			timeout.waitWhile(dependsOn.timeout());
 			println("		+ INFO: all messages received after "+timeString(System.currentTimeMillis()-start));
 		}
 		catch (ScenarioSynchronizationError sse) {
-			if (sse.getMessage().endsWith("The Session is closed")) {
+			if (sse.getMessage() != null && sse.getMessage().endsWith("The Session is closed")) {
 				debugPrintln("		  -> Queue session is closed, assuming that blocker has sent the message.");
 			} else {
 				throw sse;
@@ -1138,52 +1307,47 @@ private void synchroCheckTestDependencies(final Description description) throws
 /**
  * Initialize scenario synchronization mechanism.
  * <p>
+ * The transport used to exchange messages between scenarios is selected using
+ * {@link #SPOT_SYNCHRO_TRANSPORT} property:
+ * <ul>
+ * <li><code>file</code> (default): lightweight mailbox in a directory shared by scenarios
+ * running on the same host (see {@link SpotFileSynchroTransport})</li>
+ * <li><code>activemq</code>: ActiveMQ broker embedded in master scenario and reached at
+ * {@link #SPOT_SYNCHRO_ACTIVEMQ_URL} which must be specified as there's no default value
+ * (see {@link SpotActiveMQSynchroTransport})</li>
+ * </ul>
+ * </p><p>
  * This initialization is skipped if {@link #SPOT_SYNCHRO} property is set to <code>false</code>
  * </p>
  */
 private boolean synchroInitialize() {
-	try {
-		// Create broker
-		this.brokerService = new BrokerService();
-		this.brokerService.addConnector("tcp://localhost:61616");
-		this.brokerService.start();
-		this.synchroMaster = true;
-	}
-	catch (IOException ioe) {
-		if (!ioe.getCause().getMessage().equals("Address already in use: JVM_Bind")) {
-			debugPrintln("Disable scenarios synchronization due to following exception:");
-			debugPrintException(ioe);
+	String transportKind = getParameterValue(SPOT_SYNCHRO_TRANSPORT, "file");
+	switch (transportKind) {
+		case "file":
+			File synchroDir = new File(getParameterValue(SPOT_SYNCHRO_DIR, System.getProperty("java.io.tmpdir")+File.separator+"spot-synchro"));
+			this.synchroTransport = new SpotFileSynchroTransport(synchroDir, getParameterValue(SPOT_SYNCHRO_GROUP, "default"));
+			break;
+		case "activemq":
+			String brokerUrl = getParameterValue(SPOT_SYNCHRO_ACTIVEMQ_URL);
+			if (brokerUrl == null) {
+				println("WARNING: Property '"+SPOT_SYNCHRO_ACTIVEMQ_URL+"' must be specified when using ActiveMQ transport, hence scenarios synchronization is disabled.");
+				return false;
+			}
+			this.synchroTransport = new SpotActiveMQSynchroTransport(brokerUrl);
+			break;
+		default:
+			println("WARNING: Unknown synchronization transport '"+transportKind+"', hence scenarios synchronization is disabled.");
 			return false;
-		}
-	}
-	catch (Exception ex) {
-		debugPrintln("Disable scenarios synchronization due to following exception:");
-		debugPrintException(ex);
-		return false;
 	}
-
-	// Create JMS objects
 	try {
-		Properties props = new Properties();
-		props.setProperty(INITIAL_CONTEXT_FACTORY, "org.apache.activemq.jndi.ActiveMQInitialContextFactory");
-		props.setProperty(PROVIDER_URL, "tcp://localhost:61616");
-		this.namingContext = new InitialContext(props);
-		debugPrintln("Creating JMS objects:");
-		debugPrintln("	- lookup conection factory...");
-		QueueConnectionFactory connectionFactory = (QueueConnectionFactory)this.namingContext.lookup("QueueConnectionFactory");
-		debugPrintln("	- queue connection...");
-		QueueConnection queueConnection = connectionFactory.createQueueConnection();
-		debugPrintln("	- start connection...");
-		queueConnection.start();
-		debugPrintln("	- queue session...");
-		this.queueSession = queueConnection.createQueueSession(false, Session.AUTO_ACKNOWLEDGE);
-		debugPrintln("	- shutdown queue...");
-		this.scenarioQueue = (Queue) this.namingContext.lookup(DYNAMIC_QUEUES_SHUTDOWN);
-		debugPrintln("=> creation finished.");
+		this.synchroTransport.open();
+		this.synchroMaster = this.synchroTransport.isMaster();
+		debugPrintln("Synchronization initialized using "+this.synchroTransport);
 	}
-	catch (Exception ex) {
+	catch (ScenarioSynchronizationError sse) {
 		debugPrintln("Disable scenarios synchronization due to following exception:");
-		debugPrintException(ex);
+		debugPrintException(sse);
+		this.synchroTransport.close();
 		return false;
 	}
 	return true;
@@ -1192,36 +1356,15 @@ private boolean synchroInitialize() {
 /**
  * Send a text message to given queue.
  *
- * @param queue The queue to send message
- * @param text The message text
- * @throws JMSException Raise exception if problem occurs with queue
- */
-private void synchroSendMessageToQueue(final Queue queue, final String text) throws JMSException {
-	synchroSendMessageToQueue(queue, null, null, text);
-}
-
-/**
- * Send a text message to given queue with a key property value.
- *
- * @param queue The queue to send message
- * @param key The property key. If <code>null</code> then no property is sent.
- * @param value The property value
+ * @param queueName The queue name to send message
  * @param text The message text
- * @throws JMSException Raise exception if problem occurs with queue
+ * @throws ScenarioSynchronizationError Raise exception if problem occurs with transport
  */
-private void synchroSendMessageToQueue(final Queue queue, final String key, final String value, final String text) throws JMSException {
-	TextMessage message = this.queueSession.createTextMessage();
-	message.setText(text);
-	if (key != null) {
-		message.setStringProperty(key, value);
-	}
+private void synchroSendMessageToQueue(final String queueName, final String text) throws ScenarioSynchronizationError {
 	println("		+ INFO: Following messages have been sent:");
-	println("			* queue: "+queue.getQueueName());
+	println("			* queue: "+queueName);
 	println("			* text: "+text);
-	if (key != null) {
-		println("			* property: "+key+"="+value);
-	}
-	this.queueSession.createProducer(queue).send(message);
+	this.synchroTransport.send(queueName, text);
 }
 
 /**
@@ -1232,27 +1375,18 @@ private void synchroSendMessageToQueue(final Queue queue, final String key, fina
  * Note that this is a no-op if no test has to be synchronized or test has no {@link Blocks} annotation.
  * </p>
  * @param description Test description
- * @throws JMSException On any queue and/or message issue
- * @throws NamingException On any context naming issue
+ * @throws ScenarioSynchronizationError On any transport issue
  */
-private void synchroSendTestExecutionMessage(final Description description) throws JMSException, NamingException {
-	if (!this.testSynchronization) return; // avoid polluting the log when nothing has to be synchronized
+private void synchroSendTestExecutionMessage(final Description description) throws ScenarioSynchronizationError {
+	if (!this.testSynchronization || !canSynchronize()) return; // avoid polluting the log when nothing has to be synchronized
 	debugPrintEnteringMethod("description", description);
-	List<Queue> queues = new ArrayList<>();
 	debugPrintln("		  -> Looking for blocked tests:");
 	Blocks blocks = description.getAnnotation(Blocks.class);
 	if (blocks != null) {
 		debugPrintln("			- found Blocks annotation");
+		String testReference = getClassSimpleName(description.getClassName())+"."+description.getMethodName();
 		for (String queueName: blocks.value()) {
-			debugPrintln("			  + create '"+queueName+"' queue...");
-			Queue queue = (Queue) this.namingContext.lookup("dynamicQueues/"+queueName);
-			queues.add(queue);
-		}
-	}
-	if (!queues.isEmpty()) {
-		for (Queue queue: queues) {
-			String testReference = getClassSimpleName(description.getClassName())+"."+description.getMethodName();
-			synchroSendMessageToQueue(queue, "test", testReference, "Executed");
+			synchroSendMessageToQueue(queueName, testReference);
 		}
 	}
 }
@@ -1266,20 +1400,17 @@ private void synchroSendTestExecutionMessage(final Description description) thro
 private void synchroWaitForOtherRunningScenariosShutdown(final String[] runningScenarios) {
 	List<String> shutdownScenarios = getListFromArray(runningScenarios);
 	try {
-		debugPrintln("	- create message consumer ...");
-		MessageConsumer messageConsumer = this.queueSession.createConsumer(this.scenarioQueue);
 		final int shutdownTimeout = getParameterIntValue(SPOT_SYNCHRO_SHUTDOWN_TIMEOUT, 60);
 		long timeout = shutdownTimeout * 60000L; // Default timeout is 60 minutes
-		println("		+ INFO: Wait for shutdown messages ("+getTextFromList(runningScenarios)+") to arrive in queue '"+this.scenarioQueue.getQueueName()+"' (timeout="+shutdownTimeout+" minutes)...");
+		println("		+ INFO: Wait for shutdown messages ("+getTextFromList(runningScenarios)+") to arrive in queue '"+SHUTDOWN_QUEUE+"' (timeout="+shutdownTimeout+" minutes)...");
 		long start = System.currentTimeMillis();
 		while (shutdownScenarios.size() > 0) {
-			TextMessage message = (TextMessage) messageConsumer.receive(timeout);
-			if (message == null) {
+			String text = this.synchroTransport.receive(SHUTDOWN_QUEUE, Math.max(0, start + timeout - System.currentTimeMillis()));
+			if (text == null) {
 				println("WARNING: Timeout has expired and NO message was received from following scenarios: "+getTextFromList(shutdownScenarios));
 				println("Hence, there's no insurance that synchronized scenarios execution has worked properly...");
 				return;
 			}
-			String text = message.getText();
 			println("			* received: "+text);
 			if (!shutdownScenarios.remove(text)) {
 				println("WARNING: Scenario '"+text+"' was NOT declared as synchronized with current scenario '"+this.scenarioClass+"', but a shutdown message was received from it!");
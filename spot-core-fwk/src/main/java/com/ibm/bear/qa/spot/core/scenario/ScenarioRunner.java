@@ -22,12 +22,14 @@ import org.junit.internal.runners.ErrorReportingRunner;
 import org.junit.runner.Description;
 import org.junit.runner.Runner;
 import org.junit.runner.manipulation.Filter;
+import org.junit.runner.manipulation.InvalidOrderingException;
 import org.junit.runner.manipulation.NoTestsRemainException;
 import org.junit.runner.notification.RunNotifier;
 import org.junit.runners.Suite;
 import org.junit.runners.model.InitializationError;
 import org.junit.runners.model.RunnerBuilder;
 
+import com.ibm.bear.qa.spot.core.performance.PerfReport;
 import com.ibm.bear.qa.spot.core.scenario.errors.ScenarioFailedError;
 import com.ibm.bear.qa.spot.core.scenario.errors.ScenarioSynchronizationError;
 import com.ibm.bear.qa.spot.core.utils.DependsOn;
@@ -72,11 +74,13 @@ public abstract class ScenarioRunner extends Suite {
 	protected final List<Description> filteredTests = new ArrayList<Description>();
 	protected Description firstStep = null, lastStep = null;
 	protected Description firstTest = null, lastTest = null;
+	private final Map<Description, Boolean> decisions = new HashMap<>();
 
 public ScenarioRunner(final Class< ? > klass, final RunnerBuilder builder) throws InitializationError {
 	super(klass, builder);
 
 	// Start execution
+	SpotStartupPhases.Phase phase = SpotStartupPhases.begin("scenario execution creation");
 	try {
 		startExecution();
 	}
@@ -84,6 +88,9 @@ public ScenarioRunner(final Class< ? > klass, final RunnerBuilder builder) throw
 		printException(t);
 		throw new ScenarioFailedError(t);
 	}
+	finally {
+		phase.end();
+	}
 
 	// Store scenario class
 	getScenarioExecution().scenarioClass = getClassSimpleName(klass);
@@ -132,12 +139,30 @@ public ScenarioRunner(final Class< ? > klass, final RunnerBuilder builder) throw
 	this.scenarioExecution.setTestCount(testCount());
 
 	// Filter steps and tests
+	phase = SpotStartupPhases.begin("steps and tests filtering");
 	try {
 		filter(filter);
 	} catch (NoTestsRemainException ntre) {
 		printException(ntre);
 		throw new ScenarioFailedError(ntre);
 	}
+	finally {
+		phase.end();
+	}
+
+	// Order steps and tests using their execution history
+	if (SpotTestsHistory.getInstance().isEnabled()) {
+		try {
+			SpotTestsHistory.getInstance().getOrdering().apply(this);
+		}
+		catch (InvalidOrderingException ioe) {
+			println("WARNING: cannot order steps and tests using their execution history: "+ioe.getMessage());
+		}
+	}
+
+	// Report startup phases and execution plan
+	SpotStartupPhases.print();
+	printExecutionPlan();
 }
 
 /**
@@ -154,6 +179,31 @@ public ScenarioExecution getScenarioExecution() {
 	return this.scenarioExecution;
 }
 
+/*
+ * Print the steps and tests which will be run by the scenario.
+ *
+ * The plan is printed in the console when "spot.print.plan" property is set
+ * to true, only in the debug log otherwise.
+ */
+private void printExecutionPlan() {
+	StringBuilder builder = new StringBuilder();
+	int stepsCount = 0, testsCount = 0;
+	for (Description stepDescription: getDescription().getChildren()) {
+		stepsCount++;
+		builder.append("\t- ").append(getClassSimpleName(stepDescription.getClassName())).append(LINE_SEPARATOR);
+		for (Description testDescription: stepDescription.getChildren()) {
+			testsCount++;
+			builder.append("\t\t+ ").append(testDescription.getMethodName()).append(LINE_SEPARATOR);
+		}
+	}
+	builder.insert(0, "Scenario execution plan ("+stepsCount+" steps, "+testsCount+" tests):"+LINE_SEPARATOR);
+	if (getParameterBooleanValue("spot.print.plan")) {
+		print(builder.toString());
+	} else {
+		debugPrint(builder.toString());
+	}
+}
+
 /**
  * {@inheritDoc}
  * <p>
@@ -180,8 +230,9 @@ public void run(final RunNotifier notifier) {
 		stepRunner.setScenarioExecution(stepScenarioExecution);
 	}
 
-	// Check synchronization
-	if (this.scenarioExecution.shouldSynchronize && !this.scenarioExecution.canSynchronize) {
+	// Check synchronization when some tests depend on it (initializing it only in that case,
+	// otherwise initialization is left to the first synchronized test)
+	if (this.scenarioExecution.shouldSynchronize && !this.scenarioExecution.canSynchronize()) {
 		throw new ScenarioSynchronizationError("Scenario should use synchronization but that could not be activated, hence stop execution.");
 	}
 
@@ -191,6 +242,9 @@ public void run(final RunNotifier notifier) {
 		super.run(notifier);
 	}
 
+	// Write performance measurements aggregated over all loops and browsers
+	PerfReport.getInstance().write();
+
 	// End execution
 	endExecution();
 }
@@ -282,8 +336,32 @@ protected boolean stepShouldRun(final Description classDescription) {
 
 /*
  * Check whether the given class or method description should run or not.
+ *
+ * The decision is computed only once per description, hence further checks
+ * (e.g. by JUnit filtering or while printing the execution plan) do not depend
+ * on the steps and tests order.
  */
 boolean shouldRun(final Description description) {
+	Boolean decision = this.decisions.get(description);
+	if (decision == null) {
+		this.decisions.put(description, decision = Boolean.valueOf(computeShouldRun(description)));
+	}
+	return decision.booleanValue();
+}
+
+/*
+ * Compute whether the given class or method description should run or not.
+ */
+private boolean computeShouldRun(final Description description) {
+	if (SpotScenarioCheckpoint.getInstance().isExecuted(description)) {
+		println("Filtering "+description+" as it was already executed before the resumed checkpoint");
+		if (description.getMethodName() == null) {
+			this.filteredSteps.add(description);
+		} else {
+			this.filteredTests.add(description);
+		}
+		return false;
+	}
 	if (description.getMethodName() == null) {
 		// Class description
 		if (stepShouldRun(description)) {
@@ -214,8 +214,11 @@ public class ScenarioUtils {
 	static final ScenarioParametersManager PARAMETERS_MANAGER;
 	static {
 		// Initialize debug
+		SpotStartupPhases.Phase debugPhase = SpotStartupPhases.begin("debug streams opening");
 		debugOpen();
+		debugPhase.end();
 
+		SpotStartupPhases.Phase parametersPhase = SpotStartupPhases.begin("parameters files loading");
 		try {
 			// Get files pathes
 			String filesPath = System.getProperty(PARAM_FILES_PATH_ID);
@@ -237,6 +240,9 @@ public class ScenarioUtils {
 			debugClose();
 			throw th;
 		}
+		finally {
+			parametersPhase.end();
+		}
 	}
 
 	/**
@@ -703,9 +709,7 @@ public static boolean getParameterBooleanValue(final String name) {
  * property or the default value if it is not defined.
  */
 public static boolean getParameterBooleanValue(final String name, final boolean defaultValue) {
-	String parameterValue = getParameterValue(name);
-	if (parameterValue == null) return defaultValue;
-	return parameterValue.equals("true");
+	return getProperty(name, null).getBooleanValue(defaultValue);
 }
 
 /**
@@ -732,17 +736,7 @@ public static double getParameterDoubleValue(final String name) {
  * property does not define a valid double.
  */
 public static double getParameterDoubleValue(final String name, final double defaultValue) {
-	String parameterValue = getParameterValue(name);
-	if (parameterValue == null || parameterValue.trim().isEmpty()) return defaultValue;
-	try {
-		return Double.parseDouble(parameterValue);
-	}
-	catch (NumberFormatException nfe) {
-		// if property is not a valid integer value, then keep the default value
-		System.err.println("The specified value for parameter '"+name+"' is not a valid double! ("+nfe.getMessage()+")");
-		System.err.println(defaultValue+" default value will be used instead...");
-	}
-	return defaultValue;
+	return getProperty(name, null).getDoubleValue(defaultValue);
 }
 
 /**
@@ -770,17 +764,7 @@ public static int getParameterIntValue(final String name) {
  * property does not define a valid integer.
  */
 public static int getParameterIntValue(final String name, final int defaultValue) {
-	String parameterValue = getParameterValue(name);
-	if (parameterValue == null || parameterValue.trim().isEmpty()) return defaultValue;
-	try {
-		return Integer.parseInt(parameterValue);
-	}
-	catch (NumberFormatException nfe) {
-		// if property is not a valid integer value, then keep the default value
-		System.err.println("The specified value for parameter '"+name+"' is not a valid integer! ("+nfe.getMessage()+")");
-		System.err.println(defaultValue+" default value will be used instead...");
-	}
-	return defaultValue;
+	return getProperty(name, null).getIntValue(defaultValue);
 }
 
 /**
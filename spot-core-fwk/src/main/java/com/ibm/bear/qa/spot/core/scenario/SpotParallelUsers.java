@@ -0,0 +1,243 @@
+/*********************************************************************
+* Copyright (c) 2012, 2024 IBM Corporation and others.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+**********************************************************************/
+package com.ibm.bear.qa.spot.core.scenario;
+
+import static com.ibm.bear.qa.spot.core.scenario.ScenarioUtils.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import com.ibm.bear.qa.spot.core.browser.BrowsersManager;
+import com.ibm.bear.qa.spot.core.config.Timeouts;
+import com.ibm.bear.qa.spot.core.config.User;
+import com.ibm.bear.qa.spot.core.scenario.errors.ScenarioFailedError;
+
+/**
+ * Class to run actions of several users concurrently, each user acting on its own browser.
+ * <p>
+ * Steps interacting as several users usually switch the current browser from one
+ * user to another, hence actions are done serially. This class allows a step to run
+ * one action block per user at the same time (e.g. several users opening the same
+ * artifact simultaneously):
+ * <pre>
+ * Map&lt;User, Object&gt; results = new SpotParallelUsers()
+ *     .add(user1, barrier -> {
+ *         ArtifactPage page = openArtifact(user1);
+ *         barrier.await("opened");
+ *         return page.save();
+ *     })
+ *     .add(user2, barrier -> {
+ *         ArtifactPage page = openArtifact(user2);
+ *         barrier.await("opened");
+ *         return page.getTitle();
+ *     })
+ *     .run();
+ * </pre>
+ * </p><p>
+ * Each action is run in its own thread which is bound to the user browser (see
+ * {@link BrowsersManager#bindThread(User)}), so pages opened by an action use that
+ * browser. Browsers are opened before actions start, a browser shared with another
+ * user is replaced by a new one dedicated to the user.
+ * </p><p>
+ * Actions can synchronize with each other through the given {@link Barrier}: each
+ * action waiting at a barrier point is blocked until all actions reach it. When an
+ * action fails, the barrier is broken to avoid other actions waiting forever.
+ * Failures of all actions are collected and reported in a single error.
+ * </p><p>
+ * Default timeout to wait at a barrier or for actions end can be changed with
+ * <code>"parallel.users.timeout"</code> parameter (in seconds).
+ * </p><p>
+ * This class defines following public API methods:
+ * <ul>
+ * <li>{@link #add(User,Action)}: Add an action to run for the given user.</li>
+ * <li>{@link #run()}: Run all actions concurrently and return their results.</li>
+ * <li>{@link #setTimeout(int)}: Set the timeout to wait at a barrier point or for actions end.</li>
+ * </ul>
+ * </p>
+ */
+public class SpotParallelUsers {
+
+	/* Constants */
+	private static final int DEFAULT_TIMEOUT = getParameterIntValue("parallel.users.timeout", Timeouts.DEFAULT_TIMEOUT);
+
+	/**
+	 * Action run by a user on its own browser.
+	 *
+	 * @param <T> The type of the action result
+	 */
+	@FunctionalInterface
+	public interface Action<T> {
+		/**
+		 * Run the user action.
+		 *
+		 * @param barrier The barrier shared by all actions
+		 * @return The action result, might be <code>null</code>
+		 * @throws Exception If the action fails for any reason
+		 */
+		T run(Barrier barrier) throws Exception;
+	}
+
+	/**
+	 * Barrier shared by all user actions to synchronize them.
+	 */
+	public class Barrier {
+		private final CyclicBarrier cyclicBarrier;
+
+		Barrier(final int parties) {
+			this.cyclicBarrier = new CyclicBarrier(parties);
+		}
+
+		/**
+		 * Wait until all user actions have reached the given barrier point.
+		 *
+		 * @param name The barrier point name, used in debug and error messages
+		 * @throws ScenarioFailedError If another action has failed or if the timeout
+		 * is reached while waiting
+		 */
+		public void await(final String name) throws ScenarioFailedError {
+			debugPrintln("		  -> "+Thread.currentThread().getName()+" waits at barrier point '"+name+"'");
+			try {
+				this.cyclicBarrier.await(SpotParallelUsers.this.timeout, TimeUnit.SECONDS);
+			}
+			catch (InterruptedException ie) {
+				Thread.currentThread().interrupt();
+				throw new ScenarioFailedError("Interrupted while waiting at barrier point '"+name+"'.");
+			}
+			catch (BrokenBarrierException bbe) {
+				throw new ScenarioFailedError("Barrier point '"+name+"' was broken by another user failure.");
+			}
+			catch (TimeoutException te) {
+				throw new ScenarioFailedError("Timeout of "+SpotParallelUsers.this.timeout+" seconds reached while waiting at barrier point '"+name+"'.");
+			}
+		}
+
+		/*
+		 * Break the barrier to release actions waiting at a barrier point.
+		 */
+		void reset() {
+			this.cyclicBarrier.reset();
+		}
+	}
+
+	/* Fields */
+	private final Map<User, Action<?>> actions = new LinkedHashMap<>();
+	int timeout = DEFAULT_TIMEOUT;
+
+/**
+ * Add an action to run for the given user.
+ *
+ * @param user The user running the action
+ * @param action The action to run
+ * @return This instance to allow chaining calls
+ * @throws ScenarioFailedError If an action was already added for the given user
+ */
+public SpotParallelUsers add(final User user, final Action<?> action) throws ScenarioFailedError {
+	if (this.actions.containsKey(user)) {
+		throw new ScenarioFailedError("An action is already defined for user "+user.getId()+".");
+	}
+	this.actions.put(user, action);
+	return this;
+}
+
+/**
+ * Run all actions concurrently and return their results.
+ * <p>
+ * Actions are removed once run, hence the instance can be reused to run
+ * other actions.
+ * </p>
+ * @return The result of each action, keyed by user in the order actions were added
+ * @throws ScenarioFailedError If at least one of the actions has failed,
+ * the error message gives the failure of each user
+ */
+public Map<User, Object> run() throws ScenarioFailedError {
+	debugPrintEnteringMethod();
+	Map<User, Action<?>> runActions = new LinkedHashMap<>(this.actions);
+	this.actions.clear();
+	if (runActions.isEmpty()) {
+		return new LinkedHashMap<>();
+	}
+
+	// Open browsers serially as opening is not reliable when done concurrently
+	BrowsersManager manager = BrowsersManager.getInstance();
+	for (User user: runActions.keySet()) {
+		manager.getDedicatedBrowser(user);
+	}
+
+	// Run actions
+	long start = System.currentTimeMillis();
+	final Barrier barrier = new Barrier(runActions.size());
+	ExecutorService executor = Executors.newFixedThreadPool(runActions.size());
+	Map<User, Future<?>> futures = new LinkedHashMap<>();
+	try {
+		for (Map.Entry<User, Action<?>> entry: runActions.entrySet()) {
+			final User user = entry.getKey();
+			final Action<?> action = entry.getValue();
+			futures.put(user, executor.submit(() -> {
+				Thread.currentThread().setName("SPOT user "+user.getId());
+				manager.bindThread(user);
+				try {
+					return action.run(barrier);
+				}
+				catch (Throwable th) {
+					barrier.reset();
+					throw th;
+				}
+				finally {
+					manager.unbindThread();
+				}
+			}));
+		}
+
+		// Collect results
+		Map<User, Object> results = new LinkedHashMap<>();
+		StringBuilder failures = new StringBuilder();
+		for (Map.Entry<User, Future<?>> entry: futures.entrySet()) {
+			String userId = entry.getKey().getId();
+			try {
+				results.put(entry.getKey(), entry.getValue().get(this.timeout, TimeUnit.SECONDS));
+			}
+			catch (ExecutionException ee) {
+				printException(ee.getCause());
+				failures.append(LINE_SEPARATOR).append(" - ").append(userId).append(": ").append(ee.getCause());
+			}
+			catch (TimeoutException te) {
+				barrier.reset();
+				failures.append(LINE_SEPARATOR).append(" - ").append(userId).append(": action did not end after ").append(this.timeout).append(" seconds");
+			}
+		}
+		if (failures.length() > 0) {
+			throw new ScenarioFailedError("Some parallel user actions failed:"+failures);
+		}
+		debugPrintln("		  -> "+results.size()+" parallel user actions done in "+timeString(System.currentTimeMillis()-start));
+		return results;
+	}
+	catch (InterruptedException ie) {
+		Thread.currentThread().interrupt();
+		throw new ScenarioFailedError(ie);
+	}
+	finally {
+		executor.shutdownNow();
+	}
+}
+
+/**
+ * Set the timeout to wait at a barrier point or for actions end.
+ *
+ * @param seconds The timeout in seconds
+ * @return This instance to allow chaining calls
+ */
+public SpotParallelUsers setTimeout(final int seconds) {
+	this.timeout = Math.max(1, seconds);
+	return this;
+}
+}
@@ -16,6 +16,7 @@ import static com.ibm.bear.qa.spot.core.scenario.ScenarioUtils.debugPrintln;
 import static com.ibm.bear.qa.spot.core.scenario.ScenarioUtils.println;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.ibm.bear.qa.spot.core.params.ScenarioParametersManager;
 import com.ibm.bear.qa.spot.core.scenario.SpotProperty.Origin;
@@ -23,8 +24,9 @@ import com.ibm.bear.qa.spot.core.scenario.SpotProperty.Origin;
 /**
  * Class to manage all properties defined and/or used during scenario execution.
  * <p>
- * This class is a subclass of {@link Hashtable} using property names as keys and
- * {@link SpotProperty} as values.
+ * This class is a subclass of {@link ConcurrentHashMap} using property names as keys and
+ * {@link SpotProperty} as values. Hence reading a property does not need any lock
+ * and is safe when several threads access properties concurrently.
  * </p><p>
  * When referring to a property during scenario execution, it can be either undefined or defined
  * using three different ways: System properties, Parameters file (see
@@ -47,7 +49,7 @@ import com.ibm.bear.qa.spot.core.scenario.SpotProperty.Origin;
  * </ul>
  * </p>
  */
-public class SpotProperties extends Hashtable<String, SpotProperty> {
+public class SpotProperties extends ConcurrentHashMap<String, SpotProperty> {
 
 	/**
 	 * Flavors while logging properties value
@@ -117,8 +119,13 @@ public SpotProperty get(final String name, final String defaultValue) {
 	boolean newProperty = false;
 	if (property == null) {
 		property = new SpotProperty(name, defaultValue);
-		put(name, property);
-		newProperty = true;
+		SpotProperty storedProperty = putIfAbsent(name, property);
+		if (storedProperty == null) {
+			newProperty = true;
+		} else {
+			// Another thread has stored the property meanwhile
+			property = storedProperty;
+		}
 	}
 
 	// Log property value if specified
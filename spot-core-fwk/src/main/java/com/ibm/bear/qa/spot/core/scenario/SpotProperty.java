@@ -34,7 +34,10 @@ import com.ibm.bear.qa.spot.core.params.ScenarioParametersManager;
  * This class also defines following internal API methods:
  * <ul>
  * <li>{@link #equals(Object)}: Compares the argument to the receiver, and answers true</li>
+ * <li>{@link #getBooleanValue(boolean)}: Return the property value as a boolean.</li>
  * <li>{@link #getDefaultValue()}: Get the property default value.</li>
+ * <li>{@link #getDoubleValue(double)}: Return the property value as a double.</li>
+ * <li>{@link #getIntValue(int)}: Return the property value as an integer.</li>
  * <li>{@link #getName()}: Return the property name.</li>
  * <li>{@link #getOrigin()}: Return the origin of the property</li>
  * <li>{@link #getValue()}: Return the property value.</li>
@@ -65,6 +68,12 @@ public class SpotProperty implements Comparable<SpotProperty> {
 	private Origin origin = Origin.Undefined;
 	private boolean undefined;
 
+	/* Typed values cache, parsed once on first access */
+	private volatile boolean intParsed;
+	private Integer intValue;
+	private volatile boolean doubleParsed;
+	private Double doubleValue;
+
 /**
  * Create a property using given name and default value.
  * 
@@ -95,6 +104,18 @@ public boolean equals(final Object o) {
 	return false;
 }
 
+/**
+ * Return the property value as a boolean.
+ *
+ * @param defaultValue The value returned if the property value is <code>null</code>
+ * @return <code>true</code> if the property value is <code>"true"</code>, the given
+ * default value if the property value is <code>null</code>, <code>false</code> otherwise
+ */
+public boolean getBooleanValue(final boolean defaultValue) {
+	if (this.value == null) return defaultValue;
+	return this.value.equals("true");
+}
+
 /**
  * Get the property default value.
  *
@@ -104,6 +125,58 @@ public String getDefaultValue() {
 	return this.defaultValue;
 }
 
+/**
+ * Return the property value as a double.
+ * <p>
+ * The value is parsed only once and then cached in the property.
+ * </p>
+ * @param defaultValue The value returned if the property value is empty
+ * or not a valid double
+ * @return The property value as a <code>double</code> or the given default value
+ */
+public double getDoubleValue(final double defaultValue) {
+	if (!this.doubleParsed) {
+		if (this.value != null && !this.value.trim().isEmpty()) {
+			try {
+				this.doubleValue = Double.valueOf(this.value);
+			}
+			catch (NumberFormatException nfe) {
+				// if property is not a valid double value, then keep the default value
+				System.err.println("The specified value for parameter '"+this.name+"' is not a valid double! ("+nfe.getMessage()+")");
+				System.err.println(defaultValue+" default value will be used instead...");
+			}
+		}
+		this.doubleParsed = true;
+	}
+	return this.doubleValue == null ? defaultValue : this.doubleValue.doubleValue();
+}
+
+/**
+ * Return the property value as an integer.
+ * <p>
+ * The value is parsed only once and then cached in the property.
+ * </p>
+ * @param defaultValue The value returned if the property value is empty
+ * or not a valid integer
+ * @return The property value as an <code>int</code> or the given default value
+ */
+public int getIntValue(final int defaultValue) {
+	if (!this.intParsed) {
+		if (this.value != null && !this.value.trim().isEmpty()) {
+			try {
+				this.intValue = Integer.valueOf(this.value);
+			}
+			catch (NumberFormatException nfe) {
+				// if property is not a valid integer value, then keep the default value
+				System.err.println("The specified value for parameter '"+this.name+"' is not a valid integer! ("+nfe.getMessage()+")");
+				System.err.println(defaultValue+" default value will be used instead...");
+			}
+		}
+		this.intParsed = true;
+	}
+	return this.intValue == null ? defaultValue : this.intValue.intValue();
+}
+
 /**
  * Return the property name.
  *
@@ -0,0 +1,217 @@
+/*********************************************************************
+* Copyright (c) 2012, 2024 IBM Corporation and others.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+**********************************************************************/
+package com.ibm.bear.qa.spot.core.scenario;
+
+import static com.ibm.bear.qa.spot.core.scenario.ScenarioUtils.getParameterIntValue;
+
+import java.util.List;
+
+import org.junit.runner.Description;
+
+import com.ibm.bear.qa.spot.core.web.WebPage;
+
+/**
+ * Class to define the retry policy applied by the scenario execution when a test
+ * fails with a given kind of error.
+ * <p>
+ * When a test fails, the scenario execution looks for the first policy matching
+ * the failure (see {@link ScenarioExecution#initRetryPolicies()}) and uses it to
+ * decide what to do:
+ * <ol>
+ * <li>whether the maximum number of attempts has been reached (see {@link #isMaxReached()}),</li>
+ * <li>whether the test can be run again (see {@link #canRerun(WebPage)}),</li>
+ * <li>how to manage the failure and which snapshot to take,</li>
+ * <li>when giving up, whether the scenario execution has to stop (see
+ * {@link #shouldStop(Description,boolean)}),</li>
+ * <li>otherwise, which recovery action to perform before running the test again
+ * (see {@link #recover(WebPage)}) after having waited the policy back-off.</li>
+ * </ol>
+ * </p><p>
+ * The back-off of each policy can be changed using <code>"spot.retry.<i>&lt;policy name&gt;</i>.backoff"</code>
+ * parameter (in milliseconds).
+ * </p><p>
+ * Each policy also counts its failures, retries, give-ups and the time spent in
+ * recovery actions. These metrics are printed at the end of the scenario execution.
+ * </p><p>
+ * This class defines following internal API methods:
+ * <ul>
+ * <li>{@link #toString()}: Returns the policy name.</li>
+ * </ul>
+ * </p><p>
+ * This class also defines or overrides following methods:
+ * <ul>
+ * <li>{@link #canRerun(WebPage)}: Tells whether the test can be run again or not.</li>
+ * <li>{@link #getGiveUpMessage(boolean)}: Return the message to display when giving up.</li>
+ * <li>{@link #isFatal(Throwable)}: Tells whether the given failure is fatal or not.</li>
+ * <li>{@link #isMaxReached()}: Tells whether the maximum number of attempts has been reached or not.</li>
+ * <li>{@link #manageFailure(long,Throwable,boolean,int)}: Manage the given failure.</li>
+ * <li>{@link #matches(Throwable)}: Tells whether the policy applies to the given failure or not.</li>
+ * <li>{@link #recover(WebPage)}: Perform the recovery action before running the test again.</li>
+ * <li>{@link #shouldStop(Description,boolean)}: Tells whether the scenario execution has to stop when giving up.</li>
+ * </ul>
+ * </p>
+ */
+public abstract class SpotRetryPolicy {
+
+	/* Fields */
+	protected final ScenarioExecution execution;
+	final String name;
+	private final List<Class<? extends Throwable>> errorClasses;
+	final int retrySnapshotLevel, failureSnapshotLevel;
+	final int backoff;
+
+	// Metrics
+	int failures = 0;
+	int retries = 0;
+	int giveUps = 0;
+	long recoveryTime = 0;
+
+/**
+ * Create a retry policy.
+ *
+ * @param execution The scenario execution using the policy
+ * @param name The policy name
+ * @param retrySnapshotLevel The snapshot level when the test is run again
+ * (see {@link ScenarioExecution#manageFailure(long, Throwable, boolean, int)})
+ * @param failureSnapshotLevel The snapshot level when giving up
+ * @param backoff The default time to wait before the recovery action in milliseconds
+ * @param errorClasses The failures classes the policy applies to
+ */
+protected SpotRetryPolicy(final ScenarioExecution execution, final String name, final int retrySnapshotLevel, final int failureSnapshotLevel, final int backoff, final List<Class<? extends Throwable>> errorClasses) {
+	this.execution = execution;
+	this.name = name;
+	this.retrySnapshotLevel = retrySnapshotLevel;
+	this.failureSnapshotLevel = failureSnapshotLevel;
+	this.backoff = getParameterIntValue("spot.retry."+name+".backoff", backoff);
+	this.errorClasses = errorClasses;
+}
+
+/**
+ * Tells whether the test can be run again or not.
+ * <p>
+ * Default is to never run the test again.
+ * </p>
+ * @param currentPage The page which was displayed when the failure occurred,
+ * might be <code>null</code>
+ * @return <code>true</code> if the test can be run again, <code>false</code> otherwise
+ */
+protected boolean canRerun(@SuppressWarnings("unused") final WebPage currentPage) {
+	return false;
+}
+
+/**
+ * Return the message to display when giving up.
+ * <p>
+ * Default is to have no specific message.
+ * </p>
+ * @param maxReached Tells whether giving up is due to the maximum number of attempts
+ * @return The message or <code>null</code> if there's no specific message
+ */
+protected String getGiveUpMessage(@SuppressWarnings("unused") final boolean maxReached) {
+	return null;
+}
+
+/**
+ * Tells whether the given failure is fatal or not.
+ * <p>
+ * A fatal failure immediately stops the scenario execution without managing it.
+ * Default is to never be fatal.
+ * </p>
+ * @param t The failure
+ * @return <code>true</code> if the failure is fatal, <code>false</code> otherwise
+ */
+protected boolean isFatal(@SuppressWarnings("unused") final Throwable t) {
+	return false;
+}
+
+/**
+ * Tells whether the maximum number of attempts has been reached or not.
+ * <p>
+ * Note that this method is called once for each failure, hence implementations
+ * can increase their counter when the maximum is not reached yet.
+ * </p><p>
+ * Default is to never reach the maximum.
+ * </p>
+ * @return <code>true</code> if the maximum has been reached, <code>false</code> otherwise
+ */
+protected boolean isMaxReached() {
+	return false;
+}
+
+/**
+ * Manage the given failure.
+ * <p>
+ * Default is to use the scenario execution failure management (see
+ * {@link ScenarioExecution#manageFailure(long, Throwable, boolean, int)}).
+ * </p>
+ * @param start The test starting time
+ * @param t The failure to be managed
+ * @param isNotRerunnable Tells whether the current test is rerunnable or not.
+ * @param snapshotLevel The level of snapshot to be taken. If negative then no snapshot will be taken
+ * @throws Throwable If the failure cannot be managed
+ */
+protected void manageFailure(final long start, final Throwable t, final boolean isNotRerunnable, final int snapshotLevel) throws Throwable {
+	this.execution.manageFailure(start, t, isNotRerunnable, snapshotLevel);
+}
+
+/**
+ * Tells whether the policy applies to the given failure or not.
+ * <p>
+ * Default is to check whether the failure is an instance of one of the policy
+ * failures classes.
+ * </p>
+ * @param t The failure
+ * @return <code>true</code> if the policy applies, <code>false</code> otherwise
+ */
+protected boolean matches(final Throwable t) {
+	for (Class<? extends Throwable> errorClass: this.errorClasses) {
+		if (errorClass.isInstance(t)) {
+			return true;
+		}
+	}
+	return false;
+}
+
+/**
+ * Perform the recovery action before running the test again.
+ * <p>
+ * Default is to do nothing.
+ * </p>
+ * @param currentPage The page which was displayed when the failure occurred,
+ * might be <code>null</code>
+ * @throws Throwable If the recovery action fails
+ */
+protected void recover(@SuppressWarnings("unused") final WebPage currentPage) throws Throwable {
+	// Nothing to do by default
+}
+
+/**
+ * Tells whether the scenario execution has to stop when giving up.
+ *
+ * @param description The failing test
+ * @param maxReached Tells whether giving up is due to the maximum number of attempts
+ * @return <code>true</code> if the scenario execution has to stop, <code>false</code>
+ * otherwise
+ */
+abstract protected boolean shouldStop(Description description, boolean maxReached);
+
+/**
+ * Returns the policy name.
+ *
+ * @return The name
+ */
+@Override
+public String toString() {
+	return this.name;
+}
+}
@@ -0,0 +1,332 @@
+/*********************************************************************
+* Copyright (c) 2012, 2024 IBM Corporation and others.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+**********************************************************************/
+package com.ibm.bear.qa.spot.core.scenario;
+
+import static com.ibm.bear.qa.spot.core.scenario.ScenarioUtils.*;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.runner.Description;
+import org.openqa.selenium.WebDriverException;
+
+import com.ibm.bear.qa.spot.core.api.SpotUser;
+import com.ibm.bear.qa.spot.core.config.User;
+import com.ibm.bear.qa.spot.core.web.WebPage;
+
+/**
+ * Class to manage the scenario execution checkpoint.
+ * <p>
+ * When <code>"spot.checkpoint"</code> parameter is set to <code>true</code>, a
+ * checkpoint is written after each passing test in a local file (<code>"spot.checkpoint.file"</code>
+ * parameter, default is <code>spot-checkpoint.properties</code> in the current directory).
+ * It stores:
+ * <ul>
+ * <li>the already executed tests,</li>
+ * <li>the scenario execution counters,</li>
+ * <li>the scenario data values (see {@link ScenarioData#getCheckpointValues()}),</li>
+ * <li>the current page class, URL, user and data.</li>
+ * </ul>
+ * </p><p>
+ * When <code>"spot.resume"</code> parameter is set to <code>true</code>, the checkpoint
+ * is read at the scenario execution start: executed tests are filtered, counters and
+ * data values are restored and the page is reopened before running the first test.
+ * The scenario execution then continues at the test following the last passing one.
+ * The checkpoint is removed when the scenario execution ends without being stopped.
+ * </p><p>
+ * This class defines following internal API methods:
+ * <ul>
+ * <li>{@link #delete()}: Delete the checkpoint file.</li>
+ * <li>{@link #getDataValue(String)}: Return the checkpoint value of the given scenario data key.</li>
+ * <li>{@link #getInstance()}: Return the checkpoint instance.</li>
+ * <li>{@link #isExecuted(Description)}: Tells whether the given step or test was already executed before the checkpoint or not.</li>
+ * <li>{@link #isResuming()}: Tells whether the scenario execution is resumed from a checkpoint or not.</li>
+ * <li>{@link #restore(ScenarioExecution)}: Restore the checkpoint counters and data values in the given scenario execution.</li>
+ * <li>{@link #restorePage(ScenarioExecution)}: Reopen the checkpoint page, if any.</li>
+ * <li>{@link #write(ScenarioExecution,Description,boolean)}: Write the checkpoint after the given test execution.</li>
+ * </ul>
+ * </p>
+ */
+class SpotScenarioCheckpoint {
+
+	/* Constants */
+	private static final boolean CHECKPOINT = getParameterBooleanValue("spot.checkpoint");
+	private static final boolean RESUME = getParameterBooleanValue("spot.resume");
+	private static final File CHECKPOINT_FILE = new File(getParameterValue("spot.checkpoint.file", "spot-checkpoint.properties"));
+	private static final String TESTS_KEY = "tests";
+	private static final String COUNTER_PREFIX = "counter.";
+	private static final String DATA_PREFIX = "data.";
+	private static final String PAGE_CLASS_KEY = "page.class";
+	private static final String PAGE_URL_KEY = "page.url";
+	private static final String PAGE_USER_KEY = "page.user";
+	private static final String PAGE_DATA_PREFIX = "page.data.";
+	private static final SpotScenarioCheckpoint INSTANCE = new SpotScenarioCheckpoint();
+
+	/* Fields */
+	private final Properties resumed = new Properties();
+	private final Set<String> executedTests = new LinkedHashSet<>();
+	private boolean pageRestored = false;
+
+private SpotScenarioCheckpoint() {
+	if (RESUME) {
+		if (CHECKPOINT_FILE.exists()) {
+			try (InputStream stream = new FileInputStream(CHECKPOINT_FILE)) {
+				this.resumed.load(stream);
+			}
+			catch (IOException ioe) {
+				println("WARNING: cannot read checkpoint file "+CHECKPOINT_FILE.getAbsolutePath()+" ("+ioe.getMessage()+"), scenario will run from start.");
+			}
+			String tests = this.resumed.getProperty(TESTS_KEY);
+			if (tests != null && tests.length() > 0) {
+				this.executedTests.addAll(Arrays.asList(tests.split(",")));
+			}
+			println("Resume scenario execution from checkpoint "+CHECKPOINT_FILE.getAbsolutePath()+" ("+this.executedTests.size()+" tests already executed)");
+		} else {
+			println("WARNING: no checkpoint file found at "+CHECKPOINT_FILE.getAbsolutePath()+", scenario will run from start.");
+		}
+	}
+}
+
+/**
+ * Delete the checkpoint file.
+ */
+void delete() {
+	if ((CHECKPOINT || RESUME) && CHECKPOINT_FILE.exists()) {
+		if (CHECKPOINT_FILE.delete()) {
+			debugPrintln("Info: checkpoint file "+CHECKPOINT_FILE.getAbsolutePath()+" has been deleted as scenario execution is finished.");
+		}
+	}
+}
+
+/*
+ * Return the checkpoint value of the given counter.
+ */
+private int getCounter(final String name) {
+	try {
+		return Integer.parseInt(this.resumed.getProperty(COUNTER_PREFIX + name, "0"));
+	}
+	catch (@SuppressWarnings("unused") NumberFormatException nfe) {
+		return 0;
+	}
+}
+
+/**
+ * Return the checkpoint value of the given scenario data key.
+ *
+ * @param key The data key
+ * @return The value or <code>null</code> if not resuming or if the checkpoint
+ * has no value for the given key
+ */
+String getDataValue(final String key) {
+	return this.resumed.getProperty(DATA_PREFIX + key);
+}
+
+/**
+ * Return the checkpoint instance.
+ *
+ * @return The instance
+ */
+static SpotScenarioCheckpoint getInstance() {
+	return INSTANCE;
+}
+
+/*
+ * Return the checkpoint key of the given test description.
+ */
+private static String getKey(final Description description) {
+	return getClassSimpleName(description.getClassName()) + "." + description.getMethodName();
+}
+
+/**
+ * Tells whether the given step or test was already executed before the checkpoint or not.
+ * <p>
+ * A step is considered as executed when all its tests were executed.
+ * </p>
+ * @param description The step or test description
+ * @return <code>true</code> if the step or test was executed, <code>false</code>
+ * otherwise or if the scenario execution is not resumed
+ */
+boolean isExecuted(final Description description) {
+	if (this.executedTests.isEmpty()) {
+		return false;
+	}
+	if (description.getMethodName() != null) {
+		return this.executedTests.contains(getKey(description));
+	}
+	if (description.getChildren().isEmpty()) {
+		return false;
+	}
+	for (Description test: description.getChildren()) {
+		if (!isExecuted(test)) {
+			return false;
+		}
+	}
+	return true;
+}
+
+/**
+ * Tells whether the scenario execution is resumed from a checkpoint or not.
+ *
+ * @return <code>true</code> if a checkpoint was read, <code>false</code> otherwise
+ */
+boolean isResuming() {
+	return !this.resumed.isEmpty();
+}
+
+/**
+ * Restore the checkpoint counters and data values in the given scenario execution.
+ *
+ * @param execution The scenario execution
+ */
+void restore(final ScenarioExecution execution) {
+	if (!isResuming()) return;
+
+	// Restore counters
+	SpotScenarioExecutionCounters counters = execution.counters;
+	counters.executedTests = getCounter("executedTests");
+	counters.succeededTests = getCounter("succeededTests");
+	counters.failedTests = getCounter("failedTests");
+	counters.realFailedTests = getCounter("realFailedTests");
+	counters.skippedTests = getCounter("skippedTests");
+	counters.failures = getCounter("failures");
+	counters.alerts = getCounter("alerts");
+	counters.retriablesFailures = getCounter("retriablesFailures");
+	counters.multiples = getCounter("multiples");
+	counters.browserErrors = getCounter("browserErrors");
+
+	// Restore data values
+	Map<String, String> values = new HashMap<>();
+	for (String key: this.resumed.stringPropertyNames()) {
+		if (key.startsWith(DATA_PREFIX)) {
+			values.put(key.substring(DATA_PREFIX.length()), this.resumed.getProperty(key));
+		}
+	}
+	execution.getData().restoreCheckpointValues(values);
+}
+
+/**
+ * Reopen the checkpoint page, if any.
+ * <p>
+ * This is done only once, before running the first test of the resumed
+ * scenario execution. A failure while reopening the page is only reported
+ * as the test might open its own page.
+ * </p>
+ * @param execution The scenario execution
+ */
+void restorePage(final ScenarioExecution execution) {
+	if (this.pageRestored || !isResuming()) return;
+	this.pageRestored = true;
+	String pageClassName = this.resumed.getProperty(PAGE_CLASS_KEY);
+	String pageUrl = this.resumed.getProperty(PAGE_URL_KEY);
+	if (pageClassName == null || pageUrl == null) return;
+	String userId = this.resumed.getProperty(PAGE_USER_KEY);
+	User pageUser = null;
+	for (SpotUser user: execution.getData().getUsers()) {
+		if (user instanceof User && user.getId().equals(userId)) {
+			pageUser = (User) user;
+			break;
+		}
+	}
+	List<String> pageData = new ArrayList<>();
+	for (int i=0; this.resumed.containsKey(PAGE_DATA_PREFIX + i); i++) {
+		pageData.add(this.resumed.getProperty(PAGE_DATA_PREFIX + i));
+	}
+	println("Reopen checkpoint page "+getClassSimpleName(pageClassName)+" at "+pageUrl+" for user "+userId);
+	try {
+		@SuppressWarnings("unchecked")
+		Class<? extends WebPage> pageClass = (Class<? extends WebPage>) Class.forName(pageClassName);
+		WebPage.openPage(pageUrl, execution.getConfig(), pageUser, pageClass, pageData.toArray(new String[pageData.size()]));
+	}
+	catch (ClassNotFoundException | WebDriverException | Error ex) {
+		println("WARNING: cannot reopen checkpoint page ("+ex.getMessage()+"), continue with the first test anyway.");
+	}
+}
+
+/**
+ * Write the checkpoint after the given test execution.
+ * <p>
+ * The test is added to the executed tests but the file is written only after
+ * a passing test, hence a resumed execution restarts at the test following
+ * the last passing one.
+ * </p>
+ * @param execution The scenario execution
+ * @param description The executed test
+ * @param passed Tells whether the test passed or not
+ */
+synchronized void write(final ScenarioExecution execution, final Description description, final boolean passed) {
+	if (!CHECKPOINT) return;
+	this.executedTests.add(getKey(description));
+	if (!passed) return;
+
+	// Store executed tests and counters
+	Properties checkpoint = new Properties();
+	checkpoint.setProperty(TESTS_KEY, String.join(",", this.executedTests));
+	SpotScenarioExecutionCounters counters = execution.counters;
+	checkpoint.setProperty(COUNTER_PREFIX + "executedTests", Integer.toString(counters.executedTests));
+	checkpoint.setProperty(COUNTER_PREFIX + "succeededTests", Integer.toString(counters.succeededTests));
+	checkpoint.setProperty(COUNTER_PREFIX + "failedTests", Integer.toString(counters.failedTests));
+	checkpoint.setProperty(COUNTER_PREFIX + "realFailedTests", Integer.toString(counters.realFailedTests));
+	checkpoint.setProperty(COUNTER_PREFIX + "skippedTests", Integer.toString(counters.skippedTests));
+	checkpoint.setProperty(COUNTER_PREFIX + "failures", Integer.toString(counters.failures));
+	checkpoint.setProperty(COUNTER_PREFIX + "alerts", Integer.toString(counters.alerts));
+	checkpoint.setProperty(COUNTER_PREFIX + "retriablesFailures", Integer.toString(counters.retriablesFailures));
+	checkpoint.setProperty(COUNTER_PREFIX + "multiples", Integer.toString(counters.multiples));
+	checkpoint.setProperty(COUNTER_PREFIX + "browserErrors", Integer.toString(counters.browserErrors));
+
+	// Store data values
+	for (Map.Entry<String, String> entry: execution.getData().getCheckpointValues().entrySet()) {
+		if (entry.getValue() != null) {
+			checkpoint.setProperty(DATA_PREFIX + entry.getKey(), entry.getValue());
+		}
+	}
+
+	// Store current page
+	try {
+		WebPage page = execution.getCurrentPage();
+		if (page != null) {
+			checkpoint.setProperty(PAGE_CLASS_KEY, page.getClass().getName());
+			checkpoint.setProperty(PAGE_URL_KEY, page.getUrl());
+			if (page.getUser() != null) {
+				checkpoint.setProperty(PAGE_USER_KEY, page.getUser().getId());
+			}
+			String[] pageData = page.getData();
+			if (pageData != null) {
+				for (int i=0; i<pageData.length; i++) {
+					checkpoint.setProperty(PAGE_DATA_PREFIX + i, pageData[i] == null ? EMPTY_STRING : pageData[i]);
+				}
+			}
+		}
+	}
+	catch (WebDriverException wde) {
+		debugPrintln("Info: cannot store current page in checkpoint: "+wde.getMessage());
+	}
+
+	// Write the file through a temporary one to never leave a partial checkpoint
+	File tempFile = new File(CHECKPOINT_FILE.getAbsolutePath() + ".tmp");
+	try {
+		try (OutputStream stream = new FileOutputStream(tempFile)) {
+			checkpoint.store(stream, "SPOT scenario checkpoint after test " + getKey(description));
+		}
+		try {
+			Files.move(tempFile.toPath(), CHECKPOINT_FILE.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (@SuppressWarnings("unused") AtomicMoveNotSupportedException amnse) {
+			Files.move(tempFile.toPath(), CHECKPOINT_FILE.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+	catch (IOException ioe) {
+		println("WARNING: cannot write checkpoint file "+CHECKPOINT_FILE.getAbsolutePath()+": "+ioe.getMessage());
+	}
+}
+}
@@ -55,6 +55,10 @@ import com.ibm.bear.qa.spot.core.scenario.errors.*;
  * it was a transient problem. In the latter case, a snapshot will be taken and
  * put in the warning directory and the failure stack trace will be written in the
  * console output.</li>
+ * <li>{@link SpotScenarioExecutionCounters#FAILED_TESTS_THRESHOLD_ID}: Number of tolerated failed tests
+ * when running the <b>entire</b> scenario.<br>
+ * When reached, the scenario execution is aborted in order to get a quick feedback
+ * on broken builds. Default is <code>0</code> which means no limit.</li>
  * </ul>
  * </p><p>
  * For test counters, it counts the total, executed, skipped, succeeded and failed tests.
@@ -75,6 +79,7 @@ public class SpotScenarioExecutionCounters {
 	private final static int DEFAULT_RETRIABLES_FAILURES_THRESHOLD = 5;
 	private final static int DEFAULT_MULTIPLES_THRESHOLD = 2;
 	private final static int DEFAULT_BROWSER_ERRORS_THRESHOLD = 2;
+	private final static String FAILED_TESTS_THRESHOLD_ID = "failedTestsThreshold";
 
 	// Failure thresholds
 	final int failuresThreshold;
@@ -83,6 +88,7 @@ public class SpotScenarioExecutionCounters {
 	final int retriableFailuresThreshold;
 	final int multiplesThreshold;
 	final int browserErrorsThreshold;
+	final int failedTestsThreshold;
 
 	// Failure counters
 	int failures;
@@ -96,6 +102,7 @@ public class SpotScenarioExecutionCounters {
 	int executedTests = 0;
 	int succeededTests = 0;
 	int failedTests = 0;
+	int realFailedTests = 0; // failed tests excluding skipped ones
 	int testCount = 0;
 	int skippedTests = 0;
 
@@ -107,6 +114,7 @@ SpotScenarioExecutionCounters() {
 	this.retriableFailuresThreshold = getParameterIntValue(RETRIABLE_FAILURES_THRESHOLD_ID, DEFAULT_RETRIABLES_FAILURES_THRESHOLD);
 	this.browserErrorsThreshold = getParameterIntValue(BROWSER_ERRORS_THRESHOLD_ID, DEFAULT_BROWSER_ERRORS_THRESHOLD);
 	this.multiplesThreshold = getParameterIntValue(MULTIPLES_THRESHOLD_ID, DEFAULT_MULTIPLES_THRESHOLD);
+	this.failedTestsThreshold = getParameterIntValue(FAILED_TESTS_THRESHOLD_ID, 0);
 }
 
 public int getFailedTests() {
@@ -145,6 +153,18 @@ boolean hasMaxBrowserErrors() {
 	return false;
 }
 
+/**
+ * Tells whether the max failed tests threshold has been reached or not.
+ * <p>
+ * Note that tests skipped due to a previous failure (see {@link SkippedTestError})
+ * are not taken into account.
+ * </p>
+ * @return <code>true</code> if the threshold is set and reached, <code>false</code> otherwise
+ */
+boolean hasMaxFailedTests() {
+	return this.failedTestsThreshold > 0 && this.realFailedTests >= this.failedTestsThreshold;
+}
+
 /**
  * Tells whether the max failures threshold has been reached or not.
  * <p>
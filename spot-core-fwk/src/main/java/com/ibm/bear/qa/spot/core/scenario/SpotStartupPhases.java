@@ -0,0 +1,122 @@
+/*********************************************************************
+* Copyright (c) 2012, 2024 IBM Corporation and others.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+**********************************************************************/
+package com.ibm.bear.qa.spot.core.scenario;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class to track time spent in each phase of the scenario execution startup.
+ * <p>
+ * Phases are started using {@link #begin(String)} and ended calling {@link Phase#end()}
+ * on the returned object. Phases might be nested (e.g. parameters loading might occur
+ * while the scenario configuration is initialized), the nesting level is then used
+ * to indent the report.
+ * </p><p>
+ * The report is displayed once the scenario runner has been built, hence just before
+ * the first test starts. It's printed in the console when <code>spot.startup.profile</code>
+ * property is set to <code>true</code>, only in the debug log otherwise.
+ * </p><p>
+ * Note that this class must not use any {@link ScenarioUtils} method while recording
+ * phases as some of them occur during {@link ScenarioUtils} class initialization.
+ * </p><p>
+ * This class defines following internal API methods:
+ * <ul>
+ * <li>{@link #begin(String)}: Start a new startup phase.</li>
+ * <li>{@link #print()}: Print the startup phases report.</li>
+ * </ul>
+ * </p>
+ */
+public class SpotStartupPhases {
+
+	/**
+	 * Class to store a startup phase.
+	 */
+	public static class Phase {
+		final String name;
+		final int level;
+		final long start = System.nanoTime();
+		long end = -1;
+		Phase(final String name, final int level) {
+			this.name = name;
+			this.level = level;
+		}
+
+		/**
+		 * End the current phase.
+		 */
+		public void end() {
+			synchronized (PHASES) {
+				if (this.end < 0) {
+					this.end = System.nanoTime();
+					currentLevel--;
+				}
+			}
+		}
+	}
+
+	/* Constants */
+	private static final long STARTUP_START = System.nanoTime();
+	private static final List<Phase> PHASES = new ArrayList<>();
+
+	/* Fields */
+	private static int currentLevel = 0;
+	private static boolean printed = false;
+
+/**
+ * Start a new startup phase.
+ *
+ * @param name The phase name
+ * @return The started phase, caller is responsible to end it
+ */
+public static Phase begin(final String name) {
+	synchronized (PHASES) {
+		Phase phase = new Phase(name, currentLevel++);
+		PHASES.add(phase);
+		return phase;
+	}
+}
+
+/**
+ * Print the startup phases report.
+ * <p>
+ * Note that the report is printed only once.
+ * </p>
+ */
+public static void print() {
+	StringBuilder builder = new StringBuilder("Scenario startup phases:").append(ScenarioUtils.LINE_SEPARATOR);
+	synchronized (PHASES) {
+		if (printed) return;
+		printed = true;
+		for (Phase phase: PHASES) {
+			builder.append('\t');
+			for (int i=0; i<phase.level; i++) {
+				builder.append('\t');
+			}
+			builder.append("- ").append(phase.name).append(": ");
+			if (phase.end < 0) {
+				builder.append("not finished");
+			} else {
+				builder.append((phase.end - phase.start) / 1000000).append("ms");
+			}
+			builder.append(ScenarioUtils.LINE_SEPARATOR);
+		}
+	}
+	builder.append("\t=> total startup time: ").append((System.nanoTime() - STARTUP_START) / 1000000).append("ms");
+	if (ScenarioUtils.getParameterBooleanValue("spot.startup.profile")) {
+		ScenarioUtils.println(builder.toString());
+	} else {
+		ScenarioUtils.debugPrintln(builder.toString());
+	}
+}
+}
@@ -0,0 +1,280 @@
+/*********************************************************************
+* Copyright (c) 2012, 2024 IBM Corporation and others.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+**********************************************************************/
+package com.ibm.bear.qa.spot.core.scenario;
+
+import static com.ibm.bear.qa.spot.core.scenario.ScenarioUtils.*;
+
+import java.io.*;
+import java.util.*;
+
+import org.junit.runner.Description;
+import org.junit.runner.manipulation.Ordering;
+
+import com.ibm.bear.qa.spot.core.utils.*;
+
+/**
+ * Class to manage the tests execution history.
+ * <p>
+ * When <code>"spot.history.order"</code> parameter is set to <code>true</code>,
+ * the duration and the outcome of each executed test are stored in a local file
+ * (<code>"spot.history.file"</code> parameter, default is <code>spot-tests-history.properties</code>
+ * in the current directory) and the history is used to order the tests of each
+ * step: recently failing tests are run first, then the cheapest ones.
+ * </p><p>
+ * Scenario constraints are kept while ordering:
+ * <ul>
+ * <li>tests having {@link DependsOn} or {@link Blocks} annotation keep their position,</li>
+ * <li>tests up to the last {@link StepBlocker} test of a step keep their position.</li>
+ * </ul>
+ * Steps are reordered only when <code>"spot.history.order.steps"</code> parameter
+ * is also set to <code>true</code>, which should be done only for scenarios which
+ * steps do not depend on each other. In that case, steps having a {@link FailureBlocker}
+ * annotation or a test with {@link DependsOn} or {@link Blocks} annotation keep
+ * their position.
+ * </p><p>
+ * This class defines following internal API methods:
+ * <ul>
+ * <li>{@link #getInstance()}: Return the tests history instance.</li>
+ * <li>{@link #getOrdering()}: Return the ordering to apply to scenario steps and tests.</li>
+ * <li>{@link #isEnabled()}: Tells whether the tests history is enabled or not.</li>
+ * <li>{@link #record(Description,long,boolean)}: Record the execution of the given test.</li>
+ * <li>{@link #save()}: Save the tests history in its file.</li>
+ * </ul>
+ * </p>
+ */
+public class SpotTestsHistory {
+
+	/**
+	 * Class to store a test history.
+	 * <p>
+	 * The failure score is increased by one at each failure and divided by
+	 * two at each execution, hence recent failures weight more than older ones.
+	 * The duration is a moving average of the test executions durations.
+	 * </p>
+	 */
+	private static class TestHistory {
+		double failureScore;
+		long duration;
+		TestHistory(final double failureScore, final long duration) {
+			this.failureScore = failureScore;
+			this.duration = duration;
+		}
+	}
+
+	/* Constants */
+	private static final boolean ORDER_TESTS = getParameterBooleanValue("spot.history.order");
+	private static final boolean ORDER_STEPS = ORDER_TESTS && getParameterBooleanValue("spot.history.order.steps");
+	private static final String HISTORY_FILE = getParameterValue("spot.history.file", "spot-tests-history.properties");
+	private static final TestHistory NO_HISTORY = new TestHistory(0, 0);
+	private static final SpotTestsHistory INSTANCE = new SpotTestsHistory();
+
+	/* Fields */
+	private final Map<String, TestHistory> tests = new HashMap<>();
+	private boolean modified = false;
+
+private SpotTestsHistory() {
+	if (ORDER_TESTS) {
+		load();
+	}
+}
+
+/**
+ * Return the tests history instance.
+ *
+ * @return The instance
+ */
+public static SpotTestsHistory getInstance() {
+	return INSTANCE;
+}
+
+/*
+ * Return the history of the given step or test description.
+ *
+ * For a step, the failure score is the highest score of its tests and the
+ * duration is the sum of its tests durations.
+ */
+private TestHistory getHistory(final Description description) {
+	if (description.getMethodName() != null) {
+		return this.tests.getOrDefault(getKey(description), NO_HISTORY);
+	}
+	TestHistory stepHistory = new TestHistory(0, 0);
+	for (Description test: description.getChildren()) {
+		TestHistory testHistory = getHistory(test);
+		stepHistory.failureScore = Math.max(stepHistory.failureScore, testHistory.failureScore);
+		stepHistory.duration += testHistory.duration;
+	}
+	return stepHistory;
+}
+
+/*
+ * Return the history key of the given test description.
+ */
+private static String getKey(final Description description) {
+	return getClassSimpleName(description.getClassName()) + "." + description.getMethodName();
+}
+
+/**
+ * Return the ordering to apply to scenario steps and tests.
+ *
+ * @return The ordering
+ */
+public Ordering getOrdering() {
+	return new Ordering() {
+		@Override
+		protected List<Description> orderItems(final Collection<Description> descriptions) {
+			return order(descriptions);
+		}
+	};
+}
+
+/*
+ * Return whether the given step or test description has to keep its position.
+ */
+private static boolean isPinned(final Description description) {
+	if (description.getMethodName() != null) {
+		return description.getAnnotation(DependsOn.class) != null || description.getAnnotation(Blocks.class) != null;
+	}
+	if (!ORDER_STEPS || description.getAnnotation(FailureBlocker.class) != null) {
+		return true;
+	}
+	for (Description test: description.getChildren()) {
+		if (isPinned(test)) {
+			return true;
+		}
+	}
+	return false;
+}
+
+/**
+ * Tells whether the tests history is enabled or not.
+ *
+ * @return <code>true</code> if <code>"spot.history.order"</code> parameter
+ * is set to <code>true</code>, <code>false</code> otherwise
+ */
+public boolean isEnabled() {
+	return ORDER_TESTS;
+}
+
+/*
+ * Load the tests history from its file.
+ */
+private void load() {
+	File file = new File(HISTORY_FILE);
+	if (!file.exists()) {
+		debugPrintln("Info: no tests history found in "+file.getAbsolutePath()+", tests will run in their default order.");
+		return;
+	}
+	Properties properties = new Properties();
+	try (InputStream stream = new FileInputStream(file)) {
+		properties.load(stream);
+	}
+	catch (IOException ioe) {
+		println("WARNING: cannot read tests history file "+file.getAbsolutePath()+" ("+ioe.getMessage()+"), tests will run in their default order.");
+		return;
+	}
+	for (String key: properties.stringPropertyNames()) {
+		String[] values = properties.getProperty(key).split(";");
+		try {
+			this.tests.put(key, new TestHistory(Double.parseDouble(values[0]), Long.parseLong(values[1])));
+		}
+		catch (@SuppressWarnings("unused") NumberFormatException | ArrayIndexOutOfBoundsException ex) {
+			debugPrintln("Info: ignore invalid tests history entry "+key+"="+properties.getProperty(key));
+		}
+	}
+}
+
+/*
+ * Order the given steps or tests descriptions.
+ *
+ * Pinned descriptions keep their position, the other ones are sorted by
+ * decreasing failure score and then by increasing duration.
+ */
+private List<Description> order(final Collection<Description> descriptions) {
+	List<Description> ordered = new ArrayList<>(descriptions);
+
+	// Tests up to the last step blocker keep their position
+	int start = 0;
+	for (int i=0; i<ordered.size(); i++) {
+		if (ordered.get(i).getAnnotation(StepBlocker.class) != null) {
+			start = i + 1;
+		}
+	}
+
+	// Sort movable descriptions
+	List<Integer> slots = new ArrayList<>();
+	List<Description> movables = new ArrayList<>();
+	for (int i=start; i<ordered.size(); i++) {
+		Description description = ordered.get(i);
+		if (!isPinned(description)) {
+			slots.add(Integer.valueOf(i));
+			movables.add(description);
+		}
+	}
+	Map<Description, TestHistory> histories = new HashMap<>();
+	for (Description description: movables) {
+		histories.put(description, getHistory(description));
+	}
+	movables.sort((d1, d2) -> {
+		TestHistory h1 = histories.get(d1), h2 = histories.get(d2);
+		int comparison = Double.compare(h2.failureScore, h1.failureScore);
+		return comparison != 0 ? comparison : Long.compare(h1.duration, h2.duration);
+	});
+	for (int i=0; i<slots.size(); i++) {
+		ordered.set(slots.get(i).intValue(), movables.get(i));
+	}
+	return ordered;
+}
+
+/**
+ * Record the execution of the given test.
+ *
+ * @param description The test description
+ * @param duration The test execution duration in milliseconds
+ * @param passed Tells whether the test passed or not
+ */
+public synchronized void record(final Description description, final long duration, final boolean passed) {
+	if (!ORDER_TESTS) return;
+	String key = getKey(description);
+	TestHistory history = this.tests.get(key);
+	if (history == null) {
+		this.tests.put(key, new TestHistory(passed ? 0 : 1, duration));
+	} else {
+		history.failureScore = history.failureScore / 2 + (passed ? 0 : 1);
+		history.duration = (history.duration * 3 + duration) / 4;
+	}
+	this.modified = true;
+}
+
+/**
+ * Save the tests history in its file.
+ * <p>
+ * Nothing is done if the history is not enabled or if no test was recorded.
+ * </p>
+ */
+public synchronized void save() {
+	if (!this.modified) return;
+	Properties properties = new Properties();
+	for (Map.Entry<String, TestHistory> entry: this.tests.entrySet()) {
+		TestHistory history = entry.getValue();
+		properties.setProperty(entry.getKey(), String.format(Locale.US, "%.4f;%d", Double.valueOf(history.failureScore), Long.valueOf(history.duration)));
+	}
+	File file = new File(HISTORY_FILE);
+	try (OutputStream stream = new FileOutputStream(file)) {
+		properties.store(stream, "SPOT tests history: <step>.<test>=<failure score>;<average duration in ms>");
+		this.modified = false;
+	}
+	catch (IOException ioe) {
+		println("WARNING: cannot write tests history file "+file.getAbsolutePath()+": "+ioe.getMessage());
+	}
+}
+}
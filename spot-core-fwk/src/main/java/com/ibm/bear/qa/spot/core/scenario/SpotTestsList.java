@@ -15,24 +15,63 @@ package com.ibm.bear.qa.spot.core.scenario;
 import static com.ibm.bear.qa.spot.core.scenario.ScenarioUtils.getParameterValue;
 
 import java.util.*;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 import com.ibm.bear.qa.spot.core.scenario.errors.ScenarioFailedError;
 
 /**
  * Class to manage list of tests defined from a parameter list
  * <p>
+ * The parameter value is a comma separated list of test patterns, each pattern
+ * being either <code>test</code> or <code>step:test</code> (or <code>step.test</code>).
+ * Each part of a pattern can be:
+ * <ul>
+ * <li><code>*</code>: matches any name</li>
+ * <li>a glob using <code>*</code> and <code>?</code> wildcards (e.g. <code>test*Sort?</code>):
+ * matches whole names</li>
+ * <li>a regular expression enclosed in slashes (e.g. <code>/test(Create|Delete)\d{1,3}/</code>):
+ * matches if found in names. Commas, colons and dots are part of the regular expression,
+ * slashes have to be escaped (i.e. <code>\/</code>)</li>
+ * <li>any other text: matches names containing it</li>
+ * </ul>
+ * All matches are case insensitive. A pattern starting with <code>!</code> is an
+ * exclusion: a test matching it does not match the list even if it matches another
+ * pattern. A list having only exclusions matches all other tests.
+ * </p><p>
+ * Patterns are parsed and compiled once when the list is created, hence an invalid
+ * pattern is reported as soon as the parameter is read.
+ * </p><p>
  * This class defines following internal API methods:
  * <ul>
  * <li>{@link #hasNoStepTest(String)}: Tells whether there is no reference to the given step class in tests list or not.</li>
  * <li>{@link #hasNoTest()}: Tells whether there no specified tests or not.</li>
  * <li>{@link #match(String,String)}: Returns whether one of the specified test matches the given test.</li>
+ * <li>{@link #toString()}: Returns the parameter value.</li>
  * </ul>
  * </p>
  */
 public class SpotTestsList {
 
+	/**
+	 * Compiled test pattern.
+	 */
+	private static class TestPattern {
+		final Predicate<String> step, test;
+		TestPattern(final Predicate<String> step, final Predicate<String> test) {
+			this.step = step;
+			this.test = test;
+		}
+		boolean match(final String stepName, final String testName) {
+			return (this.step == null || this.step.test(stepName)) && this.test.test(testName);
+		}
+	}
+
 	final String param, value;
 	final List<String> tests = new ArrayList<>();
+	private final List<TestPattern> inclusions = new ArrayList<>();
+	private final List<TestPattern> exclusions = new ArrayList<>();
 
 SpotTestsList(final String p) {
 	this.param = p;
@@ -40,13 +79,43 @@ SpotTestsList(final String p) {
 	init();
 }
 
-private void init() throws ScenarioFailedError {
-	if (this.value != null) {
-		StringTokenizer tokenizer = new StringTokenizer(this.value, ",");
-		while (tokenizer.hasMoreTokens()) {
-			this.tests.add(tokenizer.nextToken());
+/*
+ * Compile the given pattern part. Names given to the returned predicate are
+ * expected to be lower case.
+ */
+private Predicate<String> compile(final String part, final String testPattern) {
+	if (part.equals("*")) {
+		return name -> true;
+	}
+	try {
+		if (part.length() > 1 && part.startsWith("/") && part.endsWith("/")) {
+			Pattern pattern = Pattern.compile(part.substring(1, part.length()-1), Pattern.CASE_INSENSITIVE);
+			return name -> pattern.matcher(name).find();
+		}
+		if (part.indexOf('*') >= 0 || part.indexOf('?') >= 0) {
+			StringBuilder regex = new StringBuilder();
+			for (String token: part.split("(?=[*?])|(?<=[*?])")) {
+				switch (token) {
+					case "*":
+						regex.append(".*");
+						break;
+					case "?":
+						regex.append('.');
+						break;
+					default:
+						regex.append(Pattern.quote(token));
+						break;
+				}
+			}
+			Pattern pattern = Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE);
+			return name -> pattern.matcher(name).matches();
 		}
 	}
+	catch (PatternSyntaxException pse) {
+		throw new ScenarioFailedError("Invalid '" + this.param + "' property content (invalid pattern for test: '" + testPattern + "', " + pse.getDescription() + "): " + this.value);
+	}
+	String lowerCasePart = part.toLowerCase();
+	return name -> name.contains(lowerCasePart);
 }
 
 /**
@@ -56,19 +125,13 @@ private void init() throws ScenarioFailedError {
  * <code>false</code> otherwise
  */
 public boolean hasNoStepTest(final String testClassSimpleName) {
-
-	for (String test: this.tests) {
-		String[] items = test.split(":|\\.");
-		switch (items.length) {
-			case 1:
-				return false;
-			case 2:
-				if (testClassSimpleName.toLowerCase().contains(items[0].toLowerCase())) {
-					return false;
-				}
-				break;
-			default:
-				throw new ScenarioFailedError("Invalid '" + this.param + "' property content (invalid pattern for test: '" + test + "'): " + this.value);
+	if (this.inclusions.isEmpty()) {
+		return this.exclusions.isEmpty();
+	}
+	String stepName = testClassSimpleName.toLowerCase();
+	for (TestPattern pattern: this.inclusions) {
+		if (pattern.step == null || pattern.step.test(stepName)) {
+			return false;
 		}
 	}
 	return true;
@@ -84,35 +147,117 @@ public boolean hasNoStepTest(final String testClassSimpleName) {
 public boolean hasNoTest() {
 	return this.tests.size() == 0;
 }
+
+private void init() throws ScenarioFailedError {
+	if (this.value != null) {
+		for (String test: split(this.value)) {
+			this.tests.add(test);
+			parse(test);
+		}
+	}
+}
+
 /**
  * Returns whether one of the specified test matches the given test.
  *
  * @param stepName The step of the given test
  * @param testName The test name
  * @return <code>true</code> if one of the specified test pattern in the parameter
- * list matches the given test, <code>false</code> otherwise
+ * list matches the given test and none of the exclusion patterns matches it,
+ * <code>false</code> otherwise
  */
 public boolean match(final String stepName, final String testName) {
-	for (String testPattern : this.tests) {
-		String[] items = testPattern.split(":|\\.");
-		String testStep = "*";
-		String test = null;
-		switch (items.length) {
-			case 1:
-				test = items[0];
-				break;
-			case 2:
-				testStep = items[0];
-				test = items[1];
-				break;
-			default:
-				throw new ScenarioFailedError("Invalid '" + this.param + "' property content (invalid pattern for test: '" + test + "'): " + this.value);
+	if (this.tests.isEmpty()) {
+		return false;
+	}
+	String step = stepName.toLowerCase();
+	String test = testName.toLowerCase();
+	boolean included = this.inclusions.isEmpty();
+	for (TestPattern pattern: this.inclusions) {
+		if (pattern.match(step, test)) {
+			included = true;
+			break;
+		}
+	}
+	if (included) {
+		for (TestPattern pattern: this.exclusions) {
+			if (pattern.match(step, test)) {
+				return false;
+			}
 		}
+	}
+	return included;
+}
+
+/*
+ * Parse the given test pattern and store its compiled form.
+ */
+private void parse(final String testPattern) {
+	boolean exclusion = testPattern.startsWith("!");
+	String pattern = exclusion ? testPattern.substring(1) : testPattern;
 
-		if ((test.equals("*") || testName.toLowerCase().contains(test.toLowerCase())) && (testStep.equals("*") || stepName.toLowerCase().contains(testStep.toLowerCase()))) {
-			return true;
+	// Look for step and test separator, ignoring characters inside regular expressions
+	int separator = -1;
+	boolean inRegex = false;
+	for (int i=0; i<pattern.length(); i++) {
+		char ch = pattern.charAt(i);
+		if (inRegex && ch == '\\') {
+			i++;
+		} else if (ch == '/') {
+			inRegex = !inRegex;
+		} else if (!inRegex && (ch == ':' || ch == '.')) {
+			if (separator >= 0) {
+				throw new ScenarioFailedError("Invalid '" + this.param + "' property content (invalid pattern for test: '" + testPattern + "'): " + this.value);
+			}
+			separator = i;
 		}
 	}
-	return false;
+	if (pattern.isEmpty() || separator == 0 || separator == pattern.length()-1) {
+		throw new ScenarioFailedError("Invalid '" + this.param + "' property content (invalid pattern for test: '" + testPattern + "'): " + this.value);
+	}
+
+	// Store compiled pattern
+	TestPattern compiledPattern = separator < 0
+		? new TestPattern(null, compile(pattern, testPattern))
+		: new TestPattern(compile(pattern.substring(0, separator), testPattern), compile(pattern.substring(separator+1), testPattern));
+	(exclusion ? this.exclusions : this.inclusions).add(compiledPattern);
+}
+
+/*
+ * Split the given parameter value on commas which are not inside a regular
+ * expression. Empty patterns are ignored.
+ */
+private static List<String> split(final String paramValue) {
+	List<String> patterns = new ArrayList<>();
+	boolean inRegex = false;
+	int start = 0;
+	for (int i=0; i<paramValue.length(); i++) {
+		char ch = paramValue.charAt(i);
+		if (inRegex && ch == '\\') {
+			i++;
+		} else if (ch == '/') {
+			inRegex = !inRegex;
+		} else if (!inRegex && ch == ',') {
+			if (i > start) {
+				patterns.add(paramValue.substring(start, i));
+			}
+			start = i + 1;
+		}
+	}
+	if (start < paramValue.length()) {
+		patterns.add(paramValue.substring(start));
+	}
+	return patterns;
+}
+
+/**
+ * Returns the parameter value.
+ *
+ * @return The value as a {@link String} or <code>null</code> if the parameter
+ * was not set
+ */
+@Override
+public String toString() {
+	return this.value;
+}
 }
-}
\ No newline at end of file
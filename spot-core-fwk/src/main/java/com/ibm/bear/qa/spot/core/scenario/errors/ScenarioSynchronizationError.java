@@ -16,7 +16,7 @@ package com.ibm.bear.qa.spot.core.scenario.errors;
  * Error class used when a problem occurs in framework scenario synchronization.
  * <p>
  * Basically using this error intends to stop scenario execution immediately, typically
- * when synchronization is needed but JMS initialization failed for some reason...
+ * when synchronization is needed but transport initialization failed for some reason...
  * </p>
  */
 public class ScenarioSynchronizationError extends ScenarioFailedError {
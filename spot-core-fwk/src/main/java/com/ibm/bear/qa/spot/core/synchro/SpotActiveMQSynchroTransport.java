@@ -0,0 +1,176 @@
+/*********************************************************************
+* Copyright (c) 2012, 2024 IBM Corporation and others.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+**********************************************************************/
+package com.ibm.bear.qa.spot.core.synchro;
+
+import static com.ibm.bear.qa.spot.core.scenario.ScenarioUtils.*;
+import static com.ibm.bear.qa.spot.core.utils.FileUtil.getDir;
+import static com.ibm.bear.qa.spot.core.utils.FileUtil.rmdir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.jms.*;
+
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.broker.BrokerService;
+
+import com.ibm.bear.qa.spot.core.scenario.errors.ScenarioSynchronizationError;
+
+/**
+ * Synchronization transport using an embedded ActiveMQ broker.
+ * <p>
+ * The first scenario which opens the transport starts the broker and becomes
+ * the master, others only connect to it. The broker URL must be specified using
+ * the <code>spot.synchro.activemq.url</code> property as there's no default value.
+ * </p><p>
+ * Producers and consumers are created once per queue and reused for
+ * all subsequent messages.
+ * </p>
+ */
+public class SpotActiveMQSynchroTransport implements SpotSynchroTransport {
+
+	/* Fields */
+	private final String url;
+	private BrokerService brokerService;
+	private QueueConnection connection;
+	private QueueSession session;
+	private final Map<String, MessageProducer> producers = new HashMap<>();
+	private final Map<String, MessageConsumer> consumers = new HashMap<>();
+
+public SpotActiveMQSynchroTransport(final String url) {
+	this.url = url;
+}
+
+@Override
+public void close() {
+	try {
+		if (this.connection != null) {
+			this.connection.close();
+		}
+	}
+	catch (JMSException jmse) {
+		debugPrintln("Following exception occurred while closing JMS connection:");
+		debugPrintException(jmse);
+	}
+	if (this.brokerService != null) {
+		try {
+			this.brokerService.stop();
+			File mqDataDir = getDir("activemq-data");
+			if (mqDataDir.exists()) {
+				rmdir(mqDataDir);
+			}
+		}
+		catch (Exception ex) {
+			debugPrintln("Following Exception occurred while cleaning MQ data directory:");
+			debugPrintException(ex);
+			debugPrintln("-> Skip it and continue assuming that it would be OK...");
+		}
+	}
+}
+
+private MessageConsumer getConsumer(final String queueName) throws JMSException {
+	MessageConsumer consumer = this.consumers.get(queueName);
+	if (consumer == null) {
+		debugPrintln("	- create message consumer for queue '"+queueName+"'...");
+		consumer = this.session.createConsumer(this.session.createQueue(queueName));
+		this.consumers.put(queueName, consumer);
+	}
+	return consumer;
+}
+
+private MessageProducer getProducer(final String queueName) throws JMSException {
+	MessageProducer producer = this.producers.get(queueName);
+	if (producer == null) {
+		debugPrintln("	- create message producer for queue '"+queueName+"'...");
+		producer = this.session.createProducer(this.session.createQueue(queueName));
+		this.producers.put(queueName, producer);
+	}
+	return producer;
+}
+
+@Override
+public boolean isMaster() {
+	return this.brokerService != null;
+}
+
+@Override
+public void open() throws ScenarioSynchronizationError {
+
+	// Create broker if not already started by another scenario
+	try {
+		BrokerService broker = new BrokerService();
+		broker.addConnector(this.url);
+		broker.start();
+		this.brokerService = broker;
+	}
+	catch (IOException ioe) {
+		Throwable cause = ioe.getCause() == null ? ioe : ioe.getCause();
+		if (cause.getMessage() == null || !cause.getMessage().contains("Address already in use")) {
+			throw new ScenarioSynchronizationError(ioe);
+		}
+		debugPrintln("Broker already started by another scenario at "+this.url);
+	}
+	catch (Exception ex) {
+		throw new ScenarioSynchronizationError(ex);
+	}
+
+	// Create JMS objects
+	try {
+		debugPrintln("Creating JMS objects:");
+		debugPrintln("	- queue connection...");
+		this.connection = new ActiveMQConnectionFactory(this.url).createQueueConnection();
+		debugPrintln("	- start connection...");
+		this.connection.start();
+		debugPrintln("	- queue session...");
+		this.session = this.connection.createQueueSession(false, Session.AUTO_ACKNOWLEDGE);
+		debugPrintln("=> creation finished.");
+	}
+	catch (JMSException jmse) {
+		throw new ScenarioSynchronizationError(jmse);
+	}
+}
+
+@Override
+public String receive(final String queueName, final long timeout) throws ScenarioSynchronizationError {
+	try {
+		MessageConsumer consumer = getConsumer(queueName);
+		Message message = timeout <= 0 ? consumer.receiveNoWait() : consumer.receive(timeout);
+		if (message == null) {
+			return null;
+		}
+		return ((TextMessage) message).getText();
+	}
+	catch (JMSException jmse) {
+		throw new ScenarioSynchronizationError(jmse);
+	}
+}
+
+@Override
+public void send(final String queueName, final String text) throws ScenarioSynchronizationError {
+	try {
+		TextMessage message = this.session.createTextMessage();
+		message.setText(text);
+		getProducer(queueName).send(message);
+	}
+	catch (JMSException jmse) {
+		throw new ScenarioSynchronizationError(jmse);
+	}
+}
+
+@Override
+public String toString() {
+	return "ActiveMQ transport (url="+this.url+", master="+isMaster()+")";
+}
+}
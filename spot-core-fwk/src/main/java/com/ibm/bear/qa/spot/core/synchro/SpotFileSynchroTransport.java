@@ -0,0 +1,288 @@
+/*********************************************************************
+* Copyright (c) 2012, 2024 IBM Corporation and others.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+**********************************************************************/
+package com.ibm.bear.qa.spot.core.synchro;
+
+import static com.ibm.bear.qa.spot.core.scenario.ScenarioUtils.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.ibm.bear.qa.spot.core.scenario.errors.ScenarioSynchronizationError;
+
+/**
+ * Lightweight synchronization transport using a mailbox in a directory shared by all
+ * scenarios running on the same host.
+ * <p>
+ * Each queue is a sub-directory of the mailbox and each message a file in it. Messages
+ * are written in a temporary file and then atomically moved in the queue directory, hence
+ * a receiver never reads a partially written message. Receiving a message is also done by
+ * atomically moving the message file out of the queue, which ensures that a message is
+ * consumed only once even when several scenarios read the same queue.
+ * </p><p>
+ * The mailbox directory is <code>&lt;spot.synchro.dir&gt;/&lt;spot.synchro.group&gt;</code>
+ * (default is <code>&lt;java.io.tmpdir&gt;/spot-synchro/default</code>). Using different
+ * groups allows to run several groups of synchronized scenarios on the same host.
+ * </p><p>
+ * The master is the scenario which holds the lock on the <code>master.lock</code> file of
+ * the mailbox. As the lock is released by the operating system when the process ends, a
+ * crashed master does not prevent further executions. While holding the lock, the master
+ * removes the ready marker, purges all queues left by previous executions and then writes
+ * a new ready marker containing its run identifier (ie. its process id and start time).
+ * Other scenarios wait for a ready marker whose run identifier matches a running process
+ * before using the mailbox, hence a marker left by a crashed master is never trusted.
+ * </p><p>
+ * As the master lock is held per process, only one scenario execution of a JVM can use
+ * a given mailbox at a time. Scenarios run concurrently in the same JVM must use
+ * different groups.
+ * </p>
+ */
+public class SpotFileSynchroTransport implements SpotSynchroTransport {
+
+	/* Constants */
+	private static final String LOCK_FILE_NAME = "master.lock";
+	private static final String READY_FILE_NAME = "master.ready";
+	private static final String MESSAGE_EXTENSION = ".msg";
+	private static final String QUEUE_PREFIX = "queue-";
+	private static final int POLLING_DELAY = 100; // in milliseconds
+	private static final int MASTER_READY_TIMEOUT = 10000; // in milliseconds
+	// Mailboxes opened in the current JVM
+	private static final Set<Path> OPENED_MAILBOXES = ConcurrentHashMap.newKeySet();
+
+	/* Fields */
+	private final Path mailbox;
+	private final String senderId = Long.toString(ProcessHandle.current().pid());
+	private final String runId = getRunId(ProcessHandle.current());
+	private final AtomicLong sequence = new AtomicLong();
+	private FileChannel lockChannel;
+	private FileLock masterLock;
+
+public SpotFileSynchroTransport(final File dir, final String group) {
+	this.mailbox = dir.toPath().resolve(group);
+}
+
+@Override
+public void close() {
+	if (this.lockChannel == null) {
+		return;
+	}
+	if (this.masterLock != null) {
+		try {
+			Files.deleteIfExists(this.mailbox.resolve(READY_FILE_NAME));
+			purgeQueues();
+			this.masterLock.release();
+		}
+		catch (IOException ioe) {
+			debugPrintln("Following exception occurred while cleaning synchronization mailbox:");
+			debugPrintException(ioe);
+		}
+		this.masterLock = null;
+	}
+	if (this.lockChannel != null) {
+		try {
+			this.lockChannel.close();
+		}
+		catch (IOException ioe) {
+			debugPrintException(ioe);
+		}
+		this.lockChannel = null;
+	}
+	OPENED_MAILBOXES.remove(this.mailbox);
+}
+
+private Path getQueueDir(final String queueName) throws IOException {
+	Path queueDir = this.mailbox.resolve(QUEUE_PREFIX + queueName.replaceAll("[^\\w\\.\\-]", "_"));
+	Files.createDirectories(queueDir);
+	return queueDir;
+}
+
+/*
+ * Return the run identifier of the given process.
+ */
+private static String getRunId(final ProcessHandle process) {
+	Optional<Instant> startInstant = process.info().startInstant();
+	return process.pid() + ";" + (startInstant.isPresent() ? startInstant.get().toEpochMilli() : "?");
+}
+
+@Override
+public boolean isMaster() {
+	return this.masterLock != null;
+}
+
+/*
+ * Tells whether the given ready marker was written by a master which is still running.
+ */
+private static boolean isReadyMarkerValid(final Path readyFile) {
+	String marker;
+	try {
+		marker = new String(Files.readAllBytes(readyFile), StandardCharsets.UTF_8).trim();
+	}
+	catch (@SuppressWarnings("unused") IOException ioe) {
+		// Marker does not exist yet or is being replaced
+		return false;
+	}
+	int index = marker.indexOf(';');
+	if (index < 0) {
+		return false;
+	}
+	try {
+		Optional<ProcessHandle> master = ProcessHandle.of(Long.parseLong(marker.substring(0, index)));
+		return master.isPresent() && master.get().isAlive() && marker.equals(getRunId(master.get()));
+	}
+	catch (@SuppressWarnings("unused") NumberFormatException nfe) {
+		return false;
+	}
+}
+
+@Override
+public void open() throws ScenarioSynchronizationError {
+	// Closing another channel on the lock file would release the master lock, hence
+	// check that the mailbox is not already used in the JVM before opening the channel
+	if (!OPENED_MAILBOXES.add(this.mailbox)) {
+		throw new ScenarioSynchronizationError("Synchronization mailbox "+this.mailbox+" is already used by another scenario execution of the same JVM, use a different synchronization group for each of them.");
+	}
+	boolean opened = false;
+	try {
+		Files.createDirectories(this.mailbox);
+		this.lockChannel = FileChannel.open(this.mailbox.resolve(LOCK_FILE_NAME), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		try {
+			this.masterLock = this.lockChannel.tryLock();
+		}
+		catch (@SuppressWarnings("unused") OverlappingFileLockException ofle) {
+			// Lock file is used through another path, do not close the channel to keep that lock
+			this.lockChannel = null;
+			throw new ScenarioSynchronizationError("Synchronization mailbox "+this.mailbox+" is already used by another scenario execution of the same JVM, use a different synchronization group for each of them.");
+		}
+		Path readyFile = this.mailbox.resolve(READY_FILE_NAME);
+		if (this.masterLock == null) {
+			// Wait for the current master to be ready
+			long timeout = System.currentTimeMillis() + MASTER_READY_TIMEOUT;
+			while (!isReadyMarkerValid(readyFile)) {
+				if (System.currentTimeMillis() > timeout) {
+					throw new ScenarioSynchronizationError("Synchronization master did not get ready in mailbox "+this.mailbox+" before "+timeString(MASTER_READY_TIMEOUT)+".");
+				}
+				sleepPolling();
+			}
+		} else {
+			// Purge messages left by a previous execution and signal readiness with current run id
+			Files.deleteIfExists(readyFile);
+			purgeQueues();
+			Path tempFile = this.mailbox.resolve(READY_FILE_NAME + "." + this.senderId);
+			Files.write(tempFile, this.runId.getBytes(StandardCharsets.UTF_8));
+			Files.move(tempFile, readyFile, StandardCopyOption.ATOMIC_MOVE);
+		}
+		debugPrintln("Opened "+this);
+		opened = true;
+	}
+	catch (IOException ioe) {
+		throw new ScenarioSynchronizationError(ioe);
+	}
+	finally {
+		if (!opened) {
+			close();
+			OPENED_MAILBOXES.remove(this.mailbox);
+		}
+	}
+}
+
+private void purgeQueues() throws IOException {
+	try (DirectoryStream<Path> queues = Files.newDirectoryStream(this.mailbox, QUEUE_PREFIX + "*")) {
+		for (Path queueDir: queues) {
+			try (DirectoryStream<Path> messages = Files.newDirectoryStream(queueDir)) {
+				for (Path message: messages) {
+					Files.deleteIfExists(message);
+				}
+			}
+			Files.deleteIfExists(queueDir);
+		}
+	}
+}
+
+@Override
+public String receive(final String queueName, final long timeout) throws ScenarioSynchronizationError {
+	long end = System.currentTimeMillis() + timeout;
+	try {
+		Path queueDir = getQueueDir(queueName);
+		while (true) {
+			// Get messages in their sending order
+			List<Path> messages = new ArrayList<>();
+			try (DirectoryStream<Path> stream = Files.newDirectoryStream(queueDir, "*" + MESSAGE_EXTENSION)) {
+				for (Path message: stream) {
+					messages.add(message);
+				}
+			}
+			Collections.sort(messages);
+
+			// Claim the first available message
+			for (Path message: messages) {
+				Path claimed = this.mailbox.resolve(message.getFileName() + "." + this.senderId);
+				try {
+					Files.move(message, claimed, StandardCopyOption.ATOMIC_MOVE);
+				}
+				catch (@SuppressWarnings("unused") NoSuchFileException nsfe) {
+					// Message already consumed by another receiver
+					continue;
+				}
+				String text = new String(Files.readAllBytes(claimed), StandardCharsets.UTF_8);
+				Files.delete(claimed);
+				return text;
+			}
+
+			// Return if timeout has expired
+			if (System.currentTimeMillis() >= end) {
+				return null;
+			}
+			sleepPolling();
+		}
+	}
+	catch (IOException ioe) {
+		throw new ScenarioSynchronizationError(ioe);
+	}
+}
+
+@Override
+public void send(final String queueName, final String text) throws ScenarioSynchronizationError {
+	try {
+		Path queueDir = getQueueDir(queueName);
+		String messageName = String.format("%016d-%s-%06d", System.currentTimeMillis(), this.senderId, this.sequence.incrementAndGet());
+		Path tempFile = this.mailbox.resolve(messageName + ".tmp");
+		Files.write(tempFile, text.getBytes(StandardCharsets.UTF_8));
+		Files.move(tempFile, queueDir.resolve(messageName + MESSAGE_EXTENSION), StandardCopyOption.ATOMIC_MOVE);
+	}
+	catch (IOException ioe) {
+		throw new ScenarioSynchronizationError(ioe);
+	}
+}
+
+private static void sleepPolling() {
+	try {
+		Thread.sleep(POLLING_DELAY);
+	}
+	catch (@SuppressWarnings("unused") InterruptedException ie) {
+		Thread.currentThread().interrupt();
+	}
+}
+
+@Override
+public String toString() {
+	return "File transport (mailbox="+this.mailbox+", master="+isMaster()+")";
+}
+}
@@ -0,0 +1,89 @@
+/*********************************************************************
+* Copyright (c) 2012, 2024 IBM Corporation and others.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+**********************************************************************/
+package com.ibm.bear.qa.spot.core.synchro;
+
+import com.ibm.bear.qa.spot.core.scenario.errors.ScenarioSynchronizationError;
+
+/**
+ * Interface defining API of transport used to synchronize scenarios running on the same host.
+ * <p>
+ * A transport manages named queues in which text messages can be sent and received. Queues are
+ * created on demand when a message is sent or received for the first time. Among all scenarios
+ * sharing a transport, one is the master which owns the underlying mechanism and is responsible
+ * to wait for other scenarios shutdown before leaving.
+ * </p><p>
+ * Following transports are available, selected using the <code>spot.synchro.transport</code>
+ * property:
+ * <ul>
+ * <li><code>file</code> (default): lightweight mailbox in a directory shared by scenarios running
+ * on the same host only, see {@link SpotFileSynchroTransport}</li>
+ * <li><code>activemq</code>: embedded ActiveMQ broker, see {@link SpotActiveMQSynchroTransport}</li>
+ * </ul>
+ * </p><p>
+ * This class defines following internal API methods:
+ * <ul>
+ * <li>{@link #close()}: Close the transport.</li>
+ * <li>{@link #isMaster()}: Tells whether the current scenario is the synchronization master.</li>
+ * <li>{@link #open()}: Open the transport.</li>
+ * <li>{@link #receive(String,long)}: Receive a message from the given queue.</li>
+ * <li>{@link #send(String,String)}: Send a message to the given queue.</li>
+ * </ul>
+ * </p>
+ */
+public interface SpotSynchroTransport {
+
+/**
+ * Close the transport.
+ * <p>
+ * When the current scenario is the master, this also releases all resources
+ * shared with other scenarios (e.g. stop the broker or purge the mailbox).
+ * </p>
+ */
+void close();
+
+/**
+ * Tells whether the current scenario is the synchronization master.
+ *
+ * @return <code>true</code> if the current scenario owns the transport
+ * shared resources, <code>false</code> otherwise
+ */
+boolean isMaster();
+
+/**
+ * Open the transport.
+ *
+ * @throws ScenarioSynchronizationError If the transport cannot be opened
+ */
+void open() throws ScenarioSynchronizationError;
+
+/**
+ * Receive a message from the given queue.
+ *
+ * @param queueName The queue name
+ * @param timeout The time to wait for a message in milliseconds. If <code>0</code>
+ * then the method returns immediately.
+ * @return The message text or <code>null</code> if no message arrived before
+ * the timeout expires
+ * @throws ScenarioSynchronizationError If the message cannot be received
+ */
+String receive(String queueName, long timeout) throws ScenarioSynchronizationError;
+
+/**
+ * Send a message to the given queue.
+ *
+ * @param queueName The queue name
+ * @param text The message text
+ * @throws ScenarioSynchronizationError If the message cannot be sent
+ */
+void send(String queueName, String text) throws ScenarioSynchronizationError;
+}
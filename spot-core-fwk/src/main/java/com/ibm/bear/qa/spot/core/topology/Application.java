@@ -85,7 +85,7 @@ abstract public class Application {
 	String contextRoot;
 
 	// The user connected to the application
-	final protected List<User> users = new ArrayList<>();
+	final protected List<User> users = Collections.synchronizedList(new ArrayList<>());
 	private String name;
 
 	// Class to perform login operation
@@ -421,7 +421,7 @@ public boolean isUserConnected(final User user) {
  * @return <code>true</code> if the user was changed on the current application,
  * <code>false</code> otherwise.
  */
-public boolean login(final User user) {
+public synchronized boolean login(final User user) {
 	debugPrintEnteringMethod("user", user);
 	if (user == null) {
 		throw new SpotImplementationError("Unexpected attempt to login in application with a null user.");
@@ -440,7 +440,7 @@ public boolean login(final User user) {
  * @return <code>true</code> if at least one user was logged out
  * or <code>false</code> if no user was connected.
  */
-public boolean logout() {
+public synchronized boolean logout() {
 	debugPrintEnteringMethod();
 	if (this.users.isEmpty()) {
 		debugPrintln("		  -> no user was connected, hence do nothing...");
@@ -458,7 +458,7 @@ public boolean logout() {
  * @return <code>true</code> if the user was logged out from the current
  * application, <code>false</code> otherwise.
  */
-public boolean logout(final User user) {
+public synchronized boolean logout(final User user) {
 	debugPrintEnteringMethod("user", user);
 	if (user == null) {
 		debugPrintln("		  -> no user was connected, hence do nothing...");
@@ -492,7 +492,7 @@ boolean matchApplicationLoginOperationForUser(final Application app, final User
  * @return <code>true</code> if the user implied a login operation if it would
  * connect to the application, <code>false</code> otherwise
  */
-public boolean needLogin(final User user) {
+public synchronized boolean needLogin(final User user) {
 	debugPrintEnteringMethod("user", user);
 	if (user == null) {
 		debugPrintln("		  -> no user to connect to, hence do nothing...");
@@ -0,0 +1,177 @@
+/*********************************************************************
+* Copyright (c) 2012, 2024 IBM Corporation and others.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+**********************************************************************/
+package com.ibm.bear.qa.spot.core.topology;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.*;
+
+/**
+ * Class to manage the URL routing index of topology applications.
+ * <p>
+ * Applications are indexed in a trie whose first level is the application host
+ * URL (i.e. <i>&lt;protocol&gt;</i>://<i>&lt;hostname&gt;</i>:<i>&lt;port&gt;</i>)
+ * and next levels are the segments of the application path (typically the context
+ * root). Finding the application for a given URL is then done by walking the URL
+ * path segments in the trie, which gives the longest matching application in a time
+ * proportional to the URL path length instead of the number of applications.
+ * </p><p>
+ * The trie candidate is always confirmed with {@link Application#isApplicationFor(String)}
+ * and when no indexed application matches, all applications are checked as before
+ * (e.g. for URLs having the application location in a <code>redirect_uri</code>
+ * query parameter). Results of recent lookups are kept in a small cache as the
+ * same URLs are usually looked up several times in a row (page creation, login,
+ * logout...).
+ * </p><p>
+ * This class defines following internal API methods:
+ * <ul>
+ * <li>{@link #add(Application)}: Add the given application to the index.</li>
+ * <li>{@link #getApplication(String,List)}: Return the application matching the given URL.</li>
+ * </ul>
+ * </p>
+ */
+class ApplicationsIndex {
+
+	/**
+	 * Trie node, storing applications which path ends at this node.
+	 */
+	private static class Node {
+		final Map<String, Node> children = new HashMap<>();
+		final List<Application> applications = new ArrayList<>(1);
+	}
+
+	/* Constants */
+	private static final int CACHE_SIZE = 32;
+
+	/* Fields */
+	private final Map<String, Node> hosts = new HashMap<>();
+	private final Map<String, Application> cache = new LinkedHashMap<String, Application>(CACHE_SIZE, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<String, Application> eldest) {
+			return size() > CACHE_SIZE;
+		}
+	};
+	private int size = 0;
+
+/**
+ * Add the given application to the index.
+ *
+ * @param application The application to add
+ */
+synchronized void add(final Application application) {
+	Node node = this.hosts.computeIfAbsent(getHostKey(application.url), key -> new Node());
+	for (String segment: getSegments(application.url)) {
+		node = node.children.computeIfAbsent(segment, key -> new Node());
+	}
+	node.applications.add(application);
+	this.size++;
+	this.cache.clear();
+}
+
+/**
+ * Return the application matching the given URL.
+ * <p>
+ * If several applications match the URL, the one with the longest location is
+ * returned.
+ * </p><p>
+ * The index is rebuilt first if the given applications list has been modified
+ * without going through {@link Topology#addApplication(Application)}.
+ * </p>
+ * @param pageUrl The URL address
+ * @param applications The topology applications
+ * @return The matching application or <code>null</code> if none was found
+ */
+synchronized Application getApplication(final String pageUrl, final List<Application> applications) {
+	if (this.size != applications.size()) {
+		this.hosts.clear();
+		this.size = 0;
+		for (Application application: applications) {
+			add(application);
+		}
+	}
+	Application application = this.cache.get(pageUrl);
+	if (application == null) {
+		application = findApplication(pageUrl);
+		if (application == null) {
+			for (Application appli: applications) {
+				if (appli.isApplicationFor(pageUrl)) {
+					application = appli;
+					break;
+				}
+			}
+		}
+		if (application != null) {
+			this.cache.put(pageUrl, application);
+		}
+	}
+	return application;
+}
+
+/*
+ * Walk the trie along the given URL path and return the deepest indexed
+ * application confirming the match.
+ */
+private Application findApplication(final String pageUrl) {
+	URL url;
+	try {
+		url = new URL(pageUrl);
+	}
+	catch (@SuppressWarnings("unused") MalformedURLException ex) {
+		return null;
+	}
+	Node node = this.hosts.get(getHostKey(url));
+	if (node == null) {
+		return null;
+	}
+	Deque<Node> candidates = new ArrayDeque<>();
+	candidates.push(node);
+	for (String segment: getSegments(url)) {
+		node = node.children.get(segment);
+		if (node == null) break;
+		candidates.push(node);
+	}
+	for (Node candidate: candidates) {
+		for (Application application: candidate.applications) {
+			if (application.isApplicationFor(pageUrl)) {
+				return application;
+			}
+		}
+	}
+	return null;
+}
+
+/*
+ * Return the host key of the given URL, formatted the same way than the
+ * application short location.
+ */
+private static String getHostKey(final URL url) {
+	try {
+		return new URL(url.getProtocol(), url.getHost(), url.getPort(), "").toExternalForm();
+	}
+	catch (@SuppressWarnings("unused") MalformedURLException ex) {
+		return url.getProtocol() + "://" + url.getHost();
+	}
+}
+
+/*
+ * Return the non-empty path segments of the given URL.
+ */
+private static List<String> getSegments(final URL url) {
+	List<String> segments = new ArrayList<>();
+	StringTokenizer pathTokenizer = new StringTokenizer(url.getPath(), "/");
+	while (pathTokenizer.hasMoreTokens()) {
+		segments.add(pathTokenizer.nextToken());
+	}
+	return segments;
+}
+}
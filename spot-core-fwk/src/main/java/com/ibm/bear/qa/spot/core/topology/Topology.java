@@ -37,6 +37,9 @@ abstract public class Topology {
 	protected List <Application> applications = new ArrayList<Application>();
 	protected Map<String, List<Application>> servers = new HashMap<String, List<Application>>();
 
+	// URL routing index of applications
+	private final ApplicationsIndex index = new ApplicationsIndex();
+
 /**
  * Initialize the topology from a given CLM version.
  */
@@ -62,6 +65,7 @@ public void addApplication(final Application application) {
 		}
 	}
 	this.applications.add(application);
+	this.index.add(application);
 	updateServer(application);
 }
 
@@ -82,51 +86,23 @@ public Application addApplication(final String pageClassName, final String url)
 
 /**
  * Return the application matching the given url address.
- *
+ * <p>
+ * Applications are looked up through an URL routing index, hence when several
+ * applications match the given address, the one with the longest location is
+ * returned.
+ * </p>
  * @param url The address
  * @return The {@link Application} corresponding to the given address.
  * @throws ScenarioFailedError If not application is found for the given
  * address.
  */
 public Application getApplication(final String url) {
-	for (Application application: this.applications) {
-		if (application.isApplicationFor(url)) {
-			if (DEBUG) debugPrintln("		  -> found application '"+application+"' for URL: "+hidePasswordInLocation(url));
-			return application;
-		}
+	Application application = this.index.getApplication(url, this.applications);
+	if (application != null) {
+		if (DEBUG) debugPrintln("		  -> found application '"+application+"' for URL: "+hidePasswordInLocation(url));
 	}
-	return null;
+	return application;
 }
-// TODO Possible other implementation which would be smarter to detect the better
-// application if several would return true for isApplication(url)...
-//
-//public Application getApplication(final String url) {
-//	Application matchingApplication = null;
-//	double length = url.length();
-//	double previousRatio = 0.0;
-//	for (Application application: this.applications) {
-//		if (application.isApplicationFor(url)) {
-//			double ratio = application.location.length() / length;
-//			if (ratio == 1) {
-//				if (DEBUG) debugPrintln("		  -> return application '"+application+"'");
-//				return application;
-//			}
-//			if (matchingApplication == null) {
-//				matchingApplication = application;
-//				if (DEBUG) debugPrintln("		  -> found matching application '"+application+"' for URL: "+url);
-//			} else {
-//				if (ratio > previousRatio) {
-//					matchingApplication = application;
-//				}
-//			}
-//		}
-//	}
-//	if (matchingApplication != null) {
-//		if (DEBUG) debugPrintln("		  -> return application '"+matchingApplication+"'");
-//		return matchingApplication;
-//	}
-//	return null;
-//}
 
 /**
  * Return the list of application titles
@@ -189,7 +165,7 @@ public abstract boolean isDistributed();
  * @return <code>true</code> if the user was changed on the application from
  * which the location belongs to, <code>false</code> otherwise.
  */
-public boolean login(final String location, final User user) {
+public synchronized boolean login(final String location, final User user) {
 	if (DEBUG) debugPrintln("		+ Login user "+user.getId()+" for all applications");
 
 	// Get the application matching the given location
@@ -231,7 +207,7 @@ public boolean login(final String location, final User user) {
  *
  * @param location The location concerned by the logout
  */
-public boolean logout(final String location) {
+public synchronized boolean logout(final String location) {
 	if (DEBUG) debugPrintln("		+ Logout applications from "+location);
 
 	// Get all application on the same server than the application
@@ -260,6 +236,17 @@ public void logoutApplications() {
 	}
 }
 
+/**
+ * Logs out the given user from all applications, other users stay logged in.
+ *
+ * @param user The user to logout
+ */
+public synchronized void logoutApplications(final User user) {
+	for (Application app : this.applications) {
+		app.logout(user);
+	}
+}
+
 /**
  * Returns whether the given user needs to login before accessing the given
  * location.
@@ -270,7 +257,7 @@ public void logoutApplications() {
  * matching the location and neither to no any other application of the same server,
  * <code>false</code> otherwise.
  */
-public boolean needLogin(final String location, final User user) {
+public synchronized boolean needLogin(final String location, final User user) {
 	String hiddenPasswordLocation = hidePasswordInLocation(location);
 	debugPrintEnteringMethod("location", hiddenPasswordLocation, "user", user);
 	if (user == null) {
@@ -17,6 +17,8 @@ import static com.ibm.bear.qa.spot.core.scenario.ScenarioUtils.*;
 import java.io.*;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
 
 import com.ibm.bear.qa.spot.core.scenario.errors.ScenarioFailedError;
@@ -176,30 +178,58 @@ public static void deleteFile(final File file) throws IOException {
 
 /**
  * Find files with the given name in the given directory hiearchy using given filter.
- *
+ * <p>
+ * The hierarchy is walked using NIO file tree visitor. Directories rejected by
+ * the given filter are neither matched nor visited. Symbolic links are followed
+ * and directories which cannot be read are silently skipped.
+ * </p>
  * @param name The file name to be found
  * @param dir The directory in which the search will occur
+ * @param filter The filter to apply on the hierarchy files, might be <code>null</code>
  * @return The list of found files which might be empty if none
  * was found in the given directory entire hierarchy
  */
 public static List<File> findFile(final String name, final File dir, final FileFilter filter) {
-	List<File> foundFiles = new ArrayList<>();
-	findFile(name, dir, filter, foundFiles);
-	return foundFiles;
-}
-
-private static void findFile(final String name, final File dir, final FileFilter filter, final List<File> foundFiles) {
-	File[] files = filter == null ? dir.listFiles() : dir.listFiles(filter);
-	if (files != null) {
-		for (File file : files) {
-			if (name.equals(file.getName())) {
-				foundFiles.add(file);
+	final List<File> foundFiles = new ArrayList<>();
+	if (!dir.isDirectory()) {
+		return foundFiles;
+	}
+	final Path rootPath = dir.toPath();
+	try {
+		Files.walkFileTree(rootPath, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+			private boolean accept(final Path path) {
+				File file = path.toFile();
+				if (filter != null && !filter.accept(file)) {
+					return false;
+				}
+				if (name.equals(file.getName())) {
+					foundFiles.add(file);
+				}
+				return true;
 			}
-			if (file.isDirectory()) {
-				findFile(name, file, filter, foundFiles);
+			@Override
+			public FileVisitResult preVisitDirectory(final Path path, final BasicFileAttributes attributes) {
+				if (path.equals(rootPath) || accept(path)) {
+					return FileVisitResult.CONTINUE;
+				}
+				return FileVisitResult.SKIP_SUBTREE;
 			}
-		}
+			@Override
+			public FileVisitResult visitFile(final Path path, final BasicFileAttributes attributes) {
+				accept(path);
+				return FileVisitResult.CONTINUE;
+			}
+			@Override
+			public FileVisitResult visitFileFailed(final Path path, final IOException exception) {
+				debugPrintln("		  -> cannot visit "+path+" ("+exception.getMessage()+")");
+				return FileVisitResult.CONTINUE;
+			}
+		});
 	}
+	catch (IOException ioe) {
+		throw new ScenarioFailedError(ioe);
+	}
+	return foundFiles;
 }
 
 /**
@@ -13,20 +13,69 @@
 package com.ibm.bear.qa.spot.core.utils;
 
 import static com.ibm.bear.qa.spot.core.scenario.ScenarioUtils.debugPrint;
+import static com.ibm.bear.qa.spot.core.scenario.ScenarioUtils.getParameterIntValue;
 
-import java.io.*;
+import java.io.IOException;
 import java.net.HttpURLConnection;
-import java.net.URL;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.*;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.security.KeyManagementException;
 import java.security.NoSuchAlgorithmException;
 import java.security.cert.X509Certificate;
+import java.time.Duration;
 import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
 
 import javax.net.ssl.*;
 
-
+/**
+ * Utilities to send REST requests.
+ * <p>
+ * All requests are sent using a shared {@link HttpClient} which keeps its connections
+ * alive and reuses them between requests, hence the TLS handshake is done only once
+ * per server. Each blocking method has an asynchronous variant returning
+ * a {@link CompletableFuture} which allows to send several requests concurrently.
+ * Files are uploaded and downloaded by streaming their content.
+ * </p><p>
+ * Timeouts can be changed using following parameters (in seconds):
+ * <ul>
+ * <li><code>"rest.connect.timeout"</code>: the time to establish a connection, default is 120 seconds</li>
+ * <li><code>"rest.request.timeout"</code>: the time to get the response of a request, default is 120 seconds</li>
+ * </ul>
+ * </p><p>
+ * Note that server certificates and host names are not verified.
+ * </p>
+ */
 public class RestUtil {
 
+	/* Constants */
+	private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(getParameterIntValue("rest.connect.timeout", 120));
+	private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(getParameterIntValue("rest.request.timeout", 120));
+	// Delay before the first retry of a failed request, doubled at each retry
+	private static final int RETRY_DELAY = 500; // in milliseconds
+	private static final int HTTP_TOO_MANY_REQUESTS = 429;
+
+	/* Fields */
+	// Shared client reusing its connections between requests
+	private static HttpClient httpClient;
+
+	/**
+	 * Return the basic authorization header value for the given credentials.
+	 *
+	 * @param login The user login
+	 * @param password The user password
+	 * @return The header value
+	 */
+	public static String basicAuthorization(final String login, final String password) {
+		String userpass = login + ":" + password;
+		return "Basic " + new String(Base64.getEncoder().encode(userpass.getBytes()));
+	}
+
 	/**
 	 * Execute HTTP DELETE
 	 * @param url
@@ -36,17 +85,20 @@ public class RestUtil {
 	 * @throws Exception
 	 */
 	public static String doDelete(final String url, final String login, final String password) throws Exception {
-		HttpURLConnection connection = getConnection(url, login, password, null);
-		connection.setRequestMethod("DELETE");
-		connection.setRequestProperty("Accept", "*/*");
-		int responseCode = connection.getResponseCode();
-		String result = readResponse(connection);
-		if (responseCode != HttpURLConnection.HTTP_OK) {
-			connection.disconnect();
-			throw new Exception("Get returned response code " + responseCode + " with message " + result);
-		}
-		connection.disconnect();
-		return result;
+		return join(doDeleteAsync(url, login, password));
+	}
+
+	/**
+	 * Execute HTTP DELETE asynchronously.
+	 *
+	 * @param url The request URL
+	 * @param login The user login
+	 * @param password The user password
+	 * @return The future response, completed exceptionally if the response code is not OK
+	 */
+	public static CompletableFuture<String> doDeleteAsync(final String url, final String login, final String password) {
+		HttpRequest request = newRequest(url, login, password, null).DELETE().build();
+		return sendAsync(request, "Delete", HttpURLConnection.HTTP_OK);
 	}
 
 	/**
@@ -58,19 +110,21 @@ public class RestUtil {
 	 * @throws Exception
 	 */
 	public static String doGet(final String url, final String login, final String password) throws Exception {
-		HttpURLConnection connection = getConnection(url, login, password, null);
-		connection.setRequestMethod("GET");
-		connection.setRequestProperty("accept", "*/*");
-		int responseCode = connection.getResponseCode();
-		String result = readResponse(connection);
-		if (responseCode == HttpURLConnection.HTTP_OK) {
-			connection.disconnect();
-			return result;
-		}
-		connection.disconnect();
-		throw new Exception("Get returned response code " + responseCode + " with message " + result);
+		return join(doGetAsync(url, login, password));
 	}
 
+	/**
+	 * Execute HTTP GET asynchronously.
+	 *
+	 * @param url The request URL
+	 * @param login The user login
+	 * @param password The user password
+	 * @return The future response, completed exceptionally if the response code is not OK
+	 */
+	public static CompletableFuture<String> doGetAsync(final String url, final String login, final String password) {
+		HttpRequest request = newRequest(url, login, password, null).GET().build();
+		return sendAsync(request, "Get", HttpURLConnection.HTTP_OK);
+	}
 
 	/**
 	 * Execute HTTP GET and store result to file
@@ -81,25 +135,30 @@ public class RestUtil {
 	 * @throws Exception
 	 */
 	public static void doGetToFile(final String url, final String login, final String password, final String outputPath) throws Exception {
-		HttpURLConnection connection = getConnection(url, login, password, null);
-		connection.setRequestMethod("GET");
-		connection.setRequestProperty("Accept", "*/*");
-		int responseCode = connection.getResponseCode();
+		join(doGetToFileAsync(url, login, password, outputPath));
+	}
 
-		if (responseCode == HttpURLConnection.HTTP_OK) {
-			try (InputStream inputStream = connection.getInputStream();
-				FileOutputStream outputStream = new FileOutputStream(outputPath)) {
-				int bytesRead = -1;
-				byte[] buffer = new byte[4096];
-				while ((bytesRead = inputStream.read(buffer)) != -1) {
-					outputStream.write(buffer, 0, bytesRead);
+	/**
+	 * Execute HTTP GET asynchronously and stream the result to the given file.
+	 *
+	 * @param url The request URL
+	 * @param login The user login
+	 * @param password The user password
+	 * @param outputPath The path of the file to write
+	 * @return The future written file, completed exceptionally if the response code is not OK
+	 */
+	public static CompletableFuture<Path> doGetToFileAsync(final String url, final String login, final String password, final String outputPath) {
+		HttpRequest request = newRequest(url, login, password, null).GET().build();
+		final Path path = Paths.get(outputPath);
+		return getHttpClient().sendAsync(request, info -> info.statusCode() == HttpURLConnection.HTTP_OK
+				? HttpResponse.BodySubscribers.ofFile(path)
+				: HttpResponse.BodySubscribers.replacing(path))
+			.thenApply(response -> {
+				if (response.statusCode() != HttpURLConnection.HTTP_OK) {
+					throw new CompletionException(new Exception("GET returned response code " + response.statusCode()));
 				}
-			}
-			connection.disconnect();
-		} else {
-			connection.disconnect();
-			throw new Exception("GET returned response code " + responseCode);
-		}
+				return response.body();
+			});
 	}
 
 	/**
@@ -113,28 +172,28 @@ public class RestUtil {
 	 * @throws Exception
 	 */
 	public static String doPost(final String url, final String login, final String password, final String apiKeyHeader, final String payload, final String contentType) throws Exception {
-		HttpURLConnection connection = getConnection(url, login, password, apiKeyHeader);
-		connection.setRequestMethod("POST");
-		connection.setRequestProperty("Content-Type", contentType);
-		connection.setRequestProperty("Accept", "*/*");
-		connection.setDoOutput(true);
-		connection.setDoInput(true);
-		connection.setReadTimeout(2*60000);
-		connection.setConnectTimeout(2*60000);
-
-		OutputStreamWriter wr = new OutputStreamWriter(connection.getOutputStream());
-		wr.write(payload);
-		wr.flush();
-
-		int responseCode = connection.getResponseCode();
-		String result = readResponse(connection);
+		String result = join(doPostAsync(url, login, password, apiKeyHeader, payload, contentType));
 		debugPrint("Execution result " + result);
-		if (responseCode == HttpURLConnection.HTTP_OK || responseCode == HttpURLConnection.HTTP_CREATED) {
-			connection.disconnect();
-			return result;
-		}
-		connection.disconnect();
-		throw new Exception("POST returned response code " + responseCode + " with message " + result);
+		return result;
+	}
+
+	/**
+	 * Execute HTTP POST asynchronously.
+	 *
+	 * @param url The request URL
+	 * @param login The user login
+	 * @param password The user password
+	 * @param apiKeyHeader The API key to use instead of user credentials for HTTPS requests, might be <code>null</code>
+	 * @param payload The request body
+	 * @param contentType The request body content type
+	 * @return The future response, completed exceptionally if the response code is neither OK nor CREATED
+	 */
+	public static CompletableFuture<String> doPostAsync(final String url, final String login, final String password, final String apiKeyHeader, final String payload, final String contentType) {
+		HttpRequest request = newRequest(url, login, password, apiKeyHeader)
+			.header("Content-Type", contentType)
+			.POST(HttpRequest.BodyPublishers.ofString(payload))
+			.build();
+		return sendAsync(request, "POST", HttpURLConnection.HTTP_OK, HttpURLConnection.HTTP_CREATED);
 	}
 
 	/**
@@ -147,102 +206,63 @@ public class RestUtil {
 	 * @throws Exception
 	 */
 	public static String doPostFile(final String url, final String login, final String password, final String filePath) throws Exception {
-		HttpURLConnection connection = getConnection(url, login, password, null);
-		connection.setRequestMethod("POST");
-		connection.setRequestProperty("Accept", "*/*");
-		connection.setRequestProperty("Content-Type", "application/octet-stream");
-		connection.setDoOutput(true);
-		connection.setDoInput(true);
-		connection.setReadTimeout(2*60000);
-		connection.setConnectTimeout(2*60000);
-
-		try (FileInputStream fileInputStream = new FileInputStream(new File(filePath));
-			DataOutputStream dos = new DataOutputStream(connection.getOutputStream())) {
-			int bufferSize = 4096;
-			byte[] buffer = new byte[bufferSize];
-			int bytesRead = fileInputStream.read(buffer, 0, bufferSize);
-			while (bytesRead > 0) {
-				dos.write(buffer, 0, bufferSize);
-				bytesRead = fileInputStream.read(buffer, 0, bufferSize);
-			}
-		}
-
-		int responseCode = connection.getResponseCode();
-		String result = readResponse(connection);
-		if (responseCode == HttpURLConnection.HTTP_OK || responseCode == HttpURLConnection.HTTP_CREATED) {
-			connection.disconnect();
-			return result;
-		}
-		connection.disconnect();
-		throw new Exception("POST returned response code " + responseCode + " with message " + result);
+		return join(doPostFileAsync(url, login, password, filePath));
 	}
 
-	private static HttpURLConnection getConnection(final String url, final String login, final String password, final String apiKeyHeader) throws IOException {
-		HttpURLConnection connection = null;
-		SSLSocketFactory sf = null;
-		String authorization = null;
-		if (url.startsWith("http://")) {
-			String userpass = login + ":" + password;
-			authorization = "Basic " + new String(Base64.getEncoder().encode(userpass.getBytes()));
-			connection = (HttpURLConnection) new URL(url).openConnection();
-		} else {
-			// Override hostname verification for vhost
-			HttpsURLConnection.setDefaultHostnameVerifier(
-					new javax.net.ssl.HostnameVerifier(){
-						@Override
-						public boolean verify(final String hostname,
-								final javax.net.ssl.SSLSession sslSession) {
-							debugPrint("HostnameVerifier hostname: " + hostname);
-							/* Always allow SSL as we can have SSL certificate for any https protocol (e.g. ODM on ICP)
-							if (hostname.contains(SSL_HOSTNAME_STRING_TO_IGNORE)) {
-								return true;
-							}
-							return false;
-							*/
-							return true;
-						}
-					});
-			// Set credentials
-			if (apiKeyHeader == null) {
-				String userpass = login + ":" + password;
-				authorization = "Basic " + new String(Base64.getEncoder().encode(userpass.getBytes()));
-			} else {
-				authorization = "ZenApiKey " + apiKeyHeader;
-			}
-			connection = (HttpsURLConnection) new URL(url).openConnection();
-
-			sf = getSSLSocketFactory();
-			if (sf != null) {
-				debugPrint("Setting SSL Socket Factory on connection");
-				((HttpsURLConnection) connection).setSSLSocketFactory(sf);
-				// Now you can access an https URL without having the certificate in the truststore
-			} else {
-				debugPrint("No  SSL Socket Factory needed for connection");
-			}
+	/**
+	 * Execute HTTP POST of a file asynchronously, streaming its content.
+	 *
+	 * @param url The request URL
+	 * @param login The user login
+	 * @param password The user password
+	 * @param filePath The path of the file to send
+	 * @return The future response, completed exceptionally if the file cannot be
+	 * read or if the response code is neither OK nor CREATED
+	 */
+	public static CompletableFuture<String> doPostFileAsync(final String url, final String login, final String password, final String filePath) {
+		HttpRequest request;
+		try {
+			request = newRequest(url, login, password, null)
+				.header("Content-Type", "application/octet-stream")
+				.POST(HttpRequest.BodyPublishers.ofFile(Paths.get(filePath)))
+				.build();
 		}
-		connection.setRequestProperty("Authorization", authorization);
-
-		return connection;
+		catch (IOException ioe) {
+			return CompletableFuture.failedFuture(ioe);
+		}
+		return sendAsync(request, "POST", HttpURLConnection.HTTP_OK, HttpURLConnection.HTTP_CREATED);
 	}
 
-
-	private static String readResponse(final HttpURLConnection connection) throws UnsupportedEncodingException, IOException {
-		StringBuilder sb = new StringBuilder();
-		int responseCode = connection.getResponseCode();
-		try (InputStream is = (responseCode >= HttpURLConnection.HTTP_OK && responseCode < HttpURLConnection.HTTP_MULT_CHOICE) ? connection.getInputStream() : connection.getErrorStream();
-			BufferedReader br = new BufferedReader(new InputStreamReader(is,"utf-8"))) {
-			String line = null;
-			while ((line = br.readLine()) != null) {
-				sb.append(line + "\n");
+	/**
+	 * Return the shared HTTP client.
+	 * <p>
+	 * The client keeps its connections alive and reuses them between requests,
+	 * it can also send several requests concurrently. As for other methods of this
+	 * class, server certificates and host names are not verified.
+	 * </p>
+	 * @return The client
+	 */
+	public static synchronized HttpClient getHttpClient() {
+		if (httpClient == null) {
+			HttpClient.Builder builder = HttpClient.newBuilder()
+				.followRedirects(HttpClient.Redirect.NORMAL)
+				.connectTimeout(CONNECT_TIMEOUT);
+			SSLContext sslContext = getSSLContext();
+			if (sslContext != null) {
+				builder.sslContext(sslContext);
 			}
+			httpClient = builder.build();
 		}
-		return sb.toString();
+		return httpClient;
 	}
 
-	private static SSLSocketFactory getSSLSocketFactory(){
-		// Create a trust manager that does not validate certificate chains
+	private static SSLContext getSSLContext() {
+		// Create a trust manager that does not validate certificate chains.
+		// As it's an extended trust manager, the SSL engine does not wrap it with
+		// a host name verification, hence host names are not verified either, but
+		// only for connections using this context
 		TrustManager[] trustAllCerts = new TrustManager[] {
-		    new X509TrustManager() {
+		    new X509ExtendedTrustManager() {
 		        @Override
 				public java.security.cert.X509Certificate[] getAcceptedIssuers() {
 		            return new X509Certificate[0];
@@ -251,25 +271,174 @@ public class RestUtil {
 				public void checkClientTrusted(
 		            final java.security.cert.X509Certificate[] certs, final String authType) {
 		            }
+		        @Override
+				public void checkClientTrusted(
+		            final java.security.cert.X509Certificate[] certs, final String authType, final Socket socket) {
+		        }
+		        @Override
+				public void checkClientTrusted(
+		            final java.security.cert.X509Certificate[] certs, final String authType, final SSLEngine engine) {
+		        }
 		        @Override
 				public void checkServerTrusted(
 		            final java.security.cert.X509Certificate[] certs, final String authType) {
 		        }
+		        @Override
+				public void checkServerTrusted(
+		            final java.security.cert.X509Certificate[] certs, final String authType, final Socket socket) {
+		        }
+		        @Override
+				public void checkServerTrusted(
+		            final java.security.cert.X509Certificate[] certs, final String authType, final SSLEngine engine) {
+		        }
 		    }
 		};
 
 		try {
-			//SSLContext sslContext =SSLContext.getDefault();
-			//return sslContext.getSocketFactory();
-
 			// Install the all-trusting trust manager
 			SSLContext sc = SSLContext.getInstance("TLSv1.2");
 			sc.init(null, trustAllCerts, new java.security.SecureRandom());
-			return sc.getSocketFactory();
+			return sc;
 		} catch (NoSuchAlgorithmException | KeyManagementException e) {
 			e.printStackTrace();
 		}
 		return null;
 	}
 
+	/*
+	 * Wait for the given future and rethrow the cause of its failure if any.
+	 */
+	private static <T> T join(final CompletableFuture<T> future) throws Exception {
+		try {
+			return future.join();
+		}
+		catch (CompletionException ce) {
+			Throwable cause = ce.getCause();
+			if (cause instanceof Exception) {
+				throw (Exception) cause;
+			}
+			throw ce;
+		}
+	}
+
+	/*
+	 * Create a request builder for the given URL with the authorization header.
+	 * Basic authorization is used for HTTP requests and for HTTPS requests without API key.
+	 */
+	private static HttpRequest.Builder newRequest(final String url, final String login, final String password, final String apiKeyHeader) {
+		String authorization;
+		if (url.startsWith("http://") || apiKeyHeader == null) {
+			authorization = basicAuthorization(login, password);
+		} else {
+			authorization = "ZenApiKey " + apiKeyHeader;
+		}
+		return HttpRequest.newBuilder(URI.create(url))
+			.timeout(REQUEST_TIMEOUT)
+			.header("Accept", "*/*")
+			.header("Authorization", authorization);
+	}
+
+	/*
+	 * Return the response body with the line delimiters used by previous implementation
+	 * (i.e. each line ended with a new line character).
+	 */
+	private static String normalizeBody(final String body) {
+		if (body == null || body.isEmpty()) {
+			return "";
+		}
+		return body.lines().collect(Collectors.joining("\n", "", "\n"));
+	}
+
+	/*
+	 * Return whether the given request can be sent several times without changing
+	 * the result on the server.
+	 */
+	private static boolean isIdempotent(final HttpRequest request) {
+		switch (request.method()) {
+			case "GET":
+			case "HEAD":
+			case "PUT":
+			case "DELETE":
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * Send the given request using the shared client and retry it if it fails.
+	 * <p>
+	 * Only idempotent requests (i.e. <code>GET</code>, <code>HEAD</code>, <code>PUT</code>
+	 * and <code>DELETE</code>) are retried, other requests (e.g. <code>POST</code>) are
+	 * sent only once as a failed attempt might have been processed by the server
+	 * (see {@link #send(HttpRequest, int, boolean)} to retry them anyway).
+	 * </p>
+	 * @param request The request to send
+	 * @param retries The maximum number of retries
+	 * @return The response of the last attempt
+	 * @throws IOException If the last attempt failed with an I/O error
+	 * @throws InterruptedException If the thread was interrupted while sending the request
+	 */
+	public static HttpResponse<String> send(final HttpRequest request, final int retries) throws IOException, InterruptedException {
+		return send(request, retries, false);
+	}
+
+	/**
+	 * Send the given request using the shared client and retry it if it fails.
+	 * <p>
+	 * The request is retried when an {@link IOException} occurs or when the server
+	 * answers with a <code>429</code> or <code>5xx</code> status code. The delay
+	 * between two attempts starts at half a second and is doubled at each retry.
+	 * </p><p>
+	 * Requests which are not idempotent (e.g. <code>POST</code>) are only retried
+	 * when explicitly allowed, as they might create duplicates on the server when
+	 * a failed attempt was actually processed.
+	 * </p>
+	 * @param request The request to send
+	 * @param retries The maximum number of retries
+	 * @param retryNonIdempotent Tells whether a request which is not idempotent can be retried
+	 * @return The response of the last attempt
+	 * @throws IOException If the last attempt failed with an I/O error
+	 * @throws InterruptedException If the thread was interrupted while sending the request
+	 */
+	public static HttpResponse<String> send(final HttpRequest request, final int retries, final boolean retryNonIdempotent) throws IOException, InterruptedException {
+		int maxRetries = retryNonIdempotent || isIdempotent(request) ? retries : 0;
+		int delay = RETRY_DELAY;
+		for (int attempt = 0; ; attempt++) {
+			try {
+				HttpResponse<String> response = getHttpClient().send(request, HttpResponse.BodyHandlers.ofString());
+				int status = response.statusCode();
+				if (attempt >= maxRetries || (status != HTTP_TOO_MANY_REQUESTS && status < HttpURLConnection.HTTP_INTERNAL_ERROR)) {
+					return response;
+				}
+				debugPrint("Request " + request.method() + " " + request.uri() + " returned response code " + status + ", retry in " + delay + "ms");
+			}
+			catch (IOException ioe) {
+				if (attempt >= maxRetries) {
+					throw ioe;
+				}
+				debugPrint("Request " + request.method() + " " + request.uri() + " failed with " + ioe + ", retry in " + delay + "ms");
+			}
+			Thread.sleep(delay);
+			delay *= 2;
+		}
+	}
+
+	/*
+	 * Send the given request asynchronously and check that its response code
+	 * is one of the expected ones.
+	 */
+	private static CompletableFuture<String> sendAsync(final HttpRequest request, final String label, final int... expectedCodes) {
+		return getHttpClient().sendAsync(request, HttpResponse.BodyHandlers.ofString())
+			.thenApply(response -> {
+				String result = normalizeBody(response.body());
+				for (int code: expectedCodes) {
+					if (response.statusCode() == code) {
+						return result;
+					}
+				}
+				throw new CompletionException(new Exception(label + " returned response code " + response.statusCode() + " with message " + result));
+			});
+	}
+
 }
@@ -15,16 +15,24 @@ package com.ibm.bear.qa.spot.core.web;
 import static com.ibm.bear.qa.spot.core.browser.BrowserConstants.NO_BROWSER_ELEMENT_FOUND;
 import static com.ibm.bear.qa.spot.core.scenario.ScenarioUtils.*;
 
-import java.util.List;
+import java.text.DateFormat;
+import java.text.ParseException;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 import org.openqa.selenium.By;
+import org.openqa.selenium.StaleElementReferenceException;
+import org.openqa.selenium.WebElement;
 
 import com.ibm.bear.qa.spot.core.api.elements.SpotGrid;
 import com.ibm.bear.qa.spot.core.api.elements.SpotTable;
 import com.ibm.bear.qa.spot.core.scenario.errors.*;
 import com.ibm.bear.qa.spot.core.timeout.SpotAbstractTimeout;
 import com.ibm.bear.qa.spot.core.timeout.SpotTextTimeout;
+import com.ibm.bear.qa.spot.core.utils.StringUtils;
 import com.ibm.bear.qa.spot.core.utils.StringUtils.Comparison;
+import com.ibm.bear.qa.spot.core.utils.StringUtils.DigitalizedVersion;
 
 /**
  * Class to handle common code for web element with <code>table</code> tag name using grid
@@ -45,16 +53,26 @@ import com.ibm.bear.qa.spot.core.utils.StringUtils.Comparison;
  * </p><p>
  * This class also defines or overrides following internal API methods:
  * <ul>
+ * <li>{@link #findRow(Predicate)}: Return the first row matching the given condition, scrolling the grid if necessary.</li>
+ * <li>{@link #findRowContainingText(String)}: Return the row containing a cell with the given text, scrolling the grid if necessary.</li>
  * <li>{@link #getRowElements()}: Return the list of row web elements.</li>
+ * <li>{@link #getRowsIterator()}: Return an iterator over all the grid rows, including those not rendered yet.</li>
+ * <li>{@link #verifySortOrder(String,SortMode,Comparator)}: Verify that the given column is sorted according to the given mode using the given comparator.</li>
+ * <li>{@link #verifySortOrder(String,SortMode,SortType)}: Verify that the given column is sorted according to the given mode for the given type of values.</li>
  * <li>{@link #waitForTableToBeLoaded()}: Wait for the table to be loaded.</li>
  * </ul>
  * </p><p>
  * This class also defines or overrides following methods:
  * <ul>
+ * <li>{@link #getDateFormat()}: Return the format of dates displayed in the grid.</li>
  * <li>{@link #getHeaderElementsLocator()}: Return the locator to find header web elements in the displayed grid container element.</li>
+ * <li>{@link #getRowCellsCssSelector()}: Return the CSS selector to find cells elements of a row from javascript.</li>
  * <li>{@link #getRowCellsElementsLocator()}: Return the locator to find cells elements of a row displayed in the grid table element.</li>
  * <li>{@link #getRowElements(boolean)}: Return the list of row web elements including hidden elements or not.</li>
  * <li>{@link #getRowElementsLocator()}: Return the locator to find row web elements in the displayed table element.</li>
+ * <li>{@link #getRowKeyAttribute()}: Return the name of the row attribute identifying a row in the grid.</li>
+ * <li>{@link #getScrollerCssSelector()}: Return the CSS selector to find the element scrolling the grid rows from javascript.</li>
+ * <li>{@link #getSortComparator(SortType)}: Return the comparator to use to verify the sort order of the given type of values.</li>
  * <li>{@link #getSortMode(WebBrowserElement)}: Return the sorting state of the given column header element.</li>
  * <li>{@link #getStatusMessageElement()}: The status message element.</li>
  * </ul>
@@ -62,10 +80,173 @@ import com.ibm.bear.qa.spot.core.utils.StringUtils.Comparison;
  */
 public abstract class SpotAbstractGridElement extends SpotAbstractTableElement implements SpotGrid {
 
+	/**
+	 * Snapshot of a grid row content.
+	 * <p>
+	 * The snapshot stores the row key and the text of its cells as they were when
+	 * the row was read. The row web element is also stored but, as grids may recycle
+	 * row elements while scrolling, it's only reliable as long as the grid has not
+	 * been scrolled since the snapshot was taken.
+	 * </p>
+	 */
+	public static class RowSnapshot {
+		private final String key;
+		private final List<String> cells;
+		private final WebBrowserElement element;
+
+		RowSnapshot(final String key, final List<String> cells, final WebBrowserElement element) {
+			this.key = key;
+			this.cells = cells;
+			this.element = element;
+		}
+
+		/**
+		 * Return the text of the cell at the given index.
+		 *
+		 * @param index The cell index
+		 * @return The cell text
+		 */
+		public String getCell(final int index) {
+			return this.cells.get(index);
+		}
+
+		/**
+		 * Return the texts of the row cells.
+		 *
+		 * @return The texts as an unmodifiable list
+		 */
+		public List<String> getCells() {
+			return Collections.unmodifiableList(this.cells);
+		}
+
+		/**
+		 * Return the row web element.
+		 *
+		 * @return The web element
+		 */
+		public WebBrowserElement getElement() {
+			return this.element;
+		}
+
+		/**
+		 * Return the key identifying the row in the grid.
+		 *
+		 * @return The key
+		 */
+		public String getKey() {
+			return this.key;
+		}
+
+		@Override
+		public String toString() {
+			return "Row "+this.key+": "+this.cells;
+		}
+	}
+
+	/*
+	 * Iterator over the grid rows which scrolls the grid viewport page per page.
+	 * Rows already returned are skipped using their key, only the keys are kept
+	 * in memory.
+	 */
+	private class RowsIterator implements Iterator<RowSnapshot> {
+		private final Set<String> keys = new HashSet<>();
+		private final Deque<RowSnapshot> pending = new ArrayDeque<>();
+		private boolean started = false;
+		private boolean exhausted = false;
+
+		@Override
+		public boolean hasNext() {
+			while (this.pending.isEmpty() && !this.exhausted) {
+				readNextPage();
+			}
+			return !this.pending.isEmpty();
+		}
+
+		@Override
+		public RowSnapshot next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return this.pending.poll();
+		}
+
+		private int addRows(final List<RowSnapshot> rows) {
+			int count = 0;
+			for (RowSnapshot row: rows) {
+				if (this.keys.add(row.getKey())) {
+					this.pending.add(row);
+					count++;
+				}
+			}
+			return count;
+		}
+
+		private void readNextPage() {
+
+			// First page is the rendered one
+			if (!this.started) {
+				this.started = true;
+				List<RowSnapshot> rows = readRows(() -> getRowElements(false));
+				if (rows.isEmpty()) {
+					this.exhausted = true;
+				} else {
+					addRows(rows);
+				}
+				return;
+			}
+
+			// Scroll one page, if it's not possible, then all rows have been read
+			if (!scrollRows()) {
+				if (DEBUG) debugPrintln("		  -> grid cannot be scrolled further, "+this.keys.size()+" rows were read");
+				this.exhausted = true;
+				return;
+			}
+
+			// Read rendered rows until new ones appear
+			long timeout = shortTimeout() * 1000 + System.currentTimeMillis();
+			while (true) {
+				if (addRows(readRows(() -> SpotAbstractGridElement.this.element.waitForPotentialChildrenElements(getRowElementsLocator(), shortTimeout()))) > 0) {
+					return;
+				}
+				if (System.currentTimeMillis() > timeout) {
+					// Nothing new in this page, next call will scroll again
+					return;
+				}
+				pause(SCROLL_POLLING_INTERVAL);
+			}
+		}
+	}
+
 	/* Constants*/
 	private static final By DEFAULT_GRID_TABLE_LOCATOR = By.className("bx--grid");
 	private static final String THERE_ARE_NO_ITEMS_TO_DISPLAY = "There are no items to display";
 	private static final String NO_ITEMS_TO_DISPLAY = "No items to display";
+	// Script reading key and cells texts of given rows at once
+	private static final String READ_ROWS_SCRIPT =
+		"var keyAttribute = arguments[1], cellsSelector = arguments[2];" +
+		"return arguments[0].map(function(row) {" +
+		"	var cells = Array.prototype.map.call(row.querySelectorAll(cellsSelector), function(cell) {" +
+		"		return (cell.innerText || cell.textContent || '').trim();" +
+		"	});" +
+		"	var key = keyAttribute ? row.getAttribute(keyAttribute) : null;" +
+		"	return [key == null ? cells.join('\\t') : key, cells];" +
+		"});";
+	// Script scrolling the grid rows of one page, returns whether the grid has actually been scrolled
+	private static final String SCROLL_ROWS_SCRIPT =
+		"var scroller = arguments[0].querySelector(arguments[1]) || arguments[0];" +
+		"var before = scroller.scrollTop;" +
+		"scroller.scrollTop = before + Math.max(scroller.clientHeight, 1);" +
+		"return scroller.scrollTop > before;";
+	// Script setting the grid rows scroll position when one is given and returning the previous one
+	private static final String SCROLL_POSITION_SCRIPT =
+		"var scroller = arguments[0].querySelector(arguments[1]) || arguments[0];" +
+		"var before = scroller.scrollTop;" +
+		"if (arguments[2] != null) scroller.scrollTop = arguments[2];" +
+		"return before;";
+	// Maximum number of attempts to read rows when they're re-rendered while reading them
+	private static final int MAX_READ_ROWS_ATTEMPTS = 3;
+	// Interval between two reads of the rendered rows after a scroll
+	private static final int SCROLL_POLLING_INTERVAL = 100; // in milliseconds
 
 	/* Fields */
 	// Temporary header element storage
@@ -142,6 +323,57 @@ public void applySortMode(final String column, final SortMode mode) throws Scena
 	}
 }
 
+/**
+ * Return the first row matching the given condition, scrolling the grid if necessary.
+ * <p>
+ * Rows are read page per page using {@link #getRowsIterator()}, hence the search
+ * stops as soon as a matching row is found.
+ * </p><p>
+ * Note that the grid is left scrolled on the page containing the found row.
+ * </p>
+ * @param condition The condition the row has to match
+ * @return The row snapshot or <code>null</code> if no row matches the condition
+ */
+public RowSnapshot findRow(final Predicate<RowSnapshot> condition) {
+	Iterator<RowSnapshot> rows = getRowsIterator();
+	while (rows.hasNext()) {
+		RowSnapshot row = rows.next();
+		if (condition.test(row)) {
+			if (DEBUG) debugPrintln("		  -> found matching row "+row);
+			return row;
+		}
+	}
+	return null;
+}
+
+/**
+ * Return the row containing a cell with the given text, scrolling the grid if necessary.
+ * <p>
+ * Contrary to {@link #getRowElementContainingText(String)}, rows which are not
+ * rendered yet are also looked at by scrolling the grid page per page from its top
+ * (see {@link #findRow(Predicate)}). Rows are matched on their cells texts read
+ * while scrolling, hence no additional browser request is done per row.
+ * </p><p>
+ * The grid scroll position is restored before returning, hence the returned row
+ * element might have been recycled by the grid, only its key and cells texts are
+ * reliable (see {@link RowSnapshot}).
+ * </p>
+ * @param text The text to look for
+ * @return The row snapshot or <code>null</code> if no row contains the text
+ */
+public RowSnapshot findRowContainingText(final String text) {
+	Object scrollPosition = scrollRowsTo(0);
+	try {
+		if (((Number) scrollPosition).doubleValue() > 0) {
+			pause(SCROLL_POLLING_INTERVAL); // let the grid render its first rows
+		}
+		return findRow(row -> row.getCells().contains(text));
+	}
+	finally {
+		scrollRowsTo(scrollPosition);
+	}
+}
+
 private WebBrowserElement getBodyEmptyElement() throws WaitElementTimeoutError, MultipleElementsFoundError {
 	return this.element.waitShortlyForMandatoryChildElement(By.className("gridxBodyEmpty"));
 }
@@ -154,6 +386,20 @@ public SortMode getColumnSortMode(final String column) throws ScenarioFailedErro
 	return getSortMode(this.headerElement);
 }
 
+/**
+ * Return the format of dates displayed in the grid.
+ * <p>
+ * This format is used to compare dates when verifying the sort order of a column
+ * (see {@link #verifySortOrder(String, SortMode, SortType)}). By default it's the
+ * medium date format of US locale (e.g. <code>Jan 12, 2024</code>). Subclasses
+ * should override this method if their dates are displayed differently.
+ * </p>
+ * @return The date format
+ */
+protected DateFormat getDateFormat() {
+	return DateFormat.getDateInstance(DateFormat.MEDIUM, Locale.US);
+}
+
 /**
  * {@inheritDoc}
  * <p>
@@ -179,6 +425,20 @@ protected By getHeaderElementsLocator() {
 	return By.cssSelector("td[role='columnheader']");
 }
 
+/**
+ * Return the CSS selector to find cells elements of a row from javascript.
+ * <p>
+ * The selector has to find the same elements than {@link #getRowCellsElementsLocator()}.
+ * By default these are elements with <code>class</code> attribute containing
+ * <code>gridxCell</code>. Subclasses have to override this method when they
+ * change the cells locator.
+ * </p>
+ * @return The CSS selector
+ */
+protected String getRowCellsCssSelector() {
+	return ".gridxCell";
+}
+
 /**
  * {@inheritDoc}
  * <p>
@@ -194,7 +454,10 @@ protected By getRowCellsElementsLocator() {
 
 /**
  * Return the row web element containing a cell with the given text, whether it is displayed or hidden.
- *
+ * <p>
+ * Note that only rendered rows are looked at, use {@link #findRowContainingText(String)}
+ * to also look at rows not rendered yet.
+ * </p>
  * @return The row web element or <code>null</code> if no row was found
  */
 @Override
@@ -262,6 +525,93 @@ protected By getRowElementsLocator() {
 	return By.cssSelector(".gridxRow" + (this.onlyChecked?".gridxRowSelected":EMPTY_STRING));
 }
 
+/**
+ * Return the name of the row attribute identifying a row in the grid.
+ * <p>
+ * The attribute value is used to identify rows which have already been read
+ * while scrolling the grid (see {@link #getRowsIterator()}). By default it's the
+ * <code>rowid</code> attribute set by gridx on each row. When this method returns
+ * <code>null</code> or when the attribute is not set on a row, then the row cells
+ * texts are used as the row key.
+ * </p>
+ * @return The attribute name or <code>null</code>
+ */
+protected String getRowKeyAttribute() {
+	return "rowid";
+}
+
+/**
+ * Return an iterator over all the grid rows, including those not rendered yet.
+ * <p>
+ * Virtualized grids only render rows which are visible in their viewport. The
+ * returned iterator reads the rendered rows first, then scrolls the grid page
+ * per page and returns the rows which were not read yet. Rows are read
+ * incrementally, hence callers can stop iterating as soon as they found
+ * the expected row without having to scroll the entire grid.
+ * </p><p>
+ * Note that the grid is not scrolled back to its initial position after the
+ * iteration.
+ * </p>
+ * @return The iterator on rows snapshots
+ */
+public Iterator<RowSnapshot> getRowsIterator() {
+	return new RowsIterator();
+}
+
+/**
+ * Return the CSS selector to find the element scrolling the grid rows from javascript.
+ * <p>
+ * By default it's the gridx vertical scroller element. If no element is found
+ * with the selector, then the grid element itself is scrolled.
+ * </p>
+ * @return The CSS selector
+ */
+protected String getScrollerCssSelector() {
+	return ".gridxVScroller";
+}
+
+/**
+ * Return the comparator to use to verify the sort order of the given type of values.
+ * <p>
+ * Texts are compared ignoring case, numbers are compared after having removed
+ * any character which is not part of a number (e.g. grouping separators or units),
+ * dates are parsed using {@link #getDateFormat()} and versions are compared
+ * as {@link DigitalizedVersion} (i.e. as done in {@link StringUtils#sortVersions(List)}).
+ * </p><p>
+ * Subclasses might want to override this method to compare values specifically.
+ * </p>
+ * @param type The type of values
+ * @return The comparator
+ */
+protected Comparator<String> getSortComparator(final SortType type) {
+	switch (type) {
+		case Text:
+			return String.CASE_INSENSITIVE_ORDER;
+		case Numeric:
+			return Comparator.comparingDouble(value -> {
+				try {
+					return Double.parseDouble(value.replaceAll("[^0-9.+-]", EMPTY_STRING));
+				}
+				catch (@SuppressWarnings("unused") NumberFormatException nfe) {
+					throw new ScenarioFailedError("Column value '"+value+"' is not a number.");
+				}
+			});
+		case Date:
+			final DateFormat dateFormat = getDateFormat();
+			return Comparator.comparing(value -> {
+				try {
+					return dateFormat.parse(value);
+				}
+				catch (@SuppressWarnings("unused") ParseException pe) {
+					throw new ScenarioFailedError("Column value '"+value+"' is not a valid date.");
+				}
+			});
+		case Version:
+			return (first, second) -> new DigitalizedVersion(first).compareTo(second);
+	}
+	throw new ScenarioImplementationError("Unexpected sort type: "+type);
+}
+
 @Override
 public String getSortedColumn() {
 	List<WebBrowserElement> headersElement = getHeaderElements();
@@ -316,6 +666,134 @@ public boolean isEmpty() {
 	return getBodyEmptyElement().isDisplayed();
 }
 
+/*
+ * Read the snapshots of the row elements found by the given finder using a single script.
+ *
+ * As rows might be re-rendered while reading them, row elements are found again
+ * and read another time when they became stale, until the maximum number of attempts
+ * is reached.
+ */
+private List<RowSnapshot> readRows(final Supplier<List<WebBrowserElement>> rowsFinder) throws ScenarioFailedError {
+	List<WebBrowserElement> rowElements = null;
+	List<?> rowsData = null;
+	for (int attempt=1; rowsData == null; attempt++) {
+		rowElements = rowsFinder.get();
+		if (rowElements.isEmpty()) {
+			return new ArrayList<>();
+		}
+		List<WebElement> webElements = new ArrayList<>(rowElements.size());
+		for (WebBrowserElement rowElement: rowElements) {
+			webElements.add(rowElement.getWebElement());
+		}
+		try {
+			rowsData = (List<?>) this.browser.getJavascriptExecutor().executeScript(READ_ROWS_SCRIPT, webElements, getRowKeyAttribute(), getRowCellsCssSelector());
+		}
+		catch (StaleElementReferenceException sere) {
+			// Rows have been re-rendered while reading them, find them again
+			debugPrintException(sere);
+			if (attempt >= MAX_READ_ROWS_ATTEMPTS) {
+				throw new ScenarioFailedError("Grid rows were still re-rendered while reading them after "+MAX_READ_ROWS_ATTEMPTS+" attempts.");
+			}
+		}
+	}
+	List<RowSnapshot> rows = new ArrayList<>(rowsData.size());
+	for (int i=0; i<rowsData.size(); i++) {
+		List<?> rowData = (List<?>) rowsData.get(i);
+		List<String> cells = new ArrayList<>();
+		for (Object cell: (List<?>) rowData.get(1)) {
+			cells.add((String) cell);
+		}
+		rows.add(new RowSnapshot((String) rowData.get(0), cells, rowElements.get(i)));
+	}
+	return rows;
+}
+
+/*
+ * Scroll the grid rows to the given position, if any.
+ * Returns the scroll position before the scroll.
+ */
+private Object scrollRowsTo(final Object position) {
+	return this.browser.getJavascriptExecutor().executeScript(SCROLL_POSITION_SCRIPT, this.element.getWebElement(), getScrollerCssSelector(), position);
+}
+
+/*
+ * Scroll the grid rows of one page.
+ * Returns whether the grid has actually been scrolled.
+ */
+private boolean scrollRows() {
+	return Boolean.TRUE.equals(this.browser.getJavascriptExecutor().executeScript(SCROLL_ROWS_SCRIPT, this.element.getWebElement(), getScrollerCssSelector()));
+}
+
+/**
+ * Verify that the given column is sorted according to the given mode using the given comparator.
+ * <p>
+ * Values of the column displayed rows are read at once (see {@link #getRowsIterator()}
+ * to read all the rows of virtualized grids) and empty values are ignored.
+ * </p>
+ * @param column The name of the column
+ * @param mode The expected sort mode, nothing is verified for {@link SortMode#NoSort}
+ * @param comparator The comparator to use to compare column values
+ * @throws ScenarioFailedError If there's no column in the current table matching
+ * the given name, if no row can be read or if two consecutive values are not in
+ * the expected order
+ */
+public void verifySortOrder(final String column, final SortMode mode, final Comparator<String> comparator) throws ScenarioFailedError {
+	if (DEBUG) debugPrintln("		+ Verify that column '"+column+"' is sorted with mode '"+mode+"'.");
+	if (mode == SortMode.NoSort) {
+		if (DEBUG) debugPrintln("		  -> no sort mode, nothing to verify...");
+		return;
+	}
+
+	// Get column index
+	int index = getHeaderIndex(column);
+	if (index < 0) {
+		throw new ScenarioFailedError("There's no column '"+column+"' in the current table.");
+	}
+
+	// Read column values and check that each value is in the expected order compared to the previous one
+	List<RowSnapshot> rows = readRows(() -> getRowElements());
+	if (rows.isEmpty()) {
+		throw new ScenarioFailedError("No row was read in the current table, cannot verify that column '"+column+"' is sorted.");
+	}
+	String previous = null;
+	int previousRow = -1;
+	for (int i=0; i<rows.size(); i++) {
+		List<String> cells = rows.get(i).getCells();
+		if (index >= cells.size()) {
+			throw new ScenarioFailedError("Row "+i+" of current table has only "+cells.size()+" cells, cannot get value for column '"+column+"'.");
+		}
+		String value = cells.get(index);
+		if (value.isEmpty()) {
+			continue;
+		}
+		if (previous != null) {
+			int comparison = comparator.compare(previous, value);
+			if (mode == SortMode.Ascending ? comparison > 0 : comparison < 0) {
+				throw new ScenarioFailedError("Column '"+column+"' is not sorted with mode '"+mode+"': value '"+previous+"' at row "+previousRow+" should not be before value '"+value+"' at row "+i+".");
+			}
+		}
+		previous = value;
+		previousRow = i;
+	}
+	if (DEBUG) debugPrintln("		  -> "+rows.size()+" rows are well sorted.");
+}
+
+/**
+ * Verify that the given column is sorted according to the given mode for the given type of values.
+ * <p>
+ * Values are compared using the comparator returned by {@link #getSortComparator(SortType)}.
+ * </p>
+ * @param column The name of the column
+ * @param mode The expected sort mode, nothing is verified for {@link SortMode#NoSort}
+ * @param type The type of column values
+ * @throws ScenarioFailedError If there's no column in the current table matching
+ * the given name, if no row can be read or if two consecutive values are not in
+ * the expected order
+ */
+public void verifySortOrder(final String column, final SortMode mode, final SortType type) throws ScenarioFailedError {
+	verifySortOrder(column, mode, getSortComparator(type));
+}
+
 /**
  * {@inheritDoc}
  * <p>
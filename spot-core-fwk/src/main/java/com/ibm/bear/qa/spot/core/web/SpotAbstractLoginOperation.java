@@ -12,13 +12,23 @@
 **********************************************************************/
 package com.ibm.bear.qa.spot.core.web;
 
+import static com.ibm.bear.qa.spot.core.scenario.ScenarioUtils.debugPrintln;
+
+import java.net.HttpCookie;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.openqa.selenium.By;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.WebDriverException;
 
 import com.ibm.bear.qa.spot.core.config.User;
 import com.ibm.bear.qa.spot.core.scenario.errors.ScenarioFailedError;
 import com.ibm.bear.qa.spot.core.topology.Application;
+import com.ibm.bear.qa.spot.core.utils.RestUtil;
 
 /**
  * Abstract class to manage a web page login operation.
@@ -32,14 +42,17 @@ import com.ibm.bear.qa.spot.core.topology.Application;
  * <li>{@link #checkInvalidLoginMessage()}: Check the whether the login operation failed or not.</li>
  * <li>{@link #click(By)}: Click on the web element found in the current page using the given locator.</li>
  * <li>{@link #click(WebBrowserElement,By)}: Click on the web element found using the given locator relatively to</li>
+ * <li>{@link #getApiSessionCookies()}: Return the session cookies got by login through the application API.</li>
  * <li>{@link #getApplication()}: Return the application associated with the page.</li>
  * <li>{@link #getLoginButtonLocator()}: Return the locator for the login button to click on to perform the login.</li>
  * <li>{@link #getPage()}: Return the web page in which the current element belongs to.</li>
+ * <li>{@link #getResponseCookies(HttpResponse)}: Return the cookies set by the given API response.</li>
  * <li>{@link #getUserIdElement()}: Return the web element where user ID has to be entered.</li>
  * <li>{@link #getUserIdLocator()}: Return the locator for the web element to enter user ID.</li>
  * <li>{@link #getUserPasswordElement()}: Return the web element where user password has to be entered.</li>
  * <li>{@link #getUserPasswordLocator()}: Return the locator for the web element to enter user password.</li>
  * <li>{@link #isExpectingLogin()}: Return whether the current page is currently expecting a log operation or not.</li>
+ * <li>{@link #isSessionValid()}: Return whether the session restored in the browser is still valid or not.</li>
  * <li>{@link #performLogin()}: Perform the login operation on the associated page.</li>
  * <li>{@link #resetFrame()}: Reset the current browser frame.</li>
  * <li>{@link #selectFrame(WebBrowserElement)}: Set the current browser frame to the given web element.</li>
@@ -112,6 +125,24 @@ protected void click(final WebBrowserElement element, final By locator) {
 	this.page.click(element, locator);
 }
 
+/**
+ * Return the session cookies got by login through the application API.
+ * <p>
+ * When the application provides an authentication endpoint, subclasses can
+ * override this method to login the user through it (e.g. using
+ * {@link RestUtil#send(HttpRequest, int)}) and return the session cookies
+ * (see {@link #getResponseCookies(HttpResponse)}). These cookies are then
+ * set in the browser which avoids to enter the user credentials in the login page.
+ * </p><p>
+ * By default, there's no login through the API and <code>null</code> is returned.
+ * </p>
+ * @return The cookies values keyed by their name or <code>null</code> if the
+ * login cannot be done through the API
+ */
+protected Map<String, String> getApiSessionCookies() {
+	return null;
+}
+
 /**
  * Return the application associated with the page.
  *
@@ -137,6 +168,22 @@ protected WebPage getPage() {
 	return this.page;
 }
 
+/**
+ * Return the cookies set by the given API response.
+ *
+ * @param response The response of the API login request
+ * @return The cookies values keyed by their name
+ */
+protected static Map<String, String> getResponseCookies(final HttpResponse<?> response) {
+	Map<String, String> cookies = new LinkedHashMap<>();
+	for (String header: response.headers().allValues("Set-Cookie")) {
+		for (HttpCookie cookie: HttpCookie.parse(header)) {
+			cookies.put(cookie.getName(), cookie.getValue());
+		}
+	}
+	return cookies;
+}
+
 /**
  * Return the web element where user ID has to be entered.
  *
@@ -185,11 +232,88 @@ protected boolean isExpectingLogin() {
 	return this.page.waitForPotentialDisplayedElementWithTimeout(locator, 1) != null;
 }
 
+/**
+ * Return whether the session restored in the browser is still valid or not.
+ * <p>
+ * This check is done after a session previously stored for the user has been
+ * restored in the browser and the page refreshed. By default, the session is
+ * valid if the page is no longer expecting a login (see {@link #isExpectingLogin()}).
+ * Subclasses might want to override this method if there's a cheaper or more
+ * reliable way to check that the user is logged in.
+ * </p>
+ * @return <code>true</code> if the user is logged in with the restored session,
+ * <code>false</false> otherwise.
+ */
+protected boolean isSessionValid() {
+	return !isExpectingLogin();
+}
+
+/*
+ * Delete all cookies of the browser after a session which is not valid has been
+ * set in it, to avoid that they interfere with the login through the page.
+ */
+private void deleteSessionCookies() {
+	try {
+		this.page.browser.driver.manage().deleteAllCookies();
+		this.page.browser.refresh();
+	}
+	catch (WebDriverException wde) {
+		debugPrintln("		  -> cookies of invalid session cannot be deleted: "+wde.getMessage());
+	}
+}
+
+/*
+ * Login through the application API if possible and set the got session
+ * cookies in the browser.
+ */
+private boolean loginThroughApi() {
+	Map<String, String> cookies;
+	try {
+		cookies = getApiSessionCookies();
+	}
+	catch (Exception ex) {
+		debugPrintln("		  -> login through API failed ("+ex.getMessage()+"), login through the page instead");
+		return false;
+	}
+	if (cookies == null || cookies.isEmpty()) {
+		return false;
+	}
+	for (Map.Entry<String, String> cookie: cookies.entrySet()) {
+		this.page.browser.driver.manage().addCookie(new Cookie(cookie.getKey(), cookie.getValue()));
+	}
+	this.page.browser.refresh();
+	if (!isSessionValid()) {
+		debugPrintln("		  -> session got through API is not valid, login through the page instead");
+		deleteSessionCookies();
+		return false;
+	}
+	debugPrintln("		  -> user "+this.user.getId()+" logged in through API");
+	if (WebSessionsCache.REUSE_LOGIN_SESSIONS) {
+		WebSessionsCache.getInstance().store(this.page.browser, this.user, getApplication().getHost());
+	}
+	return true;
+}
+
 /**
  * Perform the login operation on the associated page.
+ * <p>
+ * When sessions reuse is enabled (see {@link WebSessionsCache}) and a session was
+ * stored for the user after a previous login on the same application host, then
+ * it's restored in the browser instead of entering the user credentials. Otherwise,
+ * the login is done through the application API if possible (see
+ * {@link #getApiSessionCookies()}). The login page is only used when none of these
+ * ways succeeded. Once the login is completed (see {@link #isSessionValid()}), the
+ * session is stored to be reused later.
+ * </p>
  */
 protected void performLogin() {
 
+	// Reuse a previous session of the user if any or login through the API if possible
+	if (restoreSession() || loginThroughApi()) {
+		storeUserAsLoggedInApplication();
+		return;
+	}
+
 	// Do some check or actions before the actual login
 	beforeLogin();
 
@@ -205,6 +329,15 @@ protected void performLogin() {
 
 	// Check for an Invalid user ID or password message
 	checkInvalidLoginMessage();
+
+	// Store the session to be able to reuse it, but only once the login is completed
+	if (WebSessionsCache.REUSE_LOGIN_SESSIONS) {
+		if (isSessionValid()) {
+			WebSessionsCache.getInstance().store(this.page.browser, this.user, getApplication().getHost());
+		} else {
+			debugPrintln("		  -> login of user "+this.user.getId()+" is not completed, session is not stored");
+		}
+	}
 }
 
 /**
@@ -217,6 +350,30 @@ protected void resetFrame() {
 
 }
 
+/*
+ * Restore the session stored for the user in the browser if any and check
+ * whether it's still valid. Expired sessions are removed from the cache.
+ */
+private boolean restoreSession() {
+	if (!WebSessionsCache.REUSE_LOGIN_SESSIONS) {
+		return false;
+	}
+	WebSessionsCache cache = WebSessionsCache.getInstance();
+	String host = getApplication().getHost();
+	if (!cache.restore(this.page.browser, this.user, host)) {
+		return false;
+	}
+	this.page.browser.refresh();
+	if (isSessionValid()) {
+		debugPrintln("		  -> user "+this.user.getId()+" logged in using restored session");
+		return true;
+	}
+	debugPrintln("		  -> restored session of user "+this.user.getId()+" is no longer valid, login through the page instead");
+	cache.remove(this.user, host);
+	deleteSessionCookies();
+	return false;
+}
+
 /**
  * Set the current browser frame to the given web element.
  *
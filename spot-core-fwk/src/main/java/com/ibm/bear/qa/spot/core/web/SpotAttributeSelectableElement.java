@@ -353,6 +353,17 @@ public SpotAttributeSelectableElement(final WebPage page, final WebBrowserElemen
 	this.selectedAttribute = attribute;
 }
 
+/**
+ * {@inheritDoc}
+ * <p>
+ * The status is given by the selection attribute value.
+ * </p>
+ */
+@Override
+protected String getSelectionStateScript() {
+	return isSelectedDeclaredBy(SpotAttributeSelectableElement.class) ? "e.getAttribute('"+this.selectedAttribute+"') === 'true'" : null;
+}
+
 @Override
 public boolean isSelected() throws ScenarioFailedError {
 	String selectionAttribute = getSelectionElement().getAttributeValue(this.selectedAttribute);
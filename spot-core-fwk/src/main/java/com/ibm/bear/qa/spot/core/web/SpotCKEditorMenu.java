@@ -35,6 +35,11 @@ protected By getItemElementsLocator() {
 	return By.xpath("//a[contains(@class,'cke_menubutton')]");
 }
 
+@Override
+protected String getItemLabelScript() {
+	return "(function(l) { return l ? l.textContent : text; })(e.querySelector('.cke_menubutton_label'))";
+}
+
 @Override
 protected By getItemLocator(final String itemLabel) {
 	return By.xpath("//a[.//span[@class='cke_menubutton_label' and text()='"+itemLabel+"']]");
@@ -14,15 +14,10 @@ package com.ibm.bear.qa.spot.core.web;
 
 import org.openqa.selenium.By;
 
-import com.ibm.bear.qa.spot.core.scenario.errors.ScenarioFailedError;
-
 /**
  * Class to handle a checkable web element (eg. typically a check-box) in a web page.
  * <p>
- * This class defines following internal API methods:
- * <ul>
- * <li>{@link #select()}: Select the associated web element.</li>
- * </ul>
+ * The selection status is provided by the <code>aria-checked</code> attribute.
  * </p>
  */
 public class SpotCheckableElement extends SpotAttributeSelectableElement {
@@ -181,18 +176,4 @@ public SpotCheckableElement(final WebPage page, final WebBrowserElement wwElemen
 public SpotCheckableElement(final WebPage page, final WebBrowserElement wwElement, final By selectionLocator) {
 	super(page, wwElement, selectionLocator, ARIA_CHECKED);
 }
-
-@Override
-public void select() throws ScenarioFailedError {
-	/* TODO Remove the entire method after having been 100% sure that this change has no impact
-	if (!isSelected()) {
-		debugPrintEnteringMethod();
-		pause(250);
-		getSelectionElement().click();
-		pause(250);
-		waitUntilSelection(true, true);
-	}
-	*/
-	super.select();
-}
 }
@@ -14,6 +14,8 @@ package com.ibm.bear.qa.spot.core.web;
 
 import static com.ibm.bear.qa.spot.core.scenario.ScenarioUtils.*;
 
+import java.util.*;
+
 import org.openqa.selenium.By;
 import org.openqa.selenium.Keys;
 
@@ -39,11 +41,13 @@ import com.ibm.bear.qa.spot.core.timeout.SpotAbstractTimeout;
  * <li>{@link #click()}: Click on the element without taking into account its selection status.</li>
  * <li>{@link #clickAndWaitForSelection()}: Click on element and wait for the element to be selected.</li>
  * <li>{@link #getText()}: Return the text of the wrapped element.</li>
+ * <li>{@link #setSelections(Map)}: Set the selection status of several selectable elements at once.</li>
  * </ul>
  * </p><p>
  * This class also defines or overrides following methods:
  * <ul>
  * <li>{@link #getSelectionElement()}: Return the element to perform the selection operation.</li>
+ * <li>{@link #getSelectionStateScript()}: Return the javascript expression giving the selection status.</li>
  * <li>{@link #initSelectionElement()}: Initialize the element to perform the selection operation.</li>
  * <li>{@link #waitUntilSelection(boolean,boolean)}: Wait until the selection matches the given status.</li>
  * </ul>
@@ -233,11 +237,12 @@ public boolean action(final Actions type) {
  */
 public boolean click() {
 	debugPrintEnteringMethod();
+	boolean needSecondClick = needSecondClick();
+	boolean initialState = needSecondClick && isSelected();
 	getSelectionElement().click();
-	if (this.element.browser.isFirefox() && this.element.browser.getVersion().startsWith("78")) {
+	if (needSecondClick && !waitUntilSelection(!initialState, false, 1)) {
 		// for an unknown reason, Firefox needs 2 clicks on the element to actually select it...!?
 		debugPrintln("		  -> Double click for Firefox browser");
-		pause(200);
 		getSelectionElement().click();
 	}
 	return isSelected();
@@ -251,23 +256,20 @@ public void clickAndWaitForSelection() {
 }
 
 private void clickAndWaitSelection(final boolean selected) {
-	pause(200);
 	debugPrintln("		  -> Click on element to select it...");
 	getSelectionElement().click();
-	if (this.element.browser.isFirefox() && this.element.browser.getVersion().startsWith("78") && !waitUntilSelection(selected, false, 1)) {
+	if (needSecondClick() && !waitUntilSelection(selected, false, 1)) {
 		// for an unknown reason, Firefox needs 2 clicks on the element to actually select it...!?
 		debugPrintln("		  -> Double click for Firefox browser");
-		pause(200);
 		getSelectionElement().click();
-		pause(600);
 		if (!waitUntilSelection(selected, false)) {
 			// In certain circumstance, even the double click does not work, hence try to workaround it by entering Return on the element
 			debugPrintln("		  -> Double click was inefficient for Firefox browser");
 			debugPrintln("		  -> Apply workaround to send ENTER key to the node element...");
 			this.element.sendKeys(Keys.RETURN);
-			pause(200);
-			getSelectionElement().click();
-			pause(800);
+			if (!waitUntilSelection(selected, false, 1)) {
+				getSelectionElement().click();
+			}
 		}
 	}
 	debugPrintln("		  -> Wait that element becomes selected...");
@@ -290,6 +292,24 @@ final protected WebBrowserElement getSelectionElement() {
 	return this.selectionElement;
 }
 
+/**
+ * Return the javascript expression giving the selection status.
+ * <p>
+ * The expression is evaluated with the selection element stored in variable <code>e</code>
+ * and must return a boolean matching what {@link #isSelected()} would return.
+ * </p><p>
+ * By default it's the checked or selected status of the selection element as
+ * returned by Selenium. Note that <code>null</code> is returned when a subclass
+ * overrides {@link #isSelected()} without overriding this method, as the selection
+ * status cannot be evaluated by a script in such case.
+ * </p>
+ * @return The expression or <code>null</code> if there's no script to get the
+ * selection status
+ */
+protected String getSelectionStateScript() {
+	return isSelectedDeclaredBy(SpotSelectableElement.class) ? "(e.tagName === 'OPTION' ? e.selected : !!e.checked)" : null;
+}
+
 @Override
 public String getText() {
 	return getSelectionElement().getText();
@@ -315,6 +335,116 @@ public boolean isSelected() throws ScenarioFailedError {
 	return getSelectionElement().isSelected();
 }
 
+/**
+ * Return whether the {@link #isSelected()} method used by the current instance
+ * is the one declared by the given class.
+ *
+ * @param declaringClass The class expected to declare the method
+ * @return <code>true</code> if the method is not overridden by a subclass of the
+ * given class, <code>false</code> otherwise
+ */
+final boolean isSelectedDeclaredBy(final Class<? extends SpotSelectableElement> declaringClass) {
+	try {
+		return getClass().getMethod("isSelected").getDeclaringClass() == declaringClass;
+	}
+	catch (@SuppressWarnings("unused") NoSuchMethodException nsme) {
+		return false;
+	}
+}
+
+/*
+ * Return whether the browser needs a second click to change the selection.
+ */
+private boolean needSecondClick() {
+	return this.element.browser.isFirefox() && this.element.browser.getVersion().startsWith("78");
+}
+
+/*
+ * Read the selection status of all given elements.
+ * Elements which have a selection script are read with a single javascript
+ * execution, others are read one by one.
+ */
+private static List<Boolean> readSelections(final List<SpotSelectableElement> elements) {
+	List<Boolean> states = new ArrayList<>(Collections.nCopies(elements.size(), (Boolean) null));
+	StringBuilder scriptBuilder = new StringBuilder("var e, s = [];");
+	List<Object> arguments = new ArrayList<>();
+	List<Integer> scriptIndexes = new ArrayList<>();
+	for (int i=0; i<elements.size(); i++) {
+		SpotSelectableElement selectable = elements.get(i);
+		String expression = selectable.getSelectionStateScript();
+		if (expression == null) {
+			states.set(i, Boolean.valueOf(selectable.isSelected()));
+		} else {
+			scriptBuilder.append("e = arguments[").append(arguments.size()).append("]; s.push(").append(expression).append(");");
+			arguments.add(selectable.getSelectionElement().webElement);
+			scriptIndexes.add(Integer.valueOf(i));
+		}
+	}
+	if (!arguments.isEmpty()) {
+		scriptBuilder.append("return s;");
+		WebBrowser browser = elements.get(scriptIndexes.get(0).intValue()).element.browser;
+		List<?> results = (List<?>) browser.getJavascriptExecutor().executeScript(scriptBuilder.toString(), arguments.toArray());
+		for (int i=0; i<scriptIndexes.size(); i++) {
+			states.set(scriptIndexes.get(i).intValue(), (Boolean) results.get(i));
+		}
+	}
+	return states;
+}
+
+/**
+ * Set the selection status of several selectable elements at once.
+ * <p>
+ * Current status of all elements are read first, then only elements which status
+ * does not match the expected one are clicked. Finally it waits for all elements
+ * to get their expected status.
+ * </p><p>
+ * Reading the status of elements is done using a single javascript execution for
+ * all elements which provide a {@link #getSelectionStateScript() selection script},
+ * hence the cost of this method does not depend on the number of elements which
+ * already have the expected status.
+ * </p>
+ * @param selections The expected selection status for each element
+ * @throws ScenarioFailedError If some elements do not have their expected
+ * selection status before the timeout
+ */
+public static void setSelections(final Map<? extends SpotSelectableElement, Boolean> selections) throws ScenarioFailedError {
+	if (selections.isEmpty()) return;
+	List<SpotSelectableElement> elements = new ArrayList<>(selections.keySet());
+	debugPrintln("		+ Set selection status of "+elements.size()+" elements");
+
+	// Click on elements which status has to be changed
+	List<Boolean> states = readSelections(elements);
+	List<SpotSelectableElement> changedElements = new ArrayList<>();
+	for (int i=0; i<elements.size(); i++) {
+		SpotSelectableElement selectable = elements.get(i);
+		if (states.get(i).booleanValue() != selections.get(selectable).booleanValue()) {
+			selectable.getSelectionElement().click();
+			changedElements.add(selectable);
+		}
+	}
+	debugPrintln("		  -> "+changedElements.size()+" elements clicked");
+	if (changedElements.isEmpty()) return;
+
+	// Wait for all clicked elements to have their expected status
+	SpotAbstractTimeout timeout = new SpotAbstractTimeout() {
+		@Override
+		protected boolean getCondition() {
+			List<Boolean> changedStates = readSelections(changedElements);
+			for (int i=changedElements.size()-1; i>=0; i--) {
+				if (changedStates.get(i).booleanValue() == selections.get(changedElements.get(i)).booleanValue()) {
+					changedElements.remove(i);
+				}
+			}
+			return changedElements.isEmpty();
+		}
+		@Override
+		protected String getConditionLabel() {
+			return "All selectable elements have their expected selection status ("+changedElements.size()+" remaining: "+getTextFromList(changedElements)+")";
+		}
+	};
+	timeout.waitUntil(3);
+}
+
 @Override
 public void select() throws ScenarioFailedError {
 	debugPrintEnteringMethod();
@@ -41,6 +41,7 @@ import com.ibm.bear.qa.spot.core.scenario.errors.ScenarioImplementationError;
  * <li>{@link #getVisibleNodes()}: Return the list of visible nodes in the tree from the current node.</li>
  * <li>{@link #isSelected()}: Returns whethert the current node is selected or not.</li>
  * <li>{@link #searchNode(String)}: Searches the node with the given name in the hierarchy starting from current node.</li>
+ * <li>{@link #searchNodeByLevel(String,String...)}: Searches the node with the given name level by level in the hierarchy starting from current node.</li>
  * <li>{@link #select()}: Select the current node.</li>
  * <li>{@link #selectNode(String)}: Selects the node in the tree matching the given path relatively to the current node.</li>
  * </ul>
@@ -61,6 +62,7 @@ import com.ibm.bear.qa.spot.core.scenario.errors.ScenarioImplementationError;
  * This class also defines or overrides following methods:
  * <ul>
  * <li>{@link #createChildNodeElement(WebBrowserElement)}: Create the node element instance from the given web element.</li>
+ * <li>{@link #expandNodes(List)}: Expand all the given nodes.</li>
  * <li>{@link #getChild(String)}: Returns the node's child matching the given name.</li>
  * <li>{@link #getChildrenElements()}: Returns the children web elements list.</li>
  * <li>{@link #getContainerElement()}: Returns the web element containing children elements.</li>
@@ -72,6 +74,8 @@ import com.ibm.bear.qa.spot.core.scenario.errors.ScenarioImplementationError;
  * <li>{@link #initSelectableElement()}: Initialize the expandable element using the corresponding locator.</li>
  * <li>{@link #isContainer()}: Returns whether the current node is a container or not.</li>
  * <li>{@link #isLeaf()}: Returns whether the current node is a leaf or not.</li>
+ * <li>{@link #startExpand()}: Start the current node expansion without waiting for its end.</li>
+ * <li>{@link #waitForExpandEnd()}: Wait for the end of the current node expansion.</li>
  * </ul>
  * </p>
  */
@@ -205,9 +209,31 @@ abstract protected SpotTreeNodeElement createChildNodeElement(final WebBrowserEl
 @Override
 public void expand() {
 	debugPrintEnteringMethod();
-	getExpandableElement();
-	if (this.expandableElement != null && isContainer()) {
-		this.expandableElement.expand();
+	if (startExpand()) {
+		waitForExpandEnd();
+	}
+}
+
+/**
+ * Expand all the given nodes.
+ * <p>
+ * Expansion is started on all nodes using {@link #startExpand()} before
+ * waiting for the end of each of them using {@link #waitForExpandEnd()}.
+ * Hence lazily loaded nodes get their children in parallel instead of one
+ * after the other.
+ * </p>
+ * @param nodes The nodes to expand
+ */
+protected void expandNodes(final List<SpotTreeNodeElement> nodes) {
+	debugPrintEnteringMethod("nodes", nodes.size());
+	List<SpotTreeNodeElement> startedNodes = new ArrayList<>();
+	for (SpotTreeNodeElement node : nodes) {
+		if (node.startExpand()) {
+			startedNodes.add(node);
+		}
+	}
+	for (SpotTreeNodeElement node : startedNodes) {
+		node.waitForExpandEnd();
 	}
 }
 
@@ -708,6 +734,55 @@ public SpotTreeNode searchNode(final String node) throws ScenarioImplementationE
 	return null;
 }
 
+@Override
+public SpotTreeNode searchNodeByLevel(final String node, final String... prefixes) throws ScenarioImplementationError {
+	debugPrintEnteringMethod("node", node, "prefixes", getTextFromList(prefixes));
+
+	// Check whether the nodePath includes separators
+	if (node.indexOf(PATH_SEPARATOR) >= 0) {
+		throw new ScenarioImplementationError("Canot search for a node path. Use getNode(String) method instead.");
+	}
+
+	// Search level by level starting from current node children
+	List<SpotTreeNodeElement> level = getChildren();
+	while (!level.isEmpty()) {
+
+		// Check nodes of current level and collect containers to expand
+		List<SpotTreeNodeElement> containers = new ArrayList<>();
+		for (SpotTreeNodeElement levelNode : level) {
+			String label = levelNode.getText();
+			if (label.equals(node)) {
+				return levelNode;
+			}
+			if (matchesPrefix(label, prefixes) && levelNode.isContainer()) {
+				containers.add(levelNode);
+			}
+		}
+
+		// Expand all containers and get next level nodes
+		expandNodes(containers);
+		level = new ArrayList<>();
+		for (SpotTreeNodeElement container : containers) {
+			level.addAll(container.getVisibleChildren());
+		}
+	}
+
+	// No node was found.
+	return null;
+}
+
+private static boolean matchesPrefix(final String label, final String... prefixes) {
+	if (prefixes.length == 0) {
+		return true;
+	}
+	for (String prefix : prefixes) {
+		if (label.startsWith(prefix)) {
+			return true;
+		}
+	}
+	return false;
+}
+
 @Override
 public void select() {
 	getSelectableElement().clickAndWaitForSelection();
@@ -723,4 +798,35 @@ public SpotTreeNode selectNode(final String nodePath) throws ScenarioFailedError
 	treeNode.select();
 	return treeNode;
 }
+
+/**
+ * Start the current node expansion without waiting for its end.
+ * <p>
+ * Only the expansion control is clicked, hence subclasses which need a
+ * specific expansion behavior should override this method instead of
+ * {@link #expand()} to keep it when nodes are expanded in batch.
+ * </p>
+ * @return <code>true</code> if the expansion has been started and
+ * {@link #waitForExpandEnd()} has to be called, <code>false</code> if
+ * there was nothing to expand
+ */
+protected boolean startExpand() {
+	getExpandableElement();
+	if (this.expandableElement == null || !isContainer() || this.expandableElement.isExpanded()) {
+		return false;
+	}
+	this.expandableElement.clickOnExpansionElement(true);
+	return true;
+}
+
+/**
+ * Wait for the end of the current node expansion.
+ * <p>
+ * This method must only be called after {@link #startExpand()} returned
+ * <code>true</code>.
+ * </p>
+ */
+protected void waitForExpandEnd() {
+	this.expandableElement.waitForActionEnd(true);
+}
 }
@@ -32,17 +32,17 @@ import org.openqa.selenium.WebDriver.*;
 import org.openqa.selenium.interactions.Actions;
 import org.openqa.selenium.remote.UnreachableBrowserException;
 
-import com.google.common.collect.Sets;
 import com.ibm.bear.qa.spot.core.api.SpotUser;
 import com.ibm.bear.qa.spot.core.browser.BrowserConstants;
 import com.ibm.bear.qa.spot.core.browser.BrowsersManager;
 import com.ibm.bear.qa.spot.core.config.Timeouts;
 import com.ibm.bear.qa.spot.core.config.User;
-import com.ibm.bear.qa.spot.core.javascript.DrapAndDropSimulator;
+import com.ibm.bear.qa.spot.core.javascript.SpotJavascriptLibrary;
 import com.ibm.bear.qa.spot.core.javascript.DrapAndDropSimulator.Position;
 import com.ibm.bear.qa.spot.core.performance.PerfManager;
 import com.ibm.bear.qa.spot.core.scenario.errors.*;
 import com.ibm.bear.qa.spot.core.timeout.SpotTextTimeout;
+import com.ibm.bear.qa.spot.core.topology.Topology;
 import com.ibm.bear.qa.spot.core.utils.*;
 import com.ibm.bear.qa.spot.core.utils.ByUtils.ComparisonPattern;
 
@@ -244,6 +244,12 @@ public abstract class WebBrowser implements SearchContext, BrowserConstants {
 	private static final String SELECT_ALL_CMD = Keys.chord(isMacOs() ? Keys.COMMAND : Keys.CONTROL, "a");
 	private static final Keys CTRL_CMD = isMacOs() ? Keys.COMMAND : Keys.CONTROL;
 
+	// Scripts used to detect the document change when navigating (link click or history)
+	private static final String MARK_DOCUMENT_SCRIPT = "return document.__spotMarker = Date.now() + '-' + Math.random();";
+	private static final String NAVIGATION_STATE_SCRIPT = "return [location.href, document.__spotMarker !== arguments[0], document.readyState !== 'loading' && !!document.body && document.body.children.length > 0];";
+	// Maximum time to wait for a navigation in history to start
+	private static final int HISTORY_NAVIGATION_START_TIMEOUT = 2000; // in milliseconds
+
 	/*
 	 * Fields
 	 */
@@ -267,18 +273,25 @@ public abstract class WebBrowser implements SearchContext, BrowserConstants {
 	String location;
 	private String url; // TODO Check the url is necessary for browser
 	String mainWindowHandle;
+	WebWindowsRegistry windowsRegistry;
+
+	// Navigation history of each window
+	final WebNavigationHistory navigationHistory = new WebNavigationHistory();
 
 	// Frames
 	WebBrowserFrame frame;
 	// TODO Check that's safe to remove frame popup
 //	private WebBrowserFrame framePopup;
 
-	// Performances
-	final PerfManager perfManager = PerfManager.createInstance(this); // Warning: Can be null!
+	// Performances (created lazily, see getPerfManager())
+	private PerfManager perfManager; // Warning: Can be null!
 
 	// Window info
 	Dimension windowSize;
 
+	// Helper scripts (created lazily, see getJavascriptLibrary())
+	private SpotJavascriptLibrary javascriptLibrary;
+
 	// Error message
 	StringBuilder errorMessage = null;
 
@@ -298,9 +311,6 @@ protected WebBrowser(final BrowsersManager manager, final User user) {
 	initDriver();
 	this.actions = new Actions(this.driver);
 
-	// Init screenshots directories
-	initScreenshotsDir();
-
 	// Init if a new browser session to be used per each user
 	this.newSessionPerUser = getParameterBooleanValue(NEW_BROWSER_SESSION_PER_USER, true);
 
@@ -376,13 +386,15 @@ public boolean acceptPrivateConnection() {
 /**
  * Move back a single "item" in the browser's history.
  * <p>
- * <b>Warning</b>: This method does not modify the web pages cache, hence
- * it should be used with caution. It would be better to use {@link WebPage#goBack()}
- * method instead to keep browser content and pages cache synchronized.
+ * The page expected to be displayed is taken from the navigation history of the current
+ * window, which is maintained while pages are cached. After having asked the browser to
+ * go back, it waits for the navigation to be done and then gets the displayed page from the browser URL as the history might have drifted
+ * from the real browser history (e.g. after redirections or javascript navigation).
  * </p><p>
- * Note that this will possible desynchronization will be fixed when pages cache
- * is managed by the browser itself instead of WebPage class...
+ * Note that it falls back to the previous page of the pages cache when the window
+ * history has no page to go back to.
  * </p>
+ * @return The page displayed after having moved back
  * @see org.openqa.selenium.WebDriver.Navigation#back()
  */
 public WebPage back() {
@@ -390,22 +402,33 @@ public WebPage back() {
 		debugPrintln("		+ Move back one step in browser history: ");
 		debugPrintln("		  -> current state: "+this);
 	}
-	if (isGoogleChrome()) sleep(2);
-	this.driver.navigate().back();
-	sleep(2);
-	purgeAlerts("While going back to previous page...");
-	this.location = getCurrentUrl();
-	debugPrintln("		  -> location after back: "+this.location);
 
-	// Remove current page from cache
-	int size = this.pagesCache.size();
-	if (size < 2) {
-		throw new ScenarioImplementationError("We should have found a page to go back.");
+	// Get the page to go back to
+	WebPage targetPage = this.navigationHistory.peekBack(this.mainWindowHandle);
+	if (targetPage == null) {
+		int size = this.pagesCache.size();
+		if (size < 2) {
+			throw new ScenarioImplementationError("We should have found a page to go back.");
+		}
+		targetPage = this.pagesCache.get(size-2);
+		debugPrintln("		  -> no window history, use previous cached page: "+hidePasswordInLocation(targetPage.getLocation()));
 	}
-	this.pagesCache.remove(size-1);
 
-	// Return previous page
-	return this.pagesCache.get(size-2);
+	// Go back and wait for the page to be displayed
+	String previousUrl = getCurrentUrl();
+	String documentMarker = markDocument();
+	this.driver.navigate().back();
+	waitForNavigation(previousUrl, documentMarker, targetPage.openTimeout());
+	WebPage displayedPage = synchronizeHistory(targetPage, /*back:*/true);
+
+	// Remove current page from cache and return previous one
+	WebPage currentPage = getCurrentPage();
+	if (currentPage != null && currentPage != displayedPage) {
+		this.pagesCache.remove(currentPage);
+	}
+	setCurrentPage(displayedPage);
+	displayedPage.getRootElement();
+	return displayedPage;
 }
 
 /**
@@ -451,6 +474,8 @@ void cachePage(final WebPage page) {
 	}
 	this.pagesCache.add(page);
 	page.handle = this.mainWindowHandle;
+	this.windowsRegistry.register(page.handle, page.getLocation());
+	this.navigationHistory.visit(page.handle, page);
 }
 
 /*
@@ -574,6 +599,7 @@ public void checkConnection() {
  */
 public void clearCache() {
 	this.pagesCache.clear();
+	this.navigationHistory.clear();
 }
 
 /**
@@ -706,6 +732,10 @@ public void close() {
 		WebPage page = this.pagesCache.remove(i);
 		page.getTopology().logoutApplications();
 	}
+
+	// Stop tracking windows
+	this.windowsRegistry.close();
+	this.navigationHistory.clear();
 }
 
 /**
@@ -715,17 +745,20 @@ public void closeOtherWindows() {
 	debugPrintEnteringMethod();
 
 	// Close all handles except main one
-	for (String handle: this.driver.getWindowHandles()) {
+	for (String handle: this.windowsRegistry.refresh()) {
 		if (!handle.equals(this.mainWindowHandle)) {
 			if (DEBUG) debugPrintln("		  -> switch to handle "+handle+" to close it...");
 			this.driver.switchTo().window(handle);
 			this.driver.close();
+			this.windowsRegistry.unregister(handle);
+			this.navigationHistory.remove(handle);
 		}
 	}
 
 	// Switch back to main handle...
-	if (this.getWindowHandles().size() != 1) {
-		throw new ScenarioFailedError("Unexpected number of remaining handles: "+this.getWindowHandles().size()+" found although expecting only 1.");
+	int remainingHandles = this.windowsRegistry.refresh().size();
+	if (remainingHandles != 1) {
+		throw new ScenarioFailedError("Unexpected number of remaining handles: "+remainingHandles+" found although expecting only 1.");
 	}
 	this.driver.switchTo().window(this.mainWindowHandle);
 
@@ -821,28 +854,24 @@ public void closePage(final WebPage page) {
 	debugPrintEnteringMethod("page", page.getLocation());
 
 	// Close page handle and keep first other one
-	for (String handle: this.driver.getWindowHandles()) {
-		if (handle.equals(page.handle)) {
-			if (DEBUG) debugPrintln("		  -> switch to handle "+handle+" to close it...");
-			this.driver.switchTo().window(handle);
-			this.driver.close();
-			break;
-		}
+	if (this.windowsRegistry.contains(page.handle) || this.windowsRegistry.refresh().contains(page.handle)) {
+		if (DEBUG) debugPrintln("		  -> switch to handle "+page.handle+" to close it...");
+		this.driver.switchTo().window(page.handle);
+		this.driver.close();
+		this.windowsRegistry.unregister(page.handle);
+		this.navigationHistory.remove(page.handle);
 	}
 
 	// Set main window handle if necessary
-	Set<String> handles = null;
-	try {
-		handles = this.driver.getWindowHandles();
-		if (page.handle.equals(this.mainWindowHandle)) {
-			this.mainWindowHandle = handles.iterator().next();
-			this.driver.switchTo().window(this.mainWindowHandle);
-		}
-	}
-	catch (@SuppressWarnings("unused") NoSuchSessionException nsse) {
+	Set<String> handles = this.windowsRegistry.refresh();
+	if (handles.isEmpty()) {
 		// Browser has been entirely closed, no remaining main window
 		this.mainWindowHandle = null;
 	}
+	else if (page.handle.equals(this.mainWindowHandle)) {
+		this.mainWindowHandle = handles.iterator().next();
+		this.driver.switchTo().window(this.mainWindowHandle);
+	}
 
 	// Remove page from cache
 	int size = this.pagesCache.size();
@@ -871,6 +900,7 @@ public void closePage(final WebPage page) {
 	// Clear cache if browser has been entirely closed
 	if (this.mainWindowHandle == null) {
 		this.pagesCache.clear();
+		this.navigationHistory.clear();
 	}
 }
 
@@ -1006,7 +1036,7 @@ private void dragAndDrop(final WebBrowserElement dragFrom, final WebBrowserEleme
 	int dragToX= toLocation.getX() + dragToPosition.getOffset(toSize.getWidth());
 	int dragToY= toLocation.getY() + dragToPosition.getOffset(toSize.getHeight());
 
-	getJavascriptExecutor().executeScript(DrapAndDropSimulator.JAVASCRIPT_SIMULATE_EVENHTML5_DRAGANDDROP, dragFrom.webElement, dragTo.webElement, dragFromX, dragFromY, dragToX, dragToY);
+	getJavascriptLibrary().call(SpotJavascriptLibrary.DRAG_AND_DROP, dragFrom.webElement, dragTo.webElement, dragFromX, dragFromY, dragToX, dragToY);
 }
 
 /**
@@ -1031,6 +1061,55 @@ public Object executeScript(final String script) {
 	return getJavascriptExecutor().executeScript(script);
 }
 
+/**
+ * Fill the given form fields with the given values.
+ * <p>
+ * Values of all text input and text area fields are set at once using a
+ * script which also dispatches the <code>input</code> and <code>change</code>
+ * events expected by the page javascript. That replaces numerous calls per field
+ * done when typing the text (see {@link #typeText(WebBrowserElement, String, Keys, boolean, int)}).
+ * </p><p>
+ * Each field which cannot be set by the script (e.g. because it's disabled, it's
+ * not a text field or its value has been changed by the page after the events)
+ * is then filled by typing its text, which waits for the field to be enabled.
+ * </p>
+ * @param fields The fields with their value, use an ordered map when the fields
+ * have to be filled in a specific order
+ * @param timeout The timeout before giving up if a field typed as fallback is not enabled
+ * @throws ScenarioFailedError if a field typed as fallback is not enabled before the timeout
+ */
+public void fillForm(final Map<WebBrowserElement, String> fields, final int timeout) {
+	if (DEBUG) debugPrintln("		+ Fill "+fields.size()+" form fields");
+
+	// Set all values at once
+	List<WebBrowserElement> elements = new ArrayList<>(fields.keySet());
+	List<WebElement> webElements = new ArrayList<>(elements.size());
+	List<String> values = new ArrayList<>(elements.size());
+	for (WebBrowserElement element: elements) {
+		webElements.add(element.getWebElement());
+		values.add(fields.get(element));
+	}
+	List<?> results = null;
+	try {
+		results = (List<?>) getJavascriptLibrary().call(SpotJavascriptLibrary.SET_VALUES, webElements, values);
+	}
+	catch (WebDriverException wde) {
+		debugPrintln("		  -> cannot set form values using script ("+wde.getMessage()+"), type them instead");
+	}
+
+	// Type values which were not set
+	int typed = 0;
+	for (int i=0; i<elements.size(); i++) {
+		if (results == null || !Boolean.TRUE.equals(results.get(i))) {
+			WebBrowserElement element = elements.get(i);
+			if (DEBUG) debugPrintln("		  -> value cannot be set on "+element+", type it instead");
+			typeText(element, values.get(i), null/*no key*/, true/*clear*/, timeout);
+			typed++;
+		}
+	}
+	if (DEBUG) debugPrintln("		  -> "+(elements.size()-typed)+" fields set by script, "+typed+" typed");
+}
+
 /**
  * Find an element in the current browser page for the given locator.
  * <p>
@@ -1492,6 +1571,7 @@ public final void get(final WebPage page) {
 		}
 	}
 	page.handle = this.driver.getWindowHandle();
+	this.windowsRegistry.register(page.handle, this.driver.getCurrentUrl());
 
 	// Dump the info that there was a page redirection
 	// (or at least the browser URL has changed after the page load...)
@@ -1559,6 +1639,40 @@ public WebBrowserFrame getCurrentFrame() {
 	return this.frame;
 }
 
+/**
+ * Move forward a single "item" in the browser's history.
+ * <p>
+ * The page expected to be displayed is taken from the navigation history of the current
+ * window. After having asked the browser to go forward, it waits for the navigation to be
+ * done and then gets the displayed page from the browser URL as the history might have drifted from the real browser history.
+ * </p>
+ * @return The page displayed after having moved forward
+ * @throws ScenarioImplementationError If there's no page to go forward to
+ * @see org.openqa.selenium.WebDriver.Navigation#forward()
+ */
+public WebPage forward() {
+	if (DEBUG) {
+		debugPrintln("		+ Move forward one step in browser history: ");
+		debugPrintln("		  -> current state: "+this);
+	}
+
+	// Get the page to go forward to
+	WebPage targetPage = this.navigationHistory.peekForward(this.mainWindowHandle);
+	if (targetPage == null) {
+		throw new ScenarioImplementationError("We should have found a page to go forward.");
+	}
+
+	// Go forward and wait for the page to be displayed
+	String previousUrl = getCurrentUrl();
+	String documentMarker = markDocument();
+	this.driver.navigate().forward();
+	waitForNavigation(previousUrl, documentMarker, targetPage.openTimeout());
+	WebPage displayedPage = synchronizeHistory(targetPage, /*back:*/false);
+	setCurrentPage(displayedPage);
+	displayedPage.getRootElement();
+	return displayedPage;
+}
+
 /**
  * Return the current page displayed on the browser.
  * <p>
@@ -1616,6 +1730,34 @@ JavascriptExecutor getJavascriptExecutor() {
 	return (JavascriptExecutor) this.driver;
 }
 
+/**
+ * Return the navigation state of the current document.
+ * <p>
+ * The document is considered as ready when it's no longer loading and has
+ * some content in its body.
+ * </p>
+ * @param documentMarker The marker returned by {@link #markDocument()} before
+ * the navigation, might be <code>null</code>
+ * @return A list with the document URL, whether the document is not the marked
+ * one anymore and whether it's ready
+ * @throws WebDriverException If the document is being replaced
+ */
+List<?> getNavigationState(final String documentMarker) throws WebDriverException {
+	return (List<?>) getJavascriptExecutor().executeScript(NAVIGATION_STATE_SCRIPT, documentMarker == null ? "" : documentMarker);
+}
+
+/**
+ * Return the SPOT javascript library to call helper scripts in browser documents.
+ *
+ * @return The library
+ */
+SpotJavascriptLibrary getJavascriptLibrary() {
+	if (this.javascriptLibrary == null) {
+		this.javascriptLibrary = new SpotJavascriptLibrary(getJavascriptExecutor());
+	}
+	return this.javascriptLibrary;
+}
+
 /**
  * Return the browser name.
  *
@@ -1652,10 +1794,17 @@ public <P extends WebPage> P getPage(final Class<P> pageClass) {
 
 /**
  * Return the performance manager.
- *
- * @return The performance manager as a {@link PerfManager}.
+ * <p>
+ * The manager is created at first call when performances are enabled
+ * (see {@link PerfManager#PERFORMANCE_ENABLED}).
+ * </p>
+ * @return The performance manager as a {@link PerfManager} or <code>null</code>
+ * if performances are not enabled.
  */
 public PerfManager getPerfManager() {
+	if (this.perfManager == null && PERFORMANCE_ENABLED) {
+		this.perfManager = PerfManager.createInstance(this);
+	}
 	return this.perfManager;
 }
 
@@ -1771,13 +1920,7 @@ Set<String> getWindowHandles() throws ScenarioFailedError {
  * @throws ScenarioFailedError If there are several handles and check was requested
  */
 Set<String> getWindowHandles(final boolean check) throws ScenarioFailedError {
-	Set<String> handles;
-	try {
-		handles = this.driver.getWindowHandles();
-	}
-	catch (@SuppressWarnings("unused") NoSuchSessionException snfe) {
-		return Sets.newHashSet();
-	}
+	Set<String> handles = this.windowsRegistry.refresh();
 	if (check && handles.size() > 2) {
 		println("Unexpected number of window handles: "+handles.size());
 		println(" - main window handle: "+this.mainWindowHandle);
@@ -1852,6 +1995,17 @@ protected abstract void initDriver();
  */
 protected abstract void initProfile(User user);
 
+/*
+ * Return the screenshots directory for the given kind, creating all
+ * screenshots directories at first call.
+ */
+private File getScreenshotsDir(final int kind) {
+	if (this.screenshotsDir[kind] == null) {
+		initScreenshotsDir();
+	}
+	return this.screenshotsDir[kind];
+}
+
 private void initScreenshotsDir() {
 	String screenshotsRootDir = getParameterValue(SPOT_SCREENSHOT_DIR_ID, SPOT_SCREENSHOT_DIR_DEFAULT);
 	if (screenshotsRootDir.indexOf(File.separatorChar) < 0) {
@@ -1864,8 +2018,9 @@ private void initScreenshotsDir() {
 
 private void initWindow() {
 
-	// Store the main window handle
+	// Store the main window handle and start tracking windows
 	this.mainWindowHandle = this.driver.getWindowHandle();
+	this.windowsRegistry = new WebWindowsRegistry(this.driver);
 
 	// Maximize window if specified
 	final boolean isHeadless = this.manager.isHeadless();
@@ -1950,6 +2105,43 @@ public boolean isSafari() {
 	return this.manager.getType() == BROWSER_KIND_SAFARI;
 }
 
+/**
+ * Logout the given user from the applications of the pages opened in the browser.
+ * <p>
+ * This has to be called when the user will no longer use the browser, typically
+ * when a new browser is opened for the user while the current one is shared with
+ * other users. Login records of the user are then cleared from the topology,
+ * hence the user will login again when opening a page in the new browser.
+ * </p>
+ * @param user The user to logout
+ */
+public void logoutApplications(final User user) {
+	Set<Topology> topologies = new HashSet<>();
+	for (WebPage page: this.pagesCache) {
+		topologies.add(page.getTopology());
+	}
+	for (Topology topology: topologies) {
+		topology.logoutApplications(user);
+	}
+}
+
+/**
+ * Put a marker in the current document to be able to detect when it will be replaced.
+ *
+ * @return The marker to give to {@link #getNavigationState(String)} or <code>null</code>
+ * if the document cannot be marked, in which case only URL changes can be detected
+ * @see #getNavigationState(String)
+ */
+String markDocument() {
+	try {
+		return (String) getJavascriptExecutor().executeScript(MARK_DOCUMENT_SCRIPT);
+	}
+	catch (WebDriverException wde) {
+		if (DEBUG) debugPrintln("		  -> cannot mark current document ("+wde.getMessage()+"), only URL changes will be detected");
+		return null;
+	}
+}
+
 /**
  * Maximize the browser window.
  */
@@ -2860,6 +3052,16 @@ public void shiftClick(final WebBrowserElement destination) {
 		.perform();
 }
 
+/*
+ * Make the given page the current one of the pages cache without modifying
+ * the navigation history.
+ */
+private void setCurrentPage(final WebPage page) {
+	this.pagesCache.remove(page);
+	this.pagesCache.add(page);
+	page.handle = this.mainWindowHandle;
+}
+
 /**
  * Switch to given window handle.
  *
@@ -2873,6 +3075,7 @@ public void switchToHandle(final String handle) throws NoSuchWindowException {
 		throw new ScenarioFailedError("Cannot switch to new handle "+handle);
 	}
 	this.mainWindowHandle = handle;
+	this.windowsRegistry.register(handle, null);
 }
 
 /*
@@ -2990,35 +3193,101 @@ public void switchToOpenedWindow(final String urlInWindow) throws NoSuchWindowEx
 		return;
 	}
 
-	// Get new window handle
-	long timeout = System.currentTimeMillis() + 30000; // Wait 30 seconds by default
+	// Get new window handle from the registry
 	if (DEBUG) {
 		debugPrintln("		  -> main window handle: "+this.mainWindowHandle);
 		debugPrintln("		  -> looking for handle of URL : "+hidePasswordInLocation(urlInWindow));
 	}
-	while (System.currentTimeMillis() < timeout) {
-		Iterator<String> handles = getWindowHandles().iterator();
-		while (handles.hasNext()) {
-			String handle = handles.next();
-			if (!handle.equals(this.mainWindowHandle)) {
-				this.driver.switchTo().window(handle);
-				if (DEBUG) debugPrintln("		  -> found handle with URL: "+hidePasswordInLocation(this.url));
-				if (getCurrentUrl().startsWith(urlInWindow)) {
-					// We've found the corresponding handle, hence store it as main and return
-					this.mainWindowHandle = handle;
-					if (DEBUG) debugPrintln("		  -> new main window handle is now: "+this.mainWindowHandle);
-					return;
-				}
-			}
-		}
-		if (DEBUG) debugPrintln("		  -> no handle was found, wait 5 seconds more an retry...");
-		sleep(5);
+	String handle = this.windowsRegistry.waitForWindow(urlInWindow, 30000); // Wait 30 seconds by default
+	if (handle != null) {
+		// We've found the corresponding handle, hence store it as main and return
+		this.mainWindowHandle = handle;
+		if (DEBUG) debugPrintln("		  -> new main window handle is now: "+this.mainWindowHandle);
+		return;
 	}
 
 	// Window with expected url was not found, fail the execution
 	throw new ScenarioFailedError("Cannot find an opened browser window or tab with url: "+hidePasswordInLocation(urlInWindow));
 }
 
+/*
+ * Synchronize the current window history with the page displayed at the browser URL.
+ *
+ * The expected page is returned when the browser URL matches it. Otherwise the
+ * window history might have drifted from the real browser history, hence the page
+ * matching the browser URL is searched in the window history and then in the pages
+ * cache. When no known page matches the browser URL, the window history is reset
+ * with the expected page.
+ */
+private WebPage synchronizeHistory(final WebPage expectedPage, final boolean back) {
+	if (WebNavigationHistory.isDisplayedAt(expectedPage, this.location)) {
+		if (back) {
+			this.navigationHistory.back(this.mainWindowHandle);
+		} else {
+			this.navigationHistory.forward(this.mainWindowHandle);
+		}
+		return expectedPage;
+	}
+	WebPage page = this.navigationHistory.moveTo(this.mainWindowHandle, this.location);
+	if (page == null) {
+		for (int i=this.pagesCache.size()-1; i>=0 && page == null; i--) {
+			if (WebNavigationHistory.isDisplayedAt(this.pagesCache.get(i), this.location)) {
+				page = this.pagesCache.get(i);
+			}
+		}
+		if (page == null) {
+			page = expectedPage;
+		}
+		this.navigationHistory.reset(this.mainWindowHandle, page);
+	}
+	debugPrintln("		  -> window history did not match browser URL, displayed page is now: "+hidePasswordInLocation(page.getLocation()));
+	return page;
+}
+
+/*
+ * Wait for a navigation in history to be done.
+ *
+ * The navigation is considered as started when the browser URL changes or when
+ * the current document is replaced. When none of them happens after a short
+ * delay (e.g. history states sharing the same URL), the navigation is assumed
+ * to be done in the current document. Then it waits for the document to be
+ * ready, at most the given timeout.
+ */
+private void waitForNavigation(final String previousUrl, final String documentMarker, final int timeout) {
+	long start = System.currentTimeMillis();
+	long startTimeout = start + HISTORY_NAVIGATION_START_TIMEOUT;
+	long readyTimeout = start + timeout * 1000L;
+	boolean started = false;
+	while (true) {
+		try {
+			List<?> state = getNavigationState(documentMarker);
+			if (!started) {
+				started = !previousUrl.equals(state.get(0)) || (documentMarker != null && Boolean.TRUE.equals(state.get(1)));
+			}
+			if ((started || System.currentTimeMillis() > startTimeout) && Boolean.TRUE.equals(state.get(2))) {
+				break;
+			}
+		}
+		catch (@SuppressWarnings("unused") UnhandledAlertException uae) {
+			// Alert is purged below
+			break;
+		}
+		catch (@SuppressWarnings("unused") WebDriverException wde) {
+			// The document is being replaced, hence navigation has started
+			started = true;
+		}
+		if (System.currentTimeMillis() > readyTimeout) {
+			debugPrintln("		  -> document is still not ready after "+timeout+" seconds");
+			break;
+		}
+		pause(100);
+	}
+	if (DEBUG && !started) debugPrintln("		  -> no navigation detected after "+HISTORY_NAVIGATION_START_TIMEOUT+"ms, assume it was done in the same document");
+	purgeAlerts("While navigating in browser history...");
+	this.location = getCurrentUrl();
+	debugPrintln("		  -> location after navigation: "+hidePasswordInLocation(this.location));
+}
+
 /**
  * Takes a snapshot of the given kind.
  *
@@ -3034,7 +3303,7 @@ private void takeScreenshot(final String fileName, final int kind) {
 	debugPrintEnteringMethod("fileName", fileName, "kind", kind);
 
 	// Get snapshot dir
-	File currentSnapshotsDir = this.screenshotsDir[kind];
+	File currentSnapshotsDir = getScreenshotsDir(kind);
 
 	// Get destination file name
 	String destFileName = COMPACT_DATE_STRING + "_" + fileName + ".png";
@@ -3186,12 +3455,12 @@ private void typeText(final WebBrowserElement element, final String text, final
 	if (!element.isEnabled()) {
 		// Workaround
 		debugPrintln("Workaround: Waiting for element to be enabled before typing text in it...");
-		int count = 0;
+		long end = timeout * 1000 + System.currentTimeMillis();
 		while (!element.isEnabled()) {
-			if (count++ > timeout) { // Timeout
+			if (System.currentTimeMillis() > end) { // Timeout
 				throw new WaitElementTimeoutError("Cannot type "+printedText+" because the web element is disabled!");
 			}
-			sleep(1);
+			pause(100);
 		}
 	}
 
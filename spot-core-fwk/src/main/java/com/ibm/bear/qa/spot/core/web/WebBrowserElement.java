@@ -30,6 +30,7 @@ import org.openqa.selenium.remote.UnreachableBrowserException;
 import com.ibm.bear.qa.spot.core.api.SpotUser;
 import com.ibm.bear.qa.spot.core.config.Timeouts;
 import com.ibm.bear.qa.spot.core.config.User;
+import com.ibm.bear.qa.spot.core.javascript.SpotJavascriptLibrary;
 import com.ibm.bear.qa.spot.core.scenario.errors.*;
 import com.ibm.bear.qa.spot.core.timeout.*;
 import com.ibm.bear.qa.spot.core.web.WebBrowser.ClickableWorkaroundState;
@@ -188,10 +189,6 @@ public class WebBrowserElement implements WebElement {
 	private static final By CHILDREN_LOCATOR = By.xpath("./child::*");
 
 	/* Javascripts */
-	private final static String MOUSE_OVER_JAVASCRIPT =
-		"var forceHoverEvent = document.createEvent('MouseEvents');" +
-		"forceHoverEvent.initEvent( 'mouseover', true, false );" +
-		"arguments[0].dispatchEvent(forceHoverEvent);";
 //	private final static String MOVE_TO_ELEMENT = "arguments[0].scrollIntoView(true);";
 
 	/* Constants */
@@ -490,7 +487,7 @@ public void clear() {
 public void click() {
 	// Start performance timer if necessary
 	if (PERFORMANCE_ENABLED) {
-		this.browser.perfManager.startServerTimer();
+		this.browser.getPerfManager().startServerTimer();
 	}
 
 	try {
@@ -1716,7 +1713,7 @@ public WebBrowserElement makeVisible(final boolean force) {
  */
 public void mouseOver() {
 	debugPrintEnteringMethod();
-	getJavascriptExecutor().executeScript(MOUSE_OVER_JAVASCRIPT, this.webElement);
+	this.browser.getJavascriptLibrary().call(SpotJavascriptLibrary.MOUSE_OVER, this.webElement);
 }
 
 /**
@@ -1988,7 +1985,7 @@ public void rightClick() {
  */
 public void scrollIntoView() {
 	debugPrintEnteringMethod();
-	executeScript("scrollIntoView( true );");
+	this.browser.getJavascriptLibrary().call(SpotJavascriptLibrary.SCROLL_INTO_VIEW, this.webElement, Boolean.FALSE);
 }
 
 /**
@@ -2003,7 +2000,7 @@ public void scrollIntoView() {
  */
 public void scrollSmoothIntoView() {
 	debugPrintEnteringMethod();
-	executeScript("scrollIntoView( {behavior: \"smooth\", block: \"nearest\"} )");
+	this.browser.getJavascriptLibrary().call(SpotJavascriptLibrary.SCROLL_INTO_VIEW, this.webElement, Boolean.TRUE);
 }
 
 /**
@@ -2109,7 +2106,7 @@ public void setVisibility(final boolean visible) {
 	String status = visible ? "visible" : "hidden";
 	println("Set current element "+status);
 	println("	-> current style="+getAttribute("style"));
-	getJavascriptExecutor().executeScript("arguments[0].style.visibility=\""+(visible?"visible":"hidden")+"\";", this.webElement);
+	this.browser.getJavascriptLibrary().call(SpotJavascriptLibrary.SET_VISIBILITY, this.webElement, Boolean.valueOf(visible));
 	println("	-> new style="+getAttribute("style"));
 }
 
@@ -2124,7 +2121,7 @@ public void setVisible(final int width) {
 	debugPrintln("	-> current style="+styleAttribute);
 	String newStyleAttribute = getNewVisibilityStyle(styleAttribute, width);
 	debugPrintln("	-> new style="+newStyleAttribute);
-	getJavascriptExecutor().executeScript("arguments[0].style=\""+newStyleAttribute+"\";", this.webElement);
+	this.browser.getJavascriptLibrary().call(SpotJavascriptLibrary.SET_STYLE, this.webElement, newStyleAttribute);
 	if (!isDisplayed(false)) {
 		throw new ScenarioFailedError("Workaround to make current element "+this+" visible did NOT work.");
 	}
@@ -20,6 +20,7 @@ import java.util.List;
 import org.openqa.selenium.*;
 
 import com.ibm.bear.qa.spot.core.config.Timeouts;
+import com.ibm.bear.qa.spot.core.javascript.SpotJavascriptLibrary;
 import com.ibm.bear.qa.spot.core.scenario.ScenarioUtils;
 import com.ibm.bear.qa.spot.core.scenario.errors.ScenarioFailedError;
 
@@ -442,14 +443,8 @@ public String getTextContent() {
 }
 
 private void moveCursor(final String position) {
-	StringBuilder script = new StringBuilder();
-	// Get the selection range from the editor
-	script.append("var range = " + getEditorScriptRoot() + ".createRange();");
-	// Move the range to the provided position
-	script.append("range.moveToElementEdit" + position + "(range.root);");
-	// Update editors range
-	script.append(getEditorScriptRoot() + ".getSelection().selectRanges([range]);");
-	this.browser.executeScript(script.toString());
+	resetFrame(); // CKEDITOR singleton is only available in main document...
+	this.browser.getJavascriptLibrary().call(SpotJavascriptLibrary.CKEDITOR_MOVE_CURSOR, this.editorInstance, position);
 }
 
 /**
@@ -461,13 +456,8 @@ public void moveCursorToBeginning() {
 }
 
 private void moveCursorToElementEditStart(final String elementId) {
-	StringBuilder script = new StringBuilder();
-	script.append("var ed = "+getEditorScriptRoot()+";");
-	script.append("var elm = ed.document.getById( '"+elementId+"' );");
-	script.append("var rng = ed.createRange();");
-	script.append("rng.moveToElementEditStart(elm);");
-	script.append("ed.getSelection().selectRanges([rng]);");
-	this.browser.executeScript(script.toString());
+	resetFrame(); // CKEDITOR singleton is only available in main document...
+	this.browser.getJavascriptLibrary().call(SpotJavascriptLibrary.CKEDITOR_MOVE_CURSOR_TO_ELEMENT, this.editorInstance, elementId);
 }
 
 /**
@@ -16,6 +16,7 @@ import static com.ibm.bear.qa.spot.core.scenario.ScenarioUtils.*;
 import static com.ibm.bear.qa.spot.core.utils.StringComparisonCriterion.EQUALS;
 
 import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriverException;
 
 import com.ibm.bear.qa.spot.core.scenario.errors.ScenarioFailedError;
 import com.ibm.bear.qa.spot.core.scenario.errors.WaitElementTimeoutError;
@@ -46,6 +47,10 @@ import com.ibm.bear.qa.spot.core.utils.StringComparisonCriterion;
  */
 abstract public class WebLinkHover<P extends WebPage> extends WebTextHover {
 
+	/* Constants */
+	// Interval between two checks of the title text
+	private static final int POLLING_INTERVAL = 100; // in milliseconds
+
 	// Title
 	String title;
 	// Workaround
@@ -75,10 +80,20 @@ public void check() throws ScenarioFailedError {
 }
 
 private void checkTitle() {
+	checkTitle(getTitle(), this.openingElement.getText());
+}
+
+/*
+ * Check the given hover title against the given link text.
+ *
+ * Title can either be got from the opened hover or directly from the link
+ * element attribute when the hover content is available in the DOM.
+ */
+void checkTitle(final String hoverTitle, final String text) {
 
 	// Get titles
-	String richHoverText = getTitle();
-	String linkText = this.openingElement.getText();
+	String richHoverText = hoverTitle;
+	String linkText = text;
 	linkText = linkText.replaceAll("\u200f", "");
 	linkText = linkText.replaceAll("\u202b", "");
 	linkText = linkText.replaceAll("\u202c", "");
@@ -266,8 +281,10 @@ public WebBrowserElement getTitleElement() {
 			throw new WaitElementTimeoutError("The hover title is still empty after having tried again twice, hence give up...");
 		}
 		debugPrint("Workaround #"+n+": ");
-		debugPrintln("	- wait "+n+" seconds...");
-		sleep(n);
+		debugPrintln("	- wait "+n+" seconds at most...");
+		if (waitForTitleText(hoverTitleElement, n)) {
+			continue;
+		}
 
 		// Check first whether the hover is still displayed
 		if (this.element.isDisplayed()) {
@@ -286,6 +303,28 @@ public WebBrowserElement getTitleElement() {
 	return hoverTitleElement;
 }
 
+/*
+ * Wait at most the given seconds for the title element to get some text.
+ * Returns true and store the title if some text was got before the timeout.
+ */
+private boolean waitForTitleText(final WebBrowserElement titleElement, final int seconds) {
+	long timeout = seconds * 1000 + System.currentTimeMillis();
+	while (System.currentTimeMillis() < timeout) {
+		pause(POLLING_INTERVAL);
+		try {
+			this.title = titleElement.getText();
+		}
+		catch (@SuppressWarnings("unused") WebDriverException wde) {
+			// Title element is no longer valid, hover needs to be checked
+			return false;
+		}
+		if (!this.title.isEmpty()) {
+			return true;
+		}
+	}
+	return false;
+}
+
 /**
  * Return the xpath for the the title link element.
  *
@@ -15,6 +15,7 @@ package com.ibm.bear.qa.spot.core.web;
 import static com.ibm.bear.qa.spot.core.performance.PerfManager.PERFORMANCE_ENABLED;
 import static com.ibm.bear.qa.spot.core.scenario.ScenarioUtils.*;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import org.openqa.selenium.*;
@@ -33,7 +34,10 @@ import com.ibm.bear.qa.spot.core.utils.SpotFactory;
  * a menu item or drop-down button.
  * </p><p>
  * The open operation looks like a window one but have the peculiarity to check that items are
- * loaded before returning.
+ * loaded before returning. At that time, all items are read at once and stored in an index
+ * (see {@link Item}) which is kept until the menu is closed or one of its item clicked. Item
+ * elements are then got from that index instead of being searched in the menu, the usual
+ * search being only done when the item is not found in the index.
  * </p><p>
  * This class implements following API methods of {@link SpotWindow} interface:
  * <ul>
@@ -53,6 +57,7 @@ import com.ibm.bear.qa.spot.core.utils.SpotFactory;
  * <li>{@link #getItemElement(String)}: Return the web element for the item matching the given label.</li>
  * <li>{@link #getItemElement(String,boolean)}: Return the web element for the item matching the given label.</li>
  * <li>{@link #getItemElements()}: Returns the list of item elements of the current menu.</li>
+ * <li>{@link #getItems()}: Return the items index of the opened menu.</li>
  * <li>{@link #getLabels(boolean)}: Returns the labels list of current menu items.</li>
  * <li>{@link #hasItem(String)}: Check whether an item with the given name exists in the menu or not.</li>
  * <li>{@link #open(WebBrowserElement)}: Open the window by clicking on the given web element.</li>
@@ -69,6 +74,7 @@ import com.ibm.bear.qa.spot.core.utils.SpotFactory;
  * <li>{@link #getCloseButtonLocator(boolean)}: There's no action to close a menu, it closes alone.</li>
  * <li>{@link #getItemElement(String,int,boolean,boolean)}: Return the web element for the item matching the given label.</li>
  * <li>{@link #getItemElementsLocator()}: Returns the locator of the menu item elements.</li>
+ * <li>{@link #getItemLabelScript()}: Returns the javascript expression to get the label of an item element.</li>
  * <li>{@link #getItemLocator(String)}: Returns the locator for the given item.</li>
  * <li>{@link #getMenuElement(int)}: Return the menu element.</li>
  * <li>{@link #isMenuItemDisplayed(String)}: Returns whether the given menu item is displayed or not.</li>
@@ -81,9 +87,94 @@ import com.ibm.bear.qa.spot.core.utils.SpotFactory;
  */
 public class WebMenu extends SpotAbstractWindow {
 
+	/**
+	 * Class to store information of a menu item read when the menu was opened.
+	 */
+	public static class Item {
+		final WebBrowserElement element;
+		final String label;
+		final String text;
+		final boolean enabled;
+		final boolean displayed;
+		final boolean submenu;
+		Item(final WebBrowserElement element, final List<?> values) {
+			this.element = element;
+			this.label = (String) values.get(0);
+			this.text = (String) values.get(1);
+			this.enabled = ((Boolean) values.get(2)).booleanValue();
+			this.displayed = ((Boolean) values.get(3)).booleanValue();
+			this.submenu = ((Boolean) values.get(4)).booleanValue();
+		}
+
+		/**
+		 * Return the item label.
+		 *
+		 * @return The label
+		 */
+		public String getLabel() {
+			return this.label;
+		}
+
+		/**
+		 * Return the item entire text.
+		 *
+		 * @return The text
+		 */
+		public String getText() {
+			return this.text;
+		}
+
+		/**
+		 * Return whether the item has a sub-menu.
+		 *
+		 * @return <code>true</code> if the item opens a sub-menu, <code>false</code> otherwise
+		 */
+		public boolean hasSubmenu() {
+			return this.submenu;
+		}
+
+		/**
+		 * Return whether the item was displayed when the menu was opened.
+		 *
+		 * @return <code>true</code> if the item was displayed, <code>false</code> otherwise
+		 */
+		public boolean isDisplayed() {
+			return this.displayed;
+		}
+
+		/**
+		 * Return whether the item was enabled when the menu was opened.
+		 *
+		 * @return <code>true</code> if the item was enabled, <code>false</code> otherwise
+		 */
+		public boolean isEnabled() {
+			return this.enabled;
+		}
+
+		@Override
+		public String toString() {
+			return "Menu item '"+this.label+"' (enabled="+this.enabled+", displayed="+this.displayed+", submenu="+this.submenu+")";
+		}
+	}
+
+	/* Constants */
+	private static final String READ_ITEMS_SCRIPT =
+		"return Array.prototype.map.call(arguments, function(e) {" +
+		"var text = (e.innerText || e.textContent || '').trim();" +
+		"return [" +
+		"(%s).replace(/\\s+/g, ' ').trim(), text," +
+		"!(e.disabled || e.getAttribute('aria-disabled') === 'true' || /(^|\\s)\\w*Disabled(\\s|$)/.test(e.className))," +
+		"!!(e.offsetWidth || e.offsetHeight || e.getClientRects().length)," +
+		"e.getAttribute('aria-haspopup') === 'true' || /PopupMenuItem/.test(e.className)" +
+		"];" +
+		"});";
+
 	final private boolean useRightClick;
 	final private boolean useFrame;
 
+	// Items index, only set while the menu is opened
+	private List<Item> items;
+
 /**
  * Create a menu element in the given parent using the wrapped web element
  * found by the given locator.
@@ -208,7 +299,8 @@ public void clickItem(final String item) {
 	// Get item element
 	WebBrowserElement itemElement = getItemElement(item);
 
-	// Check that the
+	// Click on it, that closes the menu
+	this.items = null;
 	itemElement.click();
 }
 
@@ -228,6 +320,7 @@ public <P extends WebPage> P clickItem(final String itemLabel, final By linkBy,
 	if (linkBy != null) {
 		itemElement = itemElement.findElement(linkBy);
 	}
+	this.items = null;
 	return getPage().openPageUsingLink(itemElement, pageClass, data);
 }
 
@@ -251,6 +344,7 @@ public <P extends WebPage> P clickItem(final String itemLabel, final Class<P> pa
  * @return The opened dialog
  */
 public <D extends SpotAbstractDialog> D clickItem(final WebBrowserElement itemElement, final Class<D> dialogClass) {
+	this.items = null;
 	try {
 		D dialog = SpotFactory.createWindowInstance(getPage(), dialogClass);
 		dialog.open(itemElement);
@@ -274,6 +368,7 @@ public <D extends SpotAbstractDialog> D clickItem(final WebBrowserElement itemEl
 public <W extends SpotAbstractWindow> W clickItemAndOpenWindow(final String item, final By windowBy, final Class<W> windowClass, final String... data) {
 	debugPrintEnteringMethod("item", item, "windowBy", windowBy, "windowClass", getClassSimpleName(windowClass), "data", getTextFromList(data));
 	WebBrowserElement itemElement = getItemElement(item);
+	this.items = null;
 	try {
 		W window = SpotFactory.createWindowInstance(getPage(), windowBy, windowClass, data);
 		window.open(itemElement);
@@ -322,6 +417,7 @@ protected void clickOnOpenElement(final WebBrowserElement openElement) {
  */
 @Override
 protected void closeAction(final boolean cancel) {
+	this.items = null;
 	this.openingElement.sendKeys(Keys.ESCAPE);
 }
 
@@ -457,8 +553,20 @@ public WebBrowserElement getItemElement(final String itemLabel, final boolean di
 protected WebBrowserElement getItemElement(final String itemLabel, final int timeout, final boolean displayed, final boolean canWorkaround) throws WaitElementTimeoutError {
 	debugPrintEnteringMethod("itemLabel", itemLabel, "timeout", timeout, "displayed", displayed, "canWorkaround", canWorkaround);
 
+	// Get item element from index if possible
+	WebBrowserElement itemElement = null;
+	Item item = getIndexedItem(itemLabel);
+	if (item != null && (item.displayed || !displayed)) {
+		itemElement = getIndexedItemElement(item, itemLabel);
+		if (itemElement != null) {
+			debugPrintln("		  -> item found in menu index");
+		}
+	}
+
 	// Wait for item element
-	WebBrowserElement itemElement = waitForItemElement(itemLabel, displayed, timeout);
+	if (itemElement == null) {
+		itemElement = waitForItemElement(itemLabel, displayed, timeout);
+	}
 
 	// If element is not found
 	if (itemElement == null) {
@@ -524,6 +632,66 @@ public List<WebBrowserElement> getItemElements() {
 	return this.browser.waitForElements(parentElement, 	getItemElementsLocator(), /*fail:*/false, shortTimeout(), /*displayed:*/ true);
 }
 
+/**
+ * Returns the javascript expression to get the label of an item element.
+ * <p>
+ * The expression is evaluated with the item element stored in variable <code>e</code>
+ * and the item text in variable <code>text</code>. Its result is compared to the label
+ * given to find an item in the menu index.
+ * </p><p>
+ * By default it's the text of the dijit container node of the item if any, the entire
+ * item text otherwise. Subclasses might want to override this method when items label
+ * is stored differently.
+ * </p>
+ * @return The expression as a {@link String}
+ */
+protected String getItemLabelScript() {
+	return "(function(c) { return c ? c.textContent : text; })(e.querySelector(\"[dojoattachpoint*='containerNode'],[data-dojo-attach-point*='containerNode']\"))";
+}
+
+/**
+ * Return the items index of the opened menu.
+ * <p>
+ * The index is built if it does not exist yet.
+ * </p>
+ * @return The items list
+ */
+public List<Item> getItems() {
+	if (this.items == null) {
+		this.items = readItems(getItemElements());
+	}
+	return this.items;
+}
+
+/*
+ * Return the indexed item matching the given label, null if there's no index
+ * or no matching item.
+ */
+private Item getIndexedItem(final String itemLabel) {
+	if (this.items != null) {
+		for (Item item: this.items) {
+			if (item.label.equals(itemLabel)) {
+				return item;
+			}
+		}
+	}
+	return null;
+}
+
+/*
+ * Return the element of the given indexed item which would have been found
+ * using the item locator, null if it cannot be found in the indexed item element.
+ */
+private WebBrowserElement getIndexedItemElement(final Item item, final String itemLabel) {
+	By itemLocator = getItemLocator(itemLabel);
+	if (itemLocator == null) {
+		// Items are then found using the items list, hence indexed element is the expected one
+		return item.element;
+	}
+	List<WebElement> elements = item.element.findElements(itemLocator, false/*displayed*/, false/*recovery*/);
+	return elements.isEmpty() ? null : (WebBrowserElement) elements.get(0);
+}
+
 /**
  * Returns the locator of the menu item elements.
  * <p>
@@ -568,8 +736,17 @@ protected By getItemLocator(final String itemLabel) {
  * @return A item labels list
  */
 public List<String> getLabels(final boolean close) {
-	List<WebBrowserElement> elements  = getItemElements();
-	List<String> strings = toStrings(elements);
+	List<String> strings;
+	if (this.items == null) {
+		strings = toStrings(getItemElements());
+	} else {
+		strings = new ArrayList<>(this.items.size());
+		for (Item item: this.items) {
+			if (item.displayed) {
+				strings.add(item.text);
+			}
+		}
+	}
 	if (close) {
 		close();
 	}
@@ -593,6 +770,10 @@ protected WebBrowserElement getMenuElement(final int seconds) {
  * @return <code>true</false> if the item exists, <code>false</code> otherwise.
  */
 public boolean hasItem(final String menuItem) {
+	Item item = getIndexedItem(menuItem);
+	if (item != null && item.displayed) {
+		return true;
+	}
 	return waitForItemElement(menuItem, true /*displayed*/, 1/*second*/) != null;
 }
 
@@ -643,6 +824,7 @@ public WebBrowserElement open(final WebBrowserElement webElement) {
 
 	// Store the open element
 	this.openingElement = webElement;
+	this.items = null;
 
 	// Get popup menu web element
 	WebBrowserElement menuElement = getMenuElement(0);
@@ -681,6 +863,26 @@ public WebBrowserElement open(final WebBrowserElement webElement) {
 	return this.element;
 }
 
+/*
+ * Read information of all given item elements using a single script execution.
+ */
+private List<Item> readItems(final List<WebBrowserElement> itemElements) {
+	List<Item> readItems = new ArrayList<>(itemElements.size());
+	if (itemElements.isEmpty()) {
+		return readItems;
+	}
+	Object[] webElements = new Object[itemElements.size()];
+	for (int i=0; i<webElements.length; i++) {
+		webElements[i] = itemElements.get(i).webElement;
+	}
+	String script = String.format(READ_ITEMS_SCRIPT, getItemLabelScript());
+	List<?> values = (List<?>) this.browser.getJavascriptExecutor().executeScript(script, webElements);
+	for (int i=0; i<webElements.length; i++) {
+		readItems.add(new Item(itemElements.get(i), (List<?>) values.get(i)));
+	}
+	return readItems;
+}
+
 private void setFrame(final WebElementFrame frame) {
 	if (this.frames[2] != null) {
 		throw new ScenarioImplementationError("Cannot set frame although one is already selected.");
@@ -704,7 +906,7 @@ private void setFrame(final WebElementFrame frame) {
  */
 protected void setPerfManagerRegressionType(final RegressionType regressionType, final boolean override) throws ScenarioFailedError {
 	if (PERFORMANCE_ENABLED) {
-		this.browser.perfManager.setRegressionType(regressionType, override);
+		this.browser.getPerfManager().setRegressionType(regressionType, override);
 	} else {
 		throw new ScenarioFailedError("Performances are not enabled for the scenario execution. Use -DperformanceEnabled=true to avoid this failure.");
 	}
@@ -797,9 +999,9 @@ protected void waitForLoadingEnd() {
 	}
 
 	// Wait until first item is no longer saying "Loading..."
-	for (WebBrowserElement itemElement: itemElements) {
-		String itemText = itemElement.getText(false/*recovery*/);
-		if (itemText.startsWith("Loading")) {
+	List<Item> readItems = readItems(itemElements);
+	for (Item item: readItems) {
+		if (item.text.startsWith("Loading")) {
 			testTimeout();
 			sleep(1);
 			waitForLoadingEnd();
@@ -807,6 +1009,10 @@ protected void waitForLoadingEnd() {
 		}
 	}
 
+	// Store items index
+	this.items = readItems;
+	debugPrintln("		  -> "+readItems.size()+" items stored in menu index");
+
 	// Check that menu items are all displayed
 	// TODO Improve following commented algorithm which tests the last item
 	// and wait to become stable. Unfortunately that was not possible to activate
@@ -0,0 +1,213 @@
+/*********************************************************************
+* Copyright (c) 2012, 2024 IBM Corporation and others.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+**********************************************************************/
+package com.ibm.bear.qa.spot.core.web;
+
+import java.util.*;
+
+/**
+ * Class to manage the navigation history of pages displayed in browser windows.
+ * <p>
+ * Each window has its own history made of a back stack, which top is the page
+ * currently displayed in the window, and a forward stack filled when moving back.
+ * As for browsers, visiting a new page clears the forward stack.
+ * </p><p>
+ * As the history is only fed when pages are cached, it might drift from the real
+ * browser history (e.g. after redirections or javascript navigation). Hence the
+ * history of a window can be moved to the page displayed at a given URL (see
+ * {@link #moveTo(String, String)}) or reset (see {@link #reset(String, WebPage)}).
+ * </p><p>
+ * This class defines following internal API methods:
+ * <ul>
+ * <li>{@link #back(String)}: Move back one page in the given window history.</li>
+ * <li>{@link #clear()}: Clear the history of all windows.</li>
+ * <li>{@link #forward(String)}: Move forward one page in the given window history.</li>
+ * <li>{@link #isDisplayedAt(WebPage, String)}: Tells whether the given page is the one displayed at the given URL.</li>
+ * <li>{@link #moveTo(String, String)}: Move the given window history to the page displayed at the given URL.</li>
+ * <li>{@link #peekBack(String)}: Return the page displayed when moving back in the given window.</li>
+ * <li>{@link #peekForward(String)}: Return the page displayed when moving forward in the given window.</li>
+ * <li>{@link #remove(String)}: Remove the history of the given window.</li>
+ * <li>{@link #reset(String, WebPage)}: Reset the history of the given window with the given page.</li>
+ * <li>{@link #visit(String, WebPage)}: Record the given page as displayed in the given window.</li>
+ * </ul>
+ * </p>
+ */
+class WebNavigationHistory {
+
+	/**
+	 * History of a single window.
+	 */
+	private static class WindowHistory {
+		final Deque<WebPage> backStack = new ArrayDeque<>();
+		final Deque<WebPage> forwardStack = new ArrayDeque<>();
+	}
+
+	/* Fields */
+	private final Map<String, WindowHistory> windows = new HashMap<>();
+
+/**
+ * Move back one page in the given window history.
+ *
+ * @param handle The window handle
+ * @return The page now displayed in the window or <code>null</code> if there was
+ * no page to move back to
+ */
+WebPage back(final String handle) {
+	WindowHistory history = this.windows.get(handle);
+	if (history == null || history.backStack.size() < 2) {
+		return null;
+	}
+	history.forwardStack.push(history.backStack.pop());
+	return history.backStack.peek();
+}
+
+/**
+ * Clear the history of all windows.
+ */
+void clear() {
+	this.windows.clear();
+}
+
+/**
+ * Move forward one page in the given window history.
+ *
+ * @param handle The window handle
+ * @return The page now displayed in the window or <code>null</code> if there was
+ * no page to move forward to
+ */
+WebPage forward(final String handle) {
+	WindowHistory history = this.windows.get(handle);
+	if (history == null || history.forwardStack.isEmpty()) {
+		return null;
+	}
+	WebPage page = history.forwardStack.pop();
+	history.backStack.push(page);
+	return page;
+}
+
+/**
+ * Tells whether the given page is the one displayed at the given URL.
+ *
+ * @param page The page
+ * @param url The browser URL
+ * @return <code>true</code> if the URL starts with the page location,
+ * <code>false</code> otherwise
+ */
+static boolean isDisplayedAt(final WebPage page, final String url) {
+	return url != null && url.startsWith(page.getLocation());
+}
+
+/**
+ * Move the given window history to the page displayed at the given URL.
+ * <p>
+ * The page is searched in the back stack first, starting from the current page,
+ * and then in the forward stack. Pages between the current one and the found one
+ * are moved from one stack to the other.
+ * </p>
+ * @param handle The window handle
+ * @param url The browser URL
+ * @return The page displayed at the URL or <code>null</code> if the history has
+ * no such page, in which case the history is not changed
+ */
+WebPage moveTo(final String handle, final String url) {
+	WindowHistory history = this.windows.get(handle);
+	if (history == null) {
+		return null;
+	}
+	int index = 0;
+	for (WebPage page: history.backStack) {
+		if (isDisplayedAt(page, url)) {
+			for (int i=0; i<index; i++) {
+				history.forwardStack.push(history.backStack.pop());
+			}
+			return page;
+		}
+		index++;
+	}
+	index = 0;
+	for (WebPage page: history.forwardStack) {
+		if (isDisplayedAt(page, url)) {
+			for (int i=0; i<=index; i++) {
+				history.backStack.push(history.forwardStack.pop());
+			}
+			return page;
+		}
+		index++;
+	}
+	return null;
+}
+
+/**
+ * Return the page displayed when moving back in the given window.
+ *
+ * @param handle The window handle
+ * @return The page or <code>null</code> if there's no page to move back to
+ */
+WebPage peekBack(final String handle) {
+	WindowHistory history = this.windows.get(handle);
+	if (history == null || history.backStack.size() < 2) {
+		return null;
+	}
+	Iterator<WebPage> iterator = history.backStack.iterator();
+	iterator.next();
+	return iterator.next();
+}
+
+/**
+ * Return the page displayed when moving forward in the given window.
+ *
+ * @param handle The window handle
+ * @return The page or <code>null</code> if there's no page to move forward to
+ */
+WebPage peekForward(final String handle) {
+	WindowHistory history = this.windows.get(handle);
+	return history == null ? null : history.forwardStack.peek();
+}
+
+/**
+ * Remove the history of the given window.
+ *
+ * @param handle The window handle
+ */
+void remove(final String handle) {
+	this.windows.remove(handle);
+}
+
+/**
+ * Reset the history of the given window with the given page.
+ *
+ * @param handle The window handle
+ * @param page The page displayed in the window
+ */
+void reset(final String handle, final WebPage page) {
+	this.windows.remove(handle);
+	visit(handle, page);
+}
+
+/**
+ * Record the given page as displayed in the given window.
+ * <p>
+ * Nothing happens if the page is already the current one of the window.
+ * </p>
+ * @param handle The window handle
+ * @param page The displayed page
+ */
+void visit(final String handle, final WebPage page) {
+	if (handle == null) return;
+	WindowHistory history = this.windows.computeIfAbsent(handle, h -> new WindowHistory());
+	if (page.equals(history.backStack.peek())) {
+		return;
+	}
+	history.backStack.push(page);
+	history.forwardStack.clear();
+}
+}
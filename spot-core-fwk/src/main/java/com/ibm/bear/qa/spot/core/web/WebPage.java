@@ -23,11 +23,15 @@ import java.io.UnsupportedEncodingException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.net.*;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.openqa.selenium.By;
 import org.openqa.selenium.Keys;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.WebElement;
 
 import com.ibm.bear.qa.spot.core.api.SpotConfig;
 import com.ibm.bear.qa.spot.core.api.SpotUser;
@@ -64,6 +68,7 @@ import com.ibm.bear.qa.spot.core.utils.StringComparisonCriterion;
  * This class also defines following internal API methods:
  * <ul>
  * <li>{@link #checkHoverTitle(WebBrowserElement,Class)}: Check the hover title of the given link element.</li>
+ * <li>{@link #checkHoverTitles(List,Class)}: Check the hover titles of the given link elements.</li>
  * <li>{@link #checkRichHover(WebBrowserElement,Class,String...)}: Check the rich hover of the given link element.</li>
  * <li>{@link #click(WebBrowserElement,By)}: Click on the web element found using the given locator relatively to</li>
  * <li>{@link #clickButton(By)}: Click on the button found in the current page using the given locator.</li>
@@ -74,12 +79,14 @@ import com.ibm.bear.qa.spot.core.utils.StringComparisonCriterion;
  * <li>{@link #getApplication()}: Return the application associated with the current page.</li>
  * <li>{@link #getBrowser()}: Return the browser associated with the current page.</li>
  * <li>{@link #getConfig()}: Return the configuration associated with the current page.</li>
+ * <li>{@link #getData()}: Return the additional information used when creating the page.</li>
  * <li>{@link #getDocumentTitle()}: Return the value of the <code>document.title</code>.</li>
  * <li>{@link #getLocationUrl()}: Return the page location used when creating it</li>
  * <li>{@link #getPageClass(String)}: Return a page class from the given name.</li>
  * <li>{@link #getUrl()}: Return the URL of the page loaded in the browser.</li>
  * <li>{@link #getUser()}: Return the user used when the page was loaded.</li>
  * <li>{@link #goBack()}: Move back a single "item" in the browser's history.</li>
+ * <li>{@link #goForward()}: Move forward a single "item" in the browser's history.</li>
  * <li>{@link #hashCode()}: Answers an integer hash code for the receiver. Any two</li>
  * <li>{@link #login(User)}: Login the page from current user to the given user.</li>
  * <li>{@link #login(User,boolean)}: Login the page from current user to the given user.</li>
@@ -138,6 +145,7 @@ import com.ibm.bear.qa.spot.core.utils.StringComparisonCriterion;
  * <li>{@link #createPage(String,Config,User,Class)}: Retrieve the existing page for the given location or create it using given config and user if it is the first time the page is requested.</li>
  * <li>{@link #createPage(String,Config,User,Class,String...)}: Retrieve the existing page for the given location or create it using given config, user and specific data if it is the first time the page is requested.</li>
  * <li>{@link #createPageInstance(String,Config,User,Class,String...)}: Create a page instance of the given class for the given location using the given configuration, user and data.</li>
+ * <li>{@link #fillForm(Map)}: Fill the given form fields with the given values.</li>
  * <li>{@link #findElement(By)}: Find an element in the current browser page for the given locator.</li>
  * <li>{@link #getLoggedUserElementLocator()}: Return the locator of the web element displaying the logged user name.</li>
  * <li>{@link #getLoginOperation(User)}: Return a login operation instance dedicated to the current page and given user.</li>
@@ -368,6 +376,18 @@ public abstract class WebPage implements SpotPage {
 		return reopenedPage;
 	}
 
+	// Script reading the text and given attribute of a list of link elements at once
+	private static final String READ_LINKS_SCRIPT =
+		"var attribute = arguments[1];" +
+		"return arguments[0].map(function(link) {" +
+		"	return [(link.innerText || link.textContent || '').trim(), link.getAttribute(attribute)];" +
+		"});";
+	// Interval between two checks of the navigation state after a link click
+	private static final int NAVIGATION_POLLING_INTERVAL = 100; // in milliseconds
+	// Maximum time to wait for the navigation to start after a link click, which was
+	// the fixed delay previously applied after the click
+	private static final int NAVIGATION_START_TIMEOUT = 1250; // in milliseconds
+
 	// The browser in which the current page is displayed
 	protected WebBrowser browser;
 	String handle;
@@ -391,6 +411,7 @@ public abstract class WebPage implements SpotPage {
 	private int timeout;
 	private int openTimeout;
 	private int shortTimeout;
+	// Fixed delays around link clicks, only applied when a page opts in by setting them
 	protected int delayBeforeLinkClick;
 	protected int delayAfterLinkClick;
 
@@ -681,6 +702,59 @@ public <P extends WebLinkHover<? extends WebPage>> P checkHoverTitle(final WebBr
 	return hover;
 }
 
+/**
+ * Check the hover titles of the given link elements.
+ * <p>
+ * When the hover class tells that its content is stored in a link attribute
+ * (see {@link WebTextHover#getPrefetchAttribute()}), texts and attributes
+ * of all links are read at once and titles are checked without opening any
+ * hover. Links which attribute is empty and all links when the content is not
+ * available in the DOM are checked by opening their hover
+ * (see {@link #checkHoverTitle(WebBrowserElement, Class)}).
+ * </p>
+ * @param <P> The expected class for the hovers
+ * @param linkElements The links to check
+ * @param hoverClass The expected class for the hovers
+ * @throws ScenarioFailedError If one of the titles does not match its link text
+ */
+public <P extends WebLinkHover<? extends WebPage>> void checkHoverTitles(final List<WebBrowserElement> linkElements, final Class<P> hoverClass) {
+	if (DEBUG) debugPrintln("		+ Check hovers on "+linkElements.size()+" links using "+hoverClass);
+
+	// Read link texts and attributes at once if the hover content is in the DOM
+	P hover = createHover(hoverClass);
+	String attribute = hover.getPrefetchAttribute();
+	List<?> linksData = null;
+	if (attribute != null) {
+		List<WebElement> webElements = new ArrayList<>(linkElements.size());
+		for (WebBrowserElement linkElement: linkElements) {
+			webElements.add(linkElement.getWebElement());
+		}
+		try {
+			linksData = (List<?>) this.browser.getJavascriptExecutor().executeScript(READ_LINKS_SCRIPT, webElements, attribute);
+		}
+		catch (WebDriverException wde) {
+			debugPrintln("		  -> cannot read links attribute '"+attribute+"' ("+wde.getMessage()+"), open each hover instead");
+		}
+	}
+
+	// Check each link
+	int prefetched = 0;
+	for (int i=0; i<linkElements.size(); i++) {
+		WebBrowserElement linkElement = linkElements.get(i);
+		if (linksData != null) {
+			List<?> linkData = (List<?>) linksData.get(i);
+			String title = (String) linkData.get(1);
+			if (title != null && !title.trim().isEmpty()) {
+				hover.checkTitle(title.trim(), (String) linkData.get(0));
+				prefetched++;
+				continue;
+			}
+		}
+		checkHoverTitle(linkElement, hoverClass).close();
+	}
+	if (DEBUG) debugPrintln("		  -> "+prefetched+" titles checked from DOM, "+(linkElements.size()-prefetched)+" by opening hover");
+}
+
 /**
  * Check the rich hover of the given link element.
  * <p>
@@ -975,6 +1049,36 @@ public boolean equals(final Object o) {
 	return false;
 }
 
+/*
+ * Create an instance of the given hover class for the current page.
+ */
+@SuppressWarnings("unchecked")
+private <H extends WebLinkHover<? extends WebPage>> H createHover(final Class<H> hoverClass) {
+	try {
+		Constructor<? extends WebLinkHover<? extends WebPage>> constructor = hoverClass.getConstructor(WebPage.class);
+		return (H) constructor.newInstance(this);
+	}
+	catch (Exception ex) {
+		throw new ScenarioFailedError(ex);
+	}
+}
+
+/**
+ * Fill the given form fields with the given values.
+ * <p>
+ * Values are set at once when possible, fields which cannot be set that way
+ * are typed as done in {@link #typeText(WebBrowserElement, String)}, hence
+ * will fail if they do not turn enabled before {@link #shortTimeout()} seconds.
+ * </p>
+ * @param fields The fields with their value, use an ordered map when the fields
+ * have to be filled in a specific order
+ *
+ * @see WebBrowser#fillForm(Map, int)
+ */
+protected void fillForm(final Map<WebBrowserElement, String> fields) {
+	this.browser.fillForm(fields, shortTimeout());
+}
+
 /**
  * Find an element in the current browser page for the given locator.
  *
@@ -1087,6 +1191,16 @@ public Config getConfig() {
 	return this.config;
 }
 
+/**
+ * Return the additional information used when creating the page.
+ *
+ * @return The information as an array of {@link String} or <code>null</code>
+ * if the page was created without any
+ */
+public String[] getData() {
+	return this.data;
+}
+
 /**
  * Return the value of the <code>document.title</code>.
  *
@@ -1224,6 +1338,16 @@ public WebPage goBack() {
 	return this.browser.back();
 }
 
+/**
+ * Move forward a single "item" in the browser's history.
+ *
+ * @see WebBrowser#forward()
+ */
+public WebPage goForward() {
+	debugPrintEnteringMethod();
+	return this.browser.forward();
+}
+
 @Override
 public int hashCode() {
 	return this.location.hashCode();
@@ -1237,18 +1361,10 @@ public int hashCode() {
  * @param hoverClass The hover specialized class
  * @return The opened hover as the given specialized class
  */
-@SuppressWarnings("unchecked")
 protected <H extends WebLinkHover<? extends WebPage>> H hoverOverLink(final WebBrowserElement linkElement, final Class<H> hoverClass) {
 
 	// Create the hover window
-	H hover;
-	try {
-		Constructor<? extends WebLinkHover<? extends WebPage>> constructor = hoverClass.getConstructor(WebPage.class);
-		hover = (H) constructor.newInstance(this);
-	}
-	catch (Exception ex) {
-		throw new ScenarioFailedError(ex);
-	}
+	H hover = createHover(hoverClass);
 
 	// Hover over the link element
 	hover.open(linkElement);
@@ -1270,6 +1386,19 @@ protected NlsMessages initNlsMessages() {
 	return null;
 }
 
+/*
+ * Return whether the current document is ready with some content in its body.
+ */
+private boolean isDocumentReady() {
+	try {
+		return Boolean.TRUE.equals(this.browser.getNavigationState(null).get(2));
+	}
+	catch (@SuppressWarnings("unused") Exception ex) {
+		// Document is being replaced
+		return false;
+	}
+}
+
 /**
  * Return whether the page is currently loaded or not.
  * <p>
@@ -1863,21 +1992,19 @@ public <P extends WebPage> P openPageUsingLink(final WebBrowserElement linkEleme
 		return (P) currentPage;
 	}
 
-	// Since Selenium 2.43.1 and/or Firefox 31 upgrade it happens sometimes that there's a freeze
-	// when clicking on a link while trying to load the corresponding page...
-	// Hence adding a security pause before the click in order to circumvent this issue
+	// Delays before and after the click are only applied when the page opts in
+	// (see delayBeforeLinkClick and delayAfterLinkClick fields)
 	if (this.delayBeforeLinkClick > 0) {
 		if (DEBUG) debugPrintln("		  -> delay before click used: "+this.delayBeforeLinkClick+"ms");
 		pause(this.delayBeforeLinkClick);
 	}
 
+	// Mark the current document to be able to detect when it's replaced
+	String browserUrl = this.browser.getCurrentUrl();
+	String documentMarker = this.browser.markDocument();
+
 	// Click on the link
 	linkElement.click();
-	pause(250);
-
-	// Since Selenium 2.43.1 and/or Firefox 31 upgrade it happens frequently that there's a delay
-	// between the click action and the browser content change...
-	// Hence adding a security pause after the click in order to circumvent this issue
 	if (this.delayAfterLinkClick > 0) {
 		if (DEBUG) debugPrintln("		  -> delay after click used: "+this.delayAfterLinkClick+"ms");
 		pause(this.delayAfterLinkClick);
@@ -1886,34 +2013,28 @@ public <P extends WebPage> P openPageUsingLink(final WebBrowserElement linkEleme
 	// Notify the perfManager that a page is loading
 	if (PERFORMANCE_ENABLED) this.browser.getPerfManager().setPageLoading(true);
 
-	// Check whether a new handle has been created
-	Set<String> newHandles = this.browser.getWindowHandles(/*check:*/false);
-	if (newHandles.size() > handles.size()) {
-		for (String browserHandle: newHandles) {
-			if (!handles.contains(browserHandle)) {
-				pause(500);
-				this.browser.switchToHandle(browserHandle);
-				this.browser.maximize();
-				break;
-			}
-		}
+	// Wait for the navigation to start: either a new window, a new URL or a new document
+	String newHandle = waitForLinkNavigation(handles, browserUrl, documentMarker);
+	if (newHandle != null) {
+		this.browser.switchToHandle(newHandle);
+		this.browser.maximize();
 	}
 
 	// Accept private connection if any
 	this.browser.acceptPrivateConnection();
 
-	// Wait that at least for the body element with some content appeared in the page
-	SpotAbstractTimeout childrenTimeout = new SpotAbstractTimeout() {
+	// Wait that the document is ready with at least some content in its body
+	SpotAbstractTimeout readyTimeout = new SpotAbstractTimeout() {
 		@Override
 		protected boolean getCondition() {
-			return getBodyElement().getChildren().size() > 0;
+			return isDocumentReady();
 		}
 		@Override
 		protected String getConditionLabel() {
-			return "Has children";
+			return "Document ready";
 		}
 	};
-	childrenTimeout.waitUntil(timeout());
+	readyTimeout.waitUntil(timeout());
 
 	// If we're just opening the same page as we're on, skip the workaround.
 	// Note: if the url is the same but the class of the page is different, we will get here.
@@ -1949,7 +2070,7 @@ public <P extends WebPage> P openPageUsingLink(final WebBrowserElement linkEleme
 				return openPage(linkUrl, getConfig(), getUser(), openedPageClass, pageData);
 			}
 			count++;
-			sleep(1);
+			pause(NAVIGATION_POLLING_INTERVAL);
 		}
 		if (DEBUG && count > 0) {
 			debugPrintln();
@@ -2296,7 +2417,7 @@ protected final void setOpenTimeout(final int timeout) {
  */
 protected void setPerfManagerRegressionType(final RegressionType regressionType, final boolean override) throws ScenarioFailedError {
 	if (PERFORMANCE_ENABLED) {
-		this.browser.perfManager.setRegressionType(regressionType, override);
+		this.browser.getPerfManager().setRegressionType(regressionType, override);
 	} else {
 		throw new ScenarioFailedError("Performances are not enabled for the scenario execution. Use -DperformanceEnabled=true to avoid this failure.");
 	}
@@ -2312,7 +2433,7 @@ protected void setPerfManagerRegressionType(final RegressionType regressionType,
  */
 protected void setPerfManagerUserActionName(final String action) throws ScenarioFailedError {
 	if (PERFORMANCE_ENABLED) {
-		this.browser.perfManager.setUserActionName(action);
+		this.browser.getPerfManager().setUserActionName(action);
 	} else {
 		throw new ScenarioFailedError("Performances are not enabled for the scenario execution. Use -DperformanceEnabled=true to avoid this failure.");
 	}
@@ -2354,7 +2475,7 @@ final public int shortTimeout() {
  */
 protected void startPerfManagerServerTimer() throws ScenarioFailedError {
 	if (PERFORMANCE_ENABLED) {
-		this.browser.perfManager.startServerTimer();
+		this.browser.getPerfManager().startServerTimer();
 	} else {
 		throw new ScenarioFailedError("Performances are not enabled for the scenario execution. Use -DperformanceEnabled=true to avoid this failure.");
 	}
@@ -2599,6 +2720,51 @@ public WebBrowserElement[] waitForFirstMandatoryDisplayedElementInList(final By.
 	return this.browser.waitForFirstDisplayedElementInList(null, locators, /*fail:*/ true, timeout());
 }
 
+/*
+ * Wait for the navigation triggered by a link click to start.
+ *
+ * The navigation is considered as started as soon as a new window is opened,
+ * the browser URL changes or the current document is replaced. Detection is
+ * done at short interval and stops after a short delay (see NAVIGATION_START_TIMEOUT)
+ * as the following checks (URL change and page loading) will take over if nothing
+ * was detected.
+ *
+ * Returns the handle of the new window if any, null otherwise.
+ */
+private String waitForLinkNavigation(final Set<String> handles, final String browserUrl, final String documentMarker) {
+	long start = System.currentTimeMillis();
+	long end = start + NAVIGATION_START_TIMEOUT;
+	while (true) {
+		Set<String> newHandles = this.browser.getWindowHandles(/*check:*/false);
+		if (newHandles.size() > handles.size()) {
+			for (String browserHandle: newHandles) {
+				if (!handles.contains(browserHandle)) {
+					if (DEBUG) debugPrintln("		  -> new window opened after "+(System.currentTimeMillis()-start)+"ms");
+					return browserHandle;
+				}
+			}
+		}
+		try {
+			List<?> state = this.browser.getNavigationState(documentMarker);
+			boolean urlChanged = !browserUrl.equals(state.get(0));
+			boolean documentChanged = documentMarker != null && Boolean.TRUE.equals(state.get(1));
+			if (urlChanged || documentChanged) {
+				if (DEBUG) debugPrintln("		  -> navigation detected after "+(System.currentTimeMillis()-start)+"ms (URL changed: "+urlChanged+", document changed: "+documentChanged+")");
+				return null;
+			}
+		}
+		catch (@SuppressWarnings("unused") Exception ex) {
+			// The document is being replaced, hence navigation has started
+			return null;
+		}
+		if (System.currentTimeMillis() > end) {
+			if (DEBUG) debugPrintln("		  -> no navigation detected after "+NAVIGATION_START_TIMEOUT+"ms");
+			return null;
+		}
+		pause(NAVIGATION_POLLING_INTERVAL);
+	}
+}
+
 /**
  * Wait for the page loading to be finished.
  * <p>
@@ -0,0 +1,180 @@
+/*********************************************************************
+* Copyright (c) 2012, 2024 IBM Corporation and others.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+**********************************************************************/
+package com.ibm.bear.qa.spot.core.web;
+
+import static com.ibm.bear.qa.spot.core.scenario.ScenarioUtils.*;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.WebDriverException;
+
+import com.ibm.bear.qa.spot.core.config.User;
+
+/**
+ * Class to manage the cache of authenticated sessions.
+ * <p>
+ * After a successful login through the login page, the browser cookies and local
+ * storage are stored for the user and the application host. When the same user
+ * has to login again on the same host (typically in a new or restarted browser),
+ * the stored session is replayed into the browser instead of going through the
+ * login page again (see {@link SpotAbstractLoginOperation#performLogin()}).
+ * </p><p>
+ * Sessions reuse is disabled by default, it can be enabled by setting
+ * <code>"reuseLoginSessions"</code> parameter to <code>true</code>.
+ * </p><p>
+ * This class defines following internal API methods:
+ * <ul>
+ * <li>{@link #getInstance()}: Return the sessions cache instance.</li>
+ * <li>{@link #remove(User,String)}: Remove the session stored for the given user and host.</li>
+ * <li>{@link #restore(WebBrowser,User,String)}: Restore the session stored for the given user and host in the given browser.</li>
+ * <li>{@link #store(WebBrowser,User,String)}: Store the current session of the given browser for the given user and host.</li>
+ * </ul>
+ * </p>
+ */
+class WebSessionsCache {
+
+	/**
+	 * Stored session content.
+	 */
+	private static class Session {
+		final Set<Cookie> cookies;
+		final Map<?, ?> localStorage;
+
+		Session(final Set<Cookie> cookies, final Map<?, ?> localStorage) {
+			this.cookies = cookies;
+			this.localStorage = localStorage;
+		}
+	}
+
+	/* Constants */
+	static final boolean REUSE_LOGIN_SESSIONS = getParameterBooleanValue("reuseLoginSessions", false);
+	private static final String READ_LOCAL_STORAGE_SCRIPT =
+		"var items = {};" +
+		"for (var i=0; i<window.localStorage.length; i++) {" +
+		"	var key = window.localStorage.key(i);" +
+		"	items[key] = window.localStorage.getItem(key);" +
+		"}" +
+		"return items;";
+	private static final String WRITE_LOCAL_STORAGE_SCRIPT =
+		"var items = arguments[0];" +
+		"for (var key in items) {" +
+		"	window.localStorage.setItem(key, items[key]);" +
+		"}";
+	private static final WebSessionsCache INSTANCE = new WebSessionsCache();
+
+	/* Fields */
+	private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+private WebSessionsCache() {
+	// Singleton
+}
+
+/**
+ * Return the sessions cache instance.
+ *
+ * @return The unique instance
+ */
+static WebSessionsCache getInstance() {
+	return INSTANCE;
+}
+
+private static String getKey(final User user, final String host) {
+	return user.getId() + "@" + host;
+}
+
+/**
+ * Remove the session stored for the given user and host.
+ *
+ * @param user The user
+ * @param host The application host
+ */
+void remove(final User user, final String host) {
+	if (this.sessions.remove(getKey(user, host)) != null) {
+		debugPrintln("		  -> session of user "+user.getId()+" on "+host+" removed from cache");
+	}
+}
+
+/**
+ * Restore the session stored for the given user and host in the given browser.
+ * <p>
+ * Cookies which cannot be added to the current browser page domain are skipped.
+ * Note that the page has to be refreshed to take the restored session into account.
+ * </p>
+ * @param browser The browser in which the session has to be restored, it has to
+ * display a page of the given host
+ * @param user The user
+ * @param host The application host
+ * @return <code>true</code> if a session was stored and has been restored,
+ * <code>false</code> otherwise
+ */
+boolean restore(final WebBrowser browser, final User user, final String host) {
+	Session session = this.sessions.get(getKey(user, host));
+	if (session == null) {
+		return false;
+	}
+	debugPrintln("		  -> restore session of user "+user.getId()+" on "+host+" ("+session.cookies.size()+" cookies, "+session.localStorage.size()+" local storage items)");
+	int restored = 0;
+	for (Cookie cookie: session.cookies) {
+		try {
+			browser.driver.manage().addCookie(cookie);
+			restored++;
+		}
+		catch (WebDriverException wde) {
+			debugPrintln("		  -> cookie "+cookie.getName()+" cannot be restored: "+wde.getMessage());
+		}
+	}
+	if (!session.localStorage.isEmpty()) {
+		try {
+			browser.getJavascriptExecutor().executeScript(WRITE_LOCAL_STORAGE_SCRIPT, session.localStorage);
+		}
+		catch (WebDriverException wde) {
+			debugPrintln("		  -> local storage cannot be restored: "+wde.getMessage());
+		}
+	}
+	return restored > 0;
+}
+
+/**
+ * Store the current session of the given browser for the given user and host.
+ *
+ * @param browser The browser in which the user is logged in
+ * @param user The user
+ * @param host The application host
+ */
+void store(final WebBrowser browser, final User user, final String host) {
+	Set<Cookie> cookies;
+	try {
+		cookies = new HashSet<>(browser.driver.manage().getCookies());
+	}
+	catch (WebDriverException wde) {
+		debugPrintln("		  -> cookies cannot be read, session is not stored: "+wde.getMessage());
+		return;
+	}
+	if (cookies.isEmpty()) {
+		debugPrintln("		  -> no cookie after login, session is not stored");
+		return;
+	}
+	Map<?, ?> localStorage;
+	try {
+		localStorage = (Map<?, ?>) browser.getJavascriptExecutor().executeScript(READ_LOCAL_STORAGE_SCRIPT);
+	}
+	catch (WebDriverException wde) {
+		debugPrintln("		  -> local storage cannot be read: "+wde.getMessage());
+		localStorage = new HashMap<>();
+	}
+	this.sessions.put(getKey(user, host), new Session(cookies, localStorage));
+	debugPrintln("		  -> session of user "+user.getId()+" on "+host+" stored in cache");
+}
+}
@@ -32,11 +32,19 @@ import com.ibm.bear.qa.spot.core.scenario.errors.WaitElementTimeoutError;
  * <ul>
  * <li>{@link #closeAction(boolean)}: The action to perform to close the window.</li>
  * <li>{@link #getCloseButtonLocator(boolean)}: The button to close the hover.</li>
+ * <li>{@link #getPrefetchAttribute()}: Return the name of the link attribute holding the hover content.</li>
+ * <li>{@link #useScriptMouseOver()}: Return whether the hover can be opened by a scripted mouse over event.</li>
  * </ul>
   * </p>
  */
 abstract public class WebTextHover extends SpotAbstractWindow {
 
+	/* Constants */
+	// Interval between two checks while waiting for the link or the hover
+	private static final int POLLING_INTERVAL = 100; // in milliseconds
+	// Time to wait for the hover after a scripted mouse over before moving the mouse
+	private static final int SCRIPT_MOUSE_OVER_TIMEOUT = 1; // in seconds
+
 	private static By LAST_TEXT_HOVER_LOCATOR;
 
 public WebTextHover(final WebPage page, final By locator) {
@@ -101,6 +109,24 @@ public WebBrowserElement getLinkElement() {
 	return this.openingElement;
 }
 
+/**
+ * Return the name of the link attribute holding the hover content.
+ * <p>
+ * When the application stores the hover content in the DOM of the link element
+ * (e.g. in its <code>title</code> or <code>aria-label</code> attribute), the content
+ * can be read directly without opening the hover, which allows to check a lot of
+ * links at once (see {@link WebPage#checkHoverTitles(java.util.List, Class)}).
+ * </p><p>
+ * Default is to return <code>null</code> which means that the hover has to be
+ * opened to get its content. Subclasses should override this method when the
+ * application supports it.
+ * </p>
+ * @return The attribute name or <code>null</code> if the content is not in the DOM
+ */
+protected String getPrefetchAttribute() {
+	return null;
+}
+
 /**
  * Return the text content of the hover.
  *
@@ -134,35 +160,50 @@ public WebBrowserElement open(final WebBrowserElement webElement) {
 
 	// Store the link element
 	this.openingElement = webElement;
+	this.element = null;
 
 	// Wait for the element to be displayed (allow recovering if element has become stale)
 	long timeout = openTimeout() * 1000 + System.currentTimeMillis();	 // Timeout currentTimeMilliseconds
-	sleep(1);
 	while (!webElement.isDisplayed()) {
 		if (System.currentTimeMillis() > timeout) {
 			throw new WaitElementTimeoutError("Cannot get the link element '"+webElement+"' on which rich hover should be opened.");
 		}
-		sleep(1);
+		pause(POLLING_INTERVAL);
 	}
 
-	// Move the mouse to the link element in order to trigger the hover
-	while (true) {
-		if (System.currentTimeMillis() > timeout) {
-			throw new WaitElementTimeoutError("Cannot open the rich hover over "+webElement);
-		}
+	// Trigger the mouse over event by script first if supported
+	if (useScriptMouseOver()) {
 		try {
-			this.browser.moveToElement(this.openingElement, false);
-//			this.openingElement.mouseOver();
-			break;
+			this.openingElement.mouseOver();
+			this.element = this.browser.waitForElement(null, this.locator, false/*fail*/, SCRIPT_MOUSE_OVER_TIMEOUT, true/*displayed*/, true/*single expected*/);
 		}
-		catch (StaleElementReferenceException sere) {
-			debugPrintException(sere);
-			webElement.isDisplayed(); // allow recovery
+		catch (WebDriverException wde) {
+			debugPrintException(wde);
+		}
+		if (this.element == null) {
+			debugPrintln("		  -> hover didn't open after scripted mouse over, move the mouse instead...");
 		}
 	}
 
-	// Store the hover element
-	this.element = this.browser.waitForElement(null, this.locator, true/*fail*/, (int) ((timeout - System.currentTimeMillis())/1000), true/*displayed*/, true/*single expected*/);
+	// Move the mouse to the link element in order to trigger the hover
+	if (this.element == null) {
+		while (true) {
+			if (System.currentTimeMillis() > timeout) {
+				throw new WaitElementTimeoutError("Cannot open the rich hover over "+webElement);
+			}
+			try {
+				this.browser.moveToElement(this.openingElement, false);
+				break;
+			}
+			catch (StaleElementReferenceException sere) {
+				debugPrintException(sere);
+				webElement.isDisplayed(); // allow recovery
+			}
+		}
+
+		// Store the hover element
+		this.element = this.browser.waitForElement(null, this.locator, true/*fail*/, (int) ((timeout - System.currentTimeMillis())/1000), true/*displayed*/, true/*single expected*/);
+	}
 
 	waitForLoadingEnd();
 
@@ -170,6 +211,23 @@ public WebBrowserElement open(final WebBrowserElement webElement) {
 	return this.element;
 }
 
+/**
+ * Return whether the hover can be opened by a scripted mouse over event.
+ * <p>
+ * When <code>true</code>, the hover is first opened by triggering the javascript
+ * <code>mouseover</code> event on the link element (see {@link WebBrowserElement#mouseOver()}),
+ * which avoids to move the mouse. The mouse is still moved to the link element if the
+ * hover does not open after the event.
+ * </p><p>
+ * Default is <code>false</code>, subclasses should override this method when the
+ * application supports it.
+ * </p>
+ * @return <code>true</code> if a scripted mouse over can be used, <code>false</code> otherwise
+ */
+protected boolean useScriptMouseOver() {
+	return false;
+}
+
 protected void waitForLoadingEnd() {
 	// Do nothing by default
 
@@ -0,0 +1,256 @@
+/*********************************************************************
+* Copyright (c) 2012, 2024 IBM Corporation and others.
+*
+* This program and the accompanying materials are made
+* available under the terms of the Eclipse Public License 2.0
+* which is available at https://www.eclipse.org/legal/epl-2.0/
+*
+* SPDX-License-Identifier: EPL-2.0
+*
+* Contributors:
+*     IBM Corporation - initial API and implementation
+**********************************************************************/
+package com.ibm.bear.qa.spot.core.web;
+
+import static com.ibm.bear.qa.spot.core.scenario.ScenarioUtils.*;
+
+import java.util.*;
+
+import org.openqa.selenium.NoSuchSessionException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.bidi.BrowsingContextInspector;
+import org.openqa.selenium.bidi.HasBiDi;
+
+/**
+ * Class to manage the registry of windows opened in a browser.
+ * <p>
+ * The registry stores for each known window handle the last URL which was displayed
+ * in it. It's updated either by the browser when it switches or loads a page or by
+ * events sent by the browser when BiDi protocol is available for the current session
+ * (ie. when a window is created or a page is loaded inside it). When BiDi is not
+ * available, new windows are discovered by comparing the driver handles with
+ * registered ones at short interval (see {@link #waitForWindow(String, int)}).
+ * </p><p>
+ * Having the registry allows the browser to switch directly to the window displaying
+ * a given URL and to close windows without having to switch into each of them to
+ * get their URL first.
+ * </p><p>
+ * This class defines following internal API methods:
+ * <ul>
+ * <li>{@link #close()}: Close the registry.</li>
+ * <li>{@link #contains(String)}: Return whether the given handle is registered.</li>
+ * <li>{@link #getHandles()}: Return the registered handles.</li>
+ * <li>{@link #getUrl(String)}: Return the URL registered for the given handle.</li>
+ * <li>{@link #refresh()}: Synchronize the registry with the driver window handles.</li>
+ * <li>{@link #register(String, String)}: Register the given handle with its URL.</li>
+ * <li>{@link #unregister(String)}: Remove the given handle from the registry.</li>
+ * <li>{@link #waitForWindow(String, int)}: Wait for a window displaying the given URL.</li>
+ * </ul>
+ * </p>
+ */
+class WebWindowsRegistry {
+
+	/* Constants */
+	// Interval between two checks of the driver window handles when BiDi is not available
+	private static final int POLLING_INTERVAL = 250; // in milliseconds
+
+	/* Fields */
+	private final WebDriver driver;
+	private final Map<String, String> windows = new LinkedHashMap<>();
+	private BrowsingContextInspector inspector;
+
+WebWindowsRegistry(final WebDriver driver) {
+	this.driver = driver;
+	register(driver.getWindowHandle(), null);
+	initInspector();
+}
+
+/**
+ * Close the registry.
+ * <p>
+ * That stops listening to browser events if any.
+ * </p>
+ */
+void close() {
+	if (this.inspector != null) {
+		try {
+			this.inspector.close();
+		}
+		catch (Exception ex) {
+			debugPrintln("Exception '"+ex.getMessage()+"' was skipped while closing browsing context inspector.");
+		}
+		this.inspector = null;
+	}
+	synchronized (this) {
+		this.windows.clear();
+	}
+}
+
+/**
+ * Return whether the given handle is registered.
+ *
+ * @param handle The window handle
+ * @return <code>true</code> if the handle is known by the registry, <code>false</code> otherwise
+ */
+synchronized boolean contains(final String handle) {
+	return this.windows.containsKey(handle);
+}
+
+/**
+ * Return the registered handles.
+ *
+ * @return The handles in their registration order as a new set
+ */
+synchronized Set<String> getHandles() {
+	return new LinkedHashSet<>(this.windows.keySet());
+}
+
+/**
+ * Return the URL registered for the given handle.
+ *
+ * @param handle The window handle
+ * @return The URL or <code>null</code> if it's not known
+ */
+synchronized String getUrl(final String handle) {
+	return this.windows.get(handle);
+}
+
+/*
+ * Listen to browsing context events if BiDi protocol is available for the current session.
+ */
+private void initInspector() {
+	if (!(this.driver instanceof HasBiDi) || !((HasBiDi) this.driver).maybeGetBiDi().isPresent()) {
+		debugPrintln("		  -> BiDi is not available, windows registry will poll driver handles");
+		return;
+	}
+	try {
+		this.inspector = new BrowsingContextInspector(this.driver);
+		this.inspector.onBrowsingContextCreated(info -> {
+			// Only top level contexts are windows
+			if (info.getParentBrowsingContext() == null) {
+				register(info.getId(), info.getUrl());
+			}
+		});
+		this.inspector.onBrowsingContextLoaded(info -> {
+			synchronized (this) {
+				if (this.windows.containsKey(info.getBrowsingContextId())) {
+					register(info.getBrowsingContextId(), info.getUrl());
+				}
+			}
+		});
+		debugPrintln("		  -> windows registry listens to BiDi browsing context events");
+	}
+	catch (Exception ex) {
+		debugPrintln("		  -> cannot listen to BiDi events ("+ex.getMessage()+"), windows registry will poll driver handles");
+		this.inspector = null;
+	}
+}
+
+/**
+ * Synchronize the registry with the driver window handles.
+ * <p>
+ * New handles are registered with an unknown URL and handles which no longer
+ * exist are removed from the registry.
+ * </p>
+ * @return The current handles
+ */
+Set<String> refresh() {
+	Set<String> handles;
+	try {
+		handles = this.driver.getWindowHandles();
+	}
+	catch (@SuppressWarnings("unused") NoSuchSessionException nsse) {
+		handles = new HashSet<>();
+	}
+	synchronized (this) {
+		this.windows.keySet().retainAll(handles);
+		for (String handle: handles) {
+			this.windows.putIfAbsent(handle, null);
+		}
+	}
+	return handles;
+}
+
+/**
+ * Register the given handle with its URL.
+ *
+ * @param handle The window handle
+ * @param url The URL displayed in the window, might be <code>null</code> if unknown
+ */
+synchronized void register(final String handle, final String url) {
+	if (url == null) {
+		this.windows.putIfAbsent(handle, null);
+	} else {
+		this.windows.put(handle, url);
+	}
+	notifyAll();
+}
+
+/**
+ * Remove the given handle from the registry.
+ *
+ * @param handle The window handle
+ */
+synchronized void unregister(final String handle) {
+	this.windows.remove(handle);
+}
+
+/**
+ * Wait for a window displaying the given URL.
+ * <p>
+ * Windows which registered URL matches are checked first, then windows which URL
+ * is not known yet (or still blank). Each of them is switched to in order to verify
+ * its actual URL, which also refreshes the registry. If no window matches,
+ * then the method waits either for a BiDi event or for a new driver handle
+ * to appear and checks again until timeout expires.
+ * </p><p>
+ * Note that the driver is left on the found window.
+ * </p>
+ * @param urlPrefix The beginning of the URL displayed in the expected window
+ * @param timeout The time to wait in milliseconds
+ * @return The handle of the window or <code>null</code> if none was found before the timeout
+ */
+String waitForWindow(final String urlPrefix, final int timeout) {
+	long end = System.currentTimeMillis() + timeout;
+	while (true) {
+		if (this.inspector == null) {
+			refresh();
+		}
+		// Matching windows are checked first, then windows with unknown URL
+		List<String> candidates = new ArrayList<>();
+		List<String> unknownHandles = new ArrayList<>();
+		synchronized (this) {
+			for (Map.Entry<String, String> entry: this.windows.entrySet()) {
+				String url = entry.getValue();
+				if (url == null || url.equals("about:blank")) {
+					unknownHandles.add(entry.getKey());
+				} else if (url.startsWith(urlPrefix)) {
+					candidates.add(entry.getKey());
+				}
+			}
+		}
+		candidates.addAll(unknownHandles);
+		for (String handle: candidates) {
+			this.driver.switchTo().window(handle);
+			String url = this.driver.getCurrentUrl();
+			register(handle, url);
+			if (url.startsWith(urlPrefix)) {
+				return handle;
+			}
+		}
+		long remaining = end - System.currentTimeMillis();
+		if (remaining <= 0) {
+			return null;
+		}
+		synchronized (this) {
+			try {
+				wait(Math.min(remaining, POLLING_INTERVAL));
+			}
+			catch (@SuppressWarnings("unused") InterruptedException ie) {
+				Thread.currentThread().interrupt();
+				return null;
+			}
+		}
+	}
+}
+}